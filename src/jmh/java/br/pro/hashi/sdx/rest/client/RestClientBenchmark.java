@@ -0,0 +1,156 @@
+package br.pro.hashi.sdx.rest.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.pro.hashi.sdx.rest.server.RestServer;
+import br.pro.hashi.sdx.rest.server.RestServerBuilder;
+
+// Loopback comparison of the client transports against a RestServer that
+// serves all of them over TLS. Throughput and sampled latency are measured
+// together, so the JSON result has ops/ms and the latency percentiles of
+// each protocol and payload. Concurrency is the number of JMH threads, which
+// share one client, and can be changed with -t, for example:
+//
+// mvn -P benchmark test-compile exec:exec -Djmh.args="RestClientBenchmark -t 32 -rf json -rff target/client.json"
+//
+// HTTP/3 needs the native QUIC library used by Jetty, so it may fail on
+// platforms where that library is not available.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class RestClientBenchmark {
+	private static final String PASSWORD = "benchmark";
+	private static final String JSON_BODY = "{\"name\": \"value\", \"items\": [0, 1, 2, 3], \"nested\": {\"flag\": true}}";
+
+	@Param({ "http1", "http2", "http3", "dynamic" })
+	private String protocol;
+
+	@Param({ "json", "binary", "multipart" })
+	private String payload;
+
+	@Param({ "1048576" })
+	private int binarySize;
+
+	private Path directory;
+	private RestServer server;
+	private RestClient client;
+	private byte[] binaryBody;
+	private String fileBody;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		directory = Files.createTempDirectory("sdx-rest-benchmark");
+		String path = generateKeyStore(directory.resolve("keystore.p12"));
+
+		RestServerBuilder serverBuilder = new RestServerBuilder()
+				.withKeyStore(path, PASSWORD)
+				.withClearPort(getFreePort())
+				.withSecurePort(getFreePort())
+				.withMaxBodySize(2L * binarySize);
+		if (protocol.equals("http3")) {
+			serverBuilder.withPort3(getFreeDatagramPort()).withHttp3();
+		}
+		server = serverBuilder.build("br.pro.hashi.sdx.rest.server.mock.benchmark");
+		server.start();
+
+		// the KeyStore also works as a TrustStore for its own certificate
+		RestClientBuilder clientBuilder = new RestClientBuilder().withTrustStore(path, PASSWORD);
+		client = switch (protocol) {
+		case "http1" -> clientBuilder.buildWithHttp1(server.getPrivateUrl());
+		case "http2" -> clientBuilder.buildWithHttp2(server.getPrivateUrl());
+		case "http3" -> clientBuilder.buildWithHttp3(server.getPrivateUrl3());
+		default -> clientBuilder.build(server.getPrivateUrl());
+		};
+		client.start();
+
+		binaryBody = new byte[binarySize];
+		Arrays.fill(binaryBody, (byte) 1);
+		fileBody = "x".repeat(16384);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		if (client != null) {
+			client.stop();
+		}
+		if (server != null) {
+			server.stop();
+		}
+		for (File file : directory.toFile().listFiles()) {
+			file.delete();
+		}
+		Files.delete(directory);
+	}
+
+	@Benchmark
+	public String request() {
+		RestResponse response = switch (payload) {
+		case "json" -> client.withBody(JSON_BODY).post("/users");
+		case "binary" -> client.withBody(binaryBody).post("/blobs");
+		default -> client.withPart("name", "value").withPart("file", fileBody).post("/files");
+		};
+		if (response.getStatus() / 100 != 2) {
+			throw new IllegalStateException("Server responded with %d".formatted(response.getStatus()));
+		}
+		return response.getBody(String.class);
+	}
+
+	private String generateKeyStore(Path path) throws IOException, InterruptedException {
+		String keytool = Path.of(System.getProperty("java.home"), "bin", "keytool").toString();
+		Process process = new ProcessBuilder(
+				keytool, "-genkeypair",
+				"-alias", "localhost",
+				"-keyalg", "EC",
+				"-groupname", "secp256r1",
+				"-dname", "CN=localhost",
+				"-ext", "SAN=dns:localhost,ip:127.0.0.1",
+				"-validity", "1",
+				"-storetype", "PKCS12",
+				"-keystore", path.toString(),
+				"-storepass", PASSWORD)
+				.inheritIO()
+				.start();
+		if (process.waitFor() != 0) {
+			throw new IllegalStateException("Could not generate KeyStore");
+		}
+		return path.toString();
+	}
+
+	private int getFreePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private int getFreeDatagramPort() throws IOException {
+		try (DatagramSocket socket = new DatagramSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package br.pro.hashi.sdx.rest.coding;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MediaCoderBenchmark {
+	// the patterns MediaCoder used before the hand-written parser
+	private static final Pattern BASE64_PATTERN = Pattern.compile("(?:[^;]*;)+\\s*base64\\s*(?:;[^;]*)*", Pattern.CASE_INSENSITIVE);
+	private static final Pattern CHARSET_PATTERN = Pattern.compile("(?:[^;]*;)+\\s*charset\\s*=\\s*([^\\s;]+)\\s*(?:;[^;]*)*", Pattern.CASE_INSENSITIVE);
+
+	@Param({
+			"application/json",
+			"text/plain;charset=UTF-8",
+			"application/octet-stream; base64",
+			" type/subtype ; parameter ; name = value ; charset = ISO-8859-1 ; base64 " })
+	private String contentType;
+
+	private MediaCoder coder;
+
+	@Setup
+	public void setUp() {
+		coder = new MediaCoder();
+	}
+
+	@Benchmark
+	public MediaType parse() {
+		return coder.parse(contentType);
+	}
+
+	@Benchmark
+	public MediaType parseWithoutCache() {
+		return coder.newMediaType(contentType);
+	}
+
+	@Benchmark
+	public Object[] parseWithPatterns() {
+		String essence = contentType;
+		int index = essence.indexOf(';');
+		if (index != -1) {
+			essence = essence.substring(0, index);
+		}
+		essence = essence.strip();
+		Matcher matcher = CHARSET_PATTERN.matcher(contentType);
+		String charsetName = matcher.matches() ? matcher.group(1) : null;
+		boolean base64 = BASE64_PATTERN.matcher(contentType).matches();
+		return new Object[] { essence, charsetName, base64 };
+	}
+
+	@Benchmark
+	public String strip() {
+		return coder.strip(contentType);
+	}
+
+	@Benchmark
+	public Reader reader() {
+		return coder.reader(InputStream.nullInputStream(), contentType);
+	}
+
+	@Benchmark
+	public InputStream decode() {
+		return coder.decode(InputStream.nullInputStream(), contentType);
+	}
+
+	@Benchmark
+	public boolean base64WithPattern() {
+		return BASE64_PATTERN.matcher(contentType).matches();
+	}
+
+	@Benchmark
+	public boolean base64() {
+		return coder.parse(contentType).base64();
+	}
+}
@@ -0,0 +1,55 @@
+package br.pro.hashi.sdx.rest.coding;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathCoderBenchmark {
+	private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+	@Param({
+			"/",
+			"/users/123/posts",
+			"/a%20b/%C3%A7/c+d/e/f/g" })
+	private String uri;
+
+	private PathCoder coder;
+
+	@Setup
+	public void setUp() {
+		coder = PathCoder.getInstance();
+	}
+
+	@Benchmark
+	public String[] splitAndDecode() {
+		return coder.splitAndDecode(uri, CHARSET);
+	}
+
+	@Benchmark
+	public String stripEndingSlashes() {
+		return coder.stripEndingSlashes(uri);
+	}
+
+	@Benchmark
+	public String recode() {
+		return coder.recode(uri, CHARSET);
+	}
+}
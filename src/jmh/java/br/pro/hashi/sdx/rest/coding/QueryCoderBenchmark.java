@@ -0,0 +1,62 @@
+package br.pro.hashi.sdx.rest.coding;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryCoderBenchmark {
+	private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+	@Param({
+			"page=2",
+			"page=2&size=50&q=caf%C3%A9+latte&tag=a&tag=b" })
+	private String query;
+
+	@Param({
+			"value",
+			"café latte & more" })
+	private String item;
+
+	private QueryCoder coder;
+	private String encoded;
+
+	@Setup
+	public void setUp() {
+		coder = QueryCoder.getInstance();
+		encoded = coder.encode(item, CHARSET);
+	}
+
+	@Benchmark
+	public String encode() {
+		return coder.encode(item, CHARSET);
+	}
+
+	@Benchmark
+	public String recode() {
+		return coder.recode(encoded, CHARSET);
+	}
+
+	@Benchmark
+	public Map<String, String[]> parse() {
+		return coder.parse(query, CHARSET);
+	}
+}
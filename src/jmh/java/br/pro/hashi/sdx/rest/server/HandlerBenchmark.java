@@ -0,0 +1,104 @@
+package br.pro.hashi.sdx.rest.server;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// end to end through Jetty, but without sockets: the connector parses raw
+// requests from memory and hands them to the same handler chain as in
+// production
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerBenchmark {
+	private static final String MULTIPART_BODY = """
+			--boundary\r
+			Content-Disposition: form-data; name="name"\r
+			\r
+			value\r
+			--boundary\r
+			Content-Disposition: form-data; name="file"; filename="file.txt"\r
+			Content-Type: text/plain\r
+			\r
+			content\r
+			--boundary--\r
+			""";
+	private static final String JSON_BODY = "{\"name\": \"value\", \"items\": [0, 1, 2, 3], \"nested\": {\"flag\": true}}";
+	private static final Map<String, String> REQUESTS = Map.of(
+			"static", get("/users"),
+			"variable", get("/users/123"),
+			"varargs", get("/files/a/b/c"),
+			"query", get("/search?q=caf%C3%A9+latte&page=2"),
+			"body", post("/users", "text/plain;charset=UTF-8", JSON_BODY),
+			"multipart", post("/files", "multipart/form-data; boundary=boundary", MULTIPART_BODY),
+			"notFound", get("/missing"));
+
+	private static String get(String uri) {
+		return """
+				GET %s HTTP/1.1\r
+				Host: localhost\r
+				Connection: close\r
+				\r
+				""".formatted(uri);
+	}
+
+	private static String post(String uri, String contentType, String body) {
+		return """
+				POST %s HTTP/1.1\r
+				Host: localhost\r
+				Connection: close\r
+				Content-Type: %s\r
+				Content-Length: %d\r
+				\r
+				%s""".formatted(uri, contentType, body.length(), body);
+	}
+
+	@Param({ "static", "variable", "varargs", "query", "body", "multipart", "notFound" })
+	private String scenario;
+
+	private Server server;
+	private LocalConnector connector;
+	private String request;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		RestServer restServer = new RestServerBuilder().build("br.pro.hashi.sdx.rest.server.mock.benchmark");
+		server = restServer.getJettyServer();
+		for (Connector serverConnector : server.getConnectors()) {
+			server.removeConnector(serverConnector);
+		}
+		connector = new LocalConnector(server);
+		server.addConnector(connector);
+		server.start();
+		request = REQUESTS.get(scenario);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		server.stop();
+	}
+
+	@Benchmark
+	public String handle() throws Exception {
+		return connector.getResponse(request);
+	}
+}
@@ -0,0 +1,10 @@
+package br.pro.hashi.sdx.rest.server.mock.benchmark;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Body;
+
+public class Blobs extends RestResource {
+	public int post(@Body byte[] body) {
+		return body.length;
+	}
+}
@@ -0,0 +1,14 @@
+package br.pro.hashi.sdx.rest.server.mock.benchmark;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Part;
+
+public class Files extends RestResource {
+	public String get(String... path) {
+		return "file";
+	}
+
+	public String post(@Part("name") String name, @Part("file") String file) {
+		return name;
+	}
+}
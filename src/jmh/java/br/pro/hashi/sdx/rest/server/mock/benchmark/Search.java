@@ -0,0 +1,10 @@
+package br.pro.hashi.sdx.rest.server.mock.benchmark;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Query;
+
+public class Search extends RestResource {
+	public String get(@Query("q") String q, @Query(value = "page", defaultValue = "1") int page) {
+		return q;
+	}
+}
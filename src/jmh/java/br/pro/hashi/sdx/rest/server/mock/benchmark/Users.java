@@ -0,0 +1,18 @@
+package br.pro.hashi.sdx.rest.server.mock.benchmark;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Body;
+
+public class Users extends RestResource {
+	public String get() {
+		return "users";
+	}
+
+	public String get(int id) {
+		return "user";
+	}
+
+	public String post(@Body String body) {
+		return body;
+	}
+}
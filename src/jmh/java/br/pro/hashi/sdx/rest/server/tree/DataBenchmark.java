@@ -0,0 +1,67 @@
+package br.pro.hashi.sdx.rest.server.tree;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.pro.hashi.sdx.rest.transform.manager.TransformManager;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataBenchmark {
+	@Param({ "64", "16384" })
+	private int size;
+
+	private TransformManager manager;
+	private byte[] plainBytes;
+	private byte[] base64Bytes;
+
+	@Setup
+	public void setUp() {
+		manager = TransformManager.newInstance();
+		manager.freeze();
+		plainBytes = "x".repeat(size).getBytes(StandardCharsets.UTF_8);
+		base64Bytes = Base64.getEncoder().encode(plainBytes);
+	}
+
+	@Benchmark
+	public Object getPlainString() {
+		Data data = new Data(manager, "text/plain;charset=UTF-8", new ByteArrayInputStream(plainBytes));
+		return data.getBody(String.class, 0);
+	}
+
+	@Benchmark
+	public Object getBase64String() {
+		Data data = new Data(manager, "text/plain;charset=UTF-8;base64", new ByteArrayInputStream(base64Bytes));
+		return data.getBody(String.class, 0);
+	}
+
+	@Benchmark
+	public Object getPlainBytes() {
+		Data data = new Data(manager, "application/octet-stream", new ByteArrayInputStream(plainBytes));
+		return data.getBody(byte[].class, 0);
+	}
+
+	@Benchmark
+	public Object getBase64Bytes() {
+		Data data = new Data(manager, "application/octet-stream;base64", new ByteArrayInputStream(base64Bytes));
+		return data.getBody(byte[].class, 0);
+	}
+}
@@ -0,0 +1,114 @@
+package br.pro.hashi.sdx.rest.server.tree;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.pro.hashi.sdx.rest.Fields;
+import br.pro.hashi.sdx.rest.reflection.ParserFactory;
+import br.pro.hashi.sdx.rest.reflection.Queries;
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.mock.benchmark.Files;
+import br.pro.hashi.sdx.rest.server.mock.benchmark.Search;
+import br.pro.hashi.sdx.rest.server.mock.benchmark.Users;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndpointBenchmark {
+	// a constant handle, which the JIT can inline unlike the handle of an endpoint
+	private static final MethodHandle CONSTANT_INVOKER = newConstantInvoker();
+
+	private static MethodHandle newConstantInvoker() {
+		try {
+			return Endpoint.toInvoker(newHandle());
+		} catch (ReflectiveOperationException exception) {
+			throw new ExceptionInInitializerError(exception);
+		}
+	}
+
+	private static MethodHandle newHandle() throws ReflectiveOperationException {
+		return MethodHandles.lookup().unreflect(Users.class.getDeclaredMethod("get", int.class));
+	}
+
+	private Users users;
+	private Files files;
+	private Search search;
+	private Endpoint withoutItems;
+	private Endpoint withItem;
+	private Endpoint withVarArgs;
+	private Endpoint withQueries;
+	private Fields queries;
+	private MethodHandle handle;
+	private MethodHandle invoker;
+
+	@Setup
+	public void setUp() throws ReflectiveOperationException {
+		users = new Users();
+		files = new Files();
+		search = new Search();
+		withoutItems = newEndpoint(Users.class, Users.class.getDeclaredMethod("get"));
+		withItem = newEndpoint(Users.class, Users.class.getDeclaredMethod("get", int.class));
+		withVarArgs = newEndpoint(Files.class, Files.class.getDeclaredMethod("get", String[].class));
+		withQueries = newEndpoint(Search.class, Search.class.getDeclaredMethod("get", String.class, int.class));
+		queries = Queries.newInstance(Map.of("q", new String[] { "value" }, "page", new String[] { "2" }));
+		handle = newHandle();
+		invoker = Endpoint.toInvoker(handle);
+	}
+
+	private Endpoint newEndpoint(Class<? extends RestResource> type, Method method) {
+		return new Endpoint(ParserFactory.getInstance(), 0, 0, type, type.getName(), method, "GET");
+	}
+
+	@Benchmark
+	public Object callWithoutItems() throws Exception {
+		return withoutItems.call(users, List.of(), Map.of(), null);
+	}
+
+	@Benchmark
+	public Object callWithItem() throws Exception {
+		return withItem.call(users, List.of("123"), Map.of(), null);
+	}
+
+	@Benchmark
+	public Object callWithVarArgs() throws Exception {
+		return withVarArgs.call(files, List.of("a", "b", "c"), Map.of(), null);
+	}
+
+	@Benchmark
+	public Object callWithQueries() throws Exception {
+		return withQueries.call(search, List.of(), queries, null, Map.of(), null);
+	}
+
+	@Benchmark
+	public Object invokeWithArguments() throws Throwable {
+		return handle.invokeWithArguments(users, 123);
+	}
+
+	@Benchmark
+	public Object invokeSpread() throws Throwable {
+		return (Object) invoker.invokeExact(new Object[] { users, 123 });
+	}
+
+	@Benchmark
+	public Object invokeConstantSpread() throws Throwable {
+		return (Object) CONSTANT_INVOKER.invokeExact(new Object[] { users, 123 });
+	}
+}
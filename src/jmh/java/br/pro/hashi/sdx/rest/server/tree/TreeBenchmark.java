@@ -0,0 +1,66 @@
+package br.pro.hashi.sdx.rest.server.tree;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.pro.hashi.sdx.rest.coding.PathCoder;
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.mock.benchmark.Files;
+import br.pro.hashi.sdx.rest.server.mock.benchmark.Search;
+import br.pro.hashi.sdx.rest.server.mock.benchmark.Users;
+import br.pro.hashi.sdx.rest.server.tree.Tree.Leaf;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+	@Param({ "/users", "/users/123", "/files/a/b/c", "/search" })
+	private String uri;
+
+	private Tree tree;
+	private String[] items;
+
+	@Setup
+	public void setUp() {
+		Map<Class<? extends RestResource>, String[]> itemMap = Map.of(
+				Users.class, new String[] { "users" },
+				Files.class, new String[] { "files" },
+				Search.class, new String[] { "search" });
+		tree = Tree.newInstance(Locale.ENGLISH, 0);
+		for (Class<? extends RestResource> type : itemMap.keySet()) {
+			tree.putNodesAndEndpoints(type, type.getName(), itemMap);
+		}
+		tree.freeze();
+		items = PathCoder.getInstance().splitAndDecode(uri, StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public Leaf getLeafAndAddItems() {
+		List<String> itemList = new ArrayList<>();
+		return tree.getLeafAndAddItems(items, itemList);
+	}
+
+	@Benchmark
+	public Leaf getStaticLeaf() {
+		return tree.getStaticLeaf(uri);
+	}
+}
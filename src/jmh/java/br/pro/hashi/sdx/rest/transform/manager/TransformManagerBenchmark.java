@@ -0,0 +1,72 @@
+package br.pro.hashi.sdx.rest.transform.manager;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.pro.hashi.sdx.rest.transform.Deserializer;
+import br.pro.hashi.sdx.rest.transform.Serializer;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformManagerBenchmark {
+	private static final String ACCEPT = "application/json;q=0.9, text/plain, */*;q=0.1";
+
+	private TransformManager manager;
+	private String body;
+
+	@Setup
+	public void setUp() {
+		manager = TransformManager.newInstance();
+		manager.freeze();
+		body = "body";
+	}
+
+	@Benchmark
+	public String getDeserializerType() {
+		return manager.getDeserializerType("text/plain;charset=UTF-8", String.class);
+	}
+
+	@Benchmark
+	public String getSerializerType() {
+		return manager.getSerializerType(null, body, String.class);
+	}
+
+	@Benchmark
+	public Deserializer getDeserializer() {
+		return manager.getDeserializer("text/plain");
+	}
+
+	@Benchmark
+	public Serializer getSerializer() {
+		return manager.getSerializer("text/plain");
+	}
+
+	@Benchmark
+	public String getExtensionType() {
+		return manager.getExtensionType("txt");
+	}
+
+	@Benchmark
+	public boolean isBinary() {
+		return manager.isBinary(byte[].class);
+	}
+
+	@Benchmark
+	public String getAcceptType() {
+		return manager.getAcceptType(String.class, ACCEPT);
+	}
+}
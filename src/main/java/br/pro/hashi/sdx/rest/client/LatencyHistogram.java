@@ -0,0 +1,176 @@
+package br.pro.hashi.sdx.rest.client;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histogram of latencies in nanoseconds, with buckets whose width
+ * grows with the magnitude of the value, so that any recorded value is
+ * reported with a relative error below 0.2%.
+ */
+public final class LatencyHistogram {
+	// values below 2^BITS have their own bucket, larger values share one of
+	// HALF linear buckets in each power of two
+	private static final int BITS = 10;
+	private static final int SIZE = 1 << BITS;
+	private static final int HALF = SIZE >> 1;
+	private static final int LENGTH = SIZE + (Long.SIZE - 1 - BITS) * HALF;
+
+	static int indexOf(long value) {
+		if (value < SIZE) {
+			return (int) value;
+		}
+		int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int shift = magnitude - BITS + 1;
+		int sub = (int) (value >>> shift);
+		return SIZE + (magnitude - BITS) * HALF + (sub - HALF);
+	}
+
+	static long highestOf(int index) {
+		if (index < SIZE) {
+			return index;
+		}
+		int offset = index - SIZE;
+		int magnitude = BITS + offset / HALF;
+		int shift = magnitude - BITS + 1;
+		long sub = HALF + offset % HALF;
+		return (sub << shift) + (1L << shift) - 1;
+	}
+
+	private final AtomicLongArray counts;
+	private final LongAdder count;
+	private final LongAdder sum;
+	private final LongAccumulator min;
+	private final LongAccumulator max;
+
+	/**
+	 * Constructs an empty histogram.
+	 */
+	public LatencyHistogram() {
+		this.counts = new AtomicLongArray(LENGTH);
+		this.count = new LongAdder();
+		this.sum = new LongAdder();
+		this.min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+		this.max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+	}
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param nanos the latency, in nanoseconds
+	 * @throws IllegalArgumentException if the latency is negative
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			throw new IllegalArgumentException("Latency must be non-negative");
+		}
+		counts.incrementAndGet(indexOf(nanos));
+		count.increment();
+		sum.add(nanos);
+		min.accumulate(nanos);
+		max.accumulate(nanos);
+	}
+
+	/**
+	 * Records all latencies of another histogram.
+	 *
+	 * @param histogram the other histogram
+	 * @throws NullPointerException if the histogram is null
+	 */
+	public void add(LatencyHistogram histogram) {
+		if (histogram == null) {
+			throw new NullPointerException("Histogram cannot be null");
+		}
+		for (int i = 0; i < LENGTH; i++) {
+			long value = histogram.counts.get(i);
+			if (value > 0) {
+				counts.addAndGet(i, value);
+			}
+		}
+		count.add(histogram.count.sum());
+		sum.add(histogram.sum.sum());
+		min.accumulate(histogram.min.get());
+		max.accumulate(histogram.max.get());
+	}
+
+	/**
+	 * Obtains the number of recorded latencies.
+	 *
+	 * @return the number
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Obtains the smallest recorded latency or zero if there is none.
+	 *
+	 * @return the latency, in nanoseconds
+	 */
+	public long getMin() {
+		if (getCount() == 0) {
+			return 0;
+		}
+		return min.get();
+	}
+
+	/**
+	 * Obtains the largest recorded latency or zero if there is none.
+	 *
+	 * @return the latency, in nanoseconds
+	 */
+	public long getMax() {
+		if (getCount() == 0) {
+			return 0;
+		}
+		return max.get();
+	}
+
+	/**
+	 * Obtains the mean of the recorded latencies or zero if there is none.
+	 *
+	 * @return the mean, in nanoseconds
+	 */
+	public double getMean() {
+		long total = getCount();
+		if (total == 0) {
+			return 0;
+		}
+		return (double) sum.sum() / total;
+	}
+
+	/**
+	 * Obtains the latency below or at which the specified percentage of the
+	 * recorded latencies are, or zero if there is none.
+	 *
+	 * @param percentile the percentage, between 0 and 100
+	 * @return the latency, in nanoseconds
+	 * @throws IllegalArgumentException if the percentage is not between 0 and 100
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (!(percentile >= 0 && percentile <= 100)) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		}
+		long[] snapshot = new long[LENGTH];
+		long total = 0;
+		for (int i = 0; i < LENGTH; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		int index = 0;
+		while (index < LENGTH - 1) {
+			seen += snapshot[index];
+			if (seen >= rank) {
+				break;
+			}
+			index++;
+		}
+		return Math.min(highestOf(index), getMax());
+	}
+}
@@ -197,6 +197,7 @@ public non-sealed class RestClientBuilder extends Builder<RestClientBuilder> {
 
 	private RestClient build(HttpClientTransport transport, String urlPrefix) {
 		TransformManager managerCopy = TransformManager.newInstance(managerBase);
+		managerCopy.freeze();
 		HttpClient client = new HttpClient(transport);
 		client.setCookieStore(new HttpCookieStore.Empty());
 		client.setFollowRedirects(redirection);
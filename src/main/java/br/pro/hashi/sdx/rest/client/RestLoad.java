@@ -0,0 +1,354 @@
+package br.pro.hashi.sdx.rest.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import br.pro.hashi.sdx.rest.client.exception.ClientException;
+
+/**
+ * <p>
+ * Open-loop load generator that drives a {@link RestClient} at a fixed rate.
+ * </p>
+ * <p>
+ * Requests are scheduled at evenly spaced instants regardless of how long
+ * previous requests took, and latencies are measured from those instants. A
+ * slow server therefore shows up in the report instead of silently lowering
+ * the rate.
+ * </p>
+ */
+public final class RestLoad {
+	private static final int CONCURRENCY = 64;
+
+	/**
+	 * Instantiates a load generator for the specified client.
+	 *
+	 * @param client the client
+	 * @return the generator
+	 * @throws NullPointerException if the client is null
+	 */
+	public static RestLoad of(RestClient client) {
+		if (client == null) {
+			throw new NullPointerException("Client cannot be null");
+		}
+		return new RestLoad(client);
+	}
+
+	private final Logger logger;
+	private final RestClient client;
+	private final List<Entry> entries;
+	private double rate;
+	private int concurrency;
+	private Duration warmup;
+	private long seed;
+
+	RestLoad(RestClient client) {
+		this.logger = LoggerFactory.getLogger(RestLoad.class);
+		this.client = client;
+		this.entries = new ArrayList<>();
+		this.rate = 1;
+		this.concurrency = CONCURRENCY;
+		this.warmup = Duration.ZERO;
+		this.seed = 0;
+	}
+
+	List<Entry> getEntries() {
+		return entries;
+	}
+
+	double getRate() {
+		return rate;
+	}
+
+	int getConcurrency() {
+		return concurrency;
+	}
+
+	Duration getWarmup() {
+		return warmup;
+	}
+
+	long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Sets the target rate. One request per second by default.
+	 *
+	 * @param rate the rate, in requests per second
+	 * @return this generator, for chaining
+	 * @throws IllegalArgumentException if the rate is not positive
+	 */
+	public RestLoad withRate(double rate) {
+		if (!(rate > 0)) {
+			throw new IllegalArgumentException("Rate must be positive");
+		}
+		this.rate = rate;
+		return this;
+	}
+
+	/**
+	 * <p>
+	 * Sets the maximum number of requests in flight. 64 by default.
+	 * </p>
+	 * <p>
+	 * Requests scheduled while this maximum is reached wait for a slot, and the
+	 * wait is included in their latencies.
+	 * </p>
+	 *
+	 * @param concurrency the maximum
+	 * @return this generator, for chaining
+	 * @throws IllegalArgumentException if the maximum is not positive
+	 */
+	public RestLoad withConcurrency(int concurrency) {
+		if (concurrency < 1) {
+			throw new IllegalArgumentException("Concurrency must be positive");
+		}
+		this.concurrency = concurrency;
+		return this;
+	}
+
+	/**
+	 * Sets a warmup whose requests are sent but not reported. None by default.
+	 *
+	 * @param warmup the warmup
+	 * @return this generator, for chaining
+	 * @throws NullPointerException     if the warmup is null
+	 * @throws IllegalArgumentException if the warmup is negative
+	 */
+	public RestLoad withWarmup(Duration warmup) {
+		if (warmup == null) {
+			throw new NullPointerException("Warmup cannot be null");
+		}
+		if (warmup.isNegative()) {
+			throw new IllegalArgumentException("Warmup cannot be negative");
+		}
+		this.warmup = warmup;
+		return this;
+	}
+
+	/**
+	 * Sets the seed used to pick requests from the mix. Zero by default.
+	 *
+	 * @param seed the seed
+	 * @return this generator, for chaining
+	 */
+	public RestLoad withSeed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * <p>
+	 * Adds a request to the mix.
+	 * </p>
+	 * <p>
+	 * Each scheduled request is picked at random with probability proportional
+	 * to its weight. The function receives the client and must return the
+	 * response. If the body of the response is not read by the function, it is
+	 * discarded.
+	 * </p>
+	 *
+	 * @param name    the name used in the report
+	 * @param weight  the weight
+	 * @param request the function
+	 * @return this generator, for chaining
+	 * @throws NullPointerException     if the name is null or the function is null
+	 * @throws IllegalArgumentException if the name is blank, the name has already
+	 *                                  been added, or the weight is not positive
+	 */
+	public RestLoad withRequest(String name, int weight, Function<RestClient, RestResponse> request) {
+		if (name == null) {
+			throw new NullPointerException("Name cannot be null");
+		}
+		name = name.strip();
+		if (name.isEmpty()) {
+			throw new IllegalArgumentException("Name cannot be blank");
+		}
+		for (Entry entry : entries) {
+			if (entry.name().equals(name)) {
+				throw new IllegalArgumentException("Name '%s' has already been added".formatted(name));
+			}
+		}
+		if (weight < 1) {
+			throw new IllegalArgumentException("Weight must be positive");
+		}
+		if (request == null) {
+			throw new NullPointerException("Request cannot be null");
+		}
+		entries.add(new Entry(name, weight, request));
+		return this;
+	}
+
+	/**
+	 * Runs the load for the specified duration, after the warmup, and waits for
+	 * all requests to finish.
+	 *
+	 * @param duration the duration
+	 * @return the report
+	 * @throws NullPointerException     if the duration is null
+	 * @throws IllegalArgumentException if the duration is not positive
+	 * @throws IllegalStateException    if no request has been added
+	 * @throws ClientException          if the thread is interrupted
+	 */
+	public RestLoadReport run(Duration duration) {
+		if (duration == null) {
+			throw new NullPointerException("Duration cannot be null");
+		}
+		if (duration.isZero() || duration.isNegative()) {
+			throw new IllegalArgumentException("Duration must be positive");
+		}
+		if (entries.isEmpty()) {
+			throw new IllegalStateException("Mix must have at least one request");
+		}
+		client.start();
+
+		int[] weights = new int[entries.size()];
+		int total = 0;
+		for (int i = 0; i < weights.length; i++) {
+			total += entries.get(i).weight();
+			weights[i] = total;
+		}
+		SplittableRandom random = new SplittableRandom(seed);
+
+		ExecutorService executor = newExecutor();
+		logger.info("Running load at %.1f requests/s...".formatted(rate));
+		double interval = 1e9 / rate;
+		long start = System.nanoTime();
+		long measureStart = start + warmup.toNanos();
+		long end = measureStart + duration.toNanos();
+		Run run = new Run(duration, measureStart);
+		try {
+			for (long i = 0;; i++) {
+				long intended = start + (long) (i * interval);
+				if (intended - end >= 0) {
+					break;
+				}
+				long delay;
+				while ((delay = intended - System.nanoTime()) > 0) {
+					LockSupport.parkNanos(delay);
+				}
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				Entry entry = pick(weights, random.nextInt(total));
+				boolean measured = intended - measureStart >= 0;
+				executor.execute(() -> send(run, entry, intended, measured));
+			}
+			executor.shutdown();
+			while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+				logger.info("Waiting for requests to finish...");
+			}
+		} catch (InterruptedException exception) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new ClientException(exception);
+		}
+		logger.info("Load finished");
+		return run.report();
+	}
+
+	private ExecutorService newExecutor() {
+		AtomicInteger counter = new AtomicInteger();
+		return Executors.newFixedThreadPool(concurrency, (runnable) -> {
+			Thread thread = new Thread(runnable, "rest-load-%d".formatted(counter.incrementAndGet()));
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private Entry pick(int[] weights, int value) {
+		int index = 0;
+		while (value >= weights[index]) {
+			index++;
+		}
+		return entries.get(index);
+	}
+
+	private void send(Run run, Entry entry, long intended, boolean measured) {
+		long begin = System.nanoTime();
+		Integer status;
+		try {
+			RestResponse response = entry.request().apply(client);
+			status = response.getStatus();
+			response.discard();
+		} catch (RuntimeException exception) {
+			logger.debug("Request %s failed".formatted(entry.name()), exception);
+			status = null;
+		}
+		long finish = System.nanoTime();
+		if (measured) {
+			run.record(entry, status, finish, finish - intended, finish - begin);
+		}
+	}
+
+	private class Run {
+		private final Duration duration;
+		private final long measureStart;
+		private final LongAccumulator measureEnd;
+		private final LongAdder errors;
+		private final Map<Integer, LongAdder> statuses;
+		private final LatencyHistogram latencies;
+		private final LatencyHistogram serviceTimes;
+		private final Map<Entry, LatencyHistogram> latencyMap;
+
+		private Run(Duration duration, long measureStart) {
+			this.duration = duration;
+			this.measureStart = measureStart;
+			this.measureEnd = new LongAccumulator(Math::max, measureStart);
+			this.errors = new LongAdder();
+			this.statuses = new ConcurrentHashMap<>();
+			this.latencies = new LatencyHistogram();
+			this.serviceTimes = new LatencyHistogram();
+			this.latencyMap = new LinkedHashMap<>();
+			for (Entry entry : entries) {
+				this.latencyMap.put(entry, new LatencyHistogram());
+			}
+		}
+
+		private void record(Entry entry, Integer status, long finish, long latency, long serviceTime) {
+			measureEnd.accumulate(finish);
+			if (status == null) {
+				errors.increment();
+			} else {
+				statuses.computeIfAbsent(status, (key) -> new LongAdder()).increment();
+			}
+			latencies.record(latency);
+			serviceTimes.record(serviceTime);
+			latencyMap.get(entry).record(latency);
+		}
+
+		private RestLoadReport report() {
+			Map<Integer, Long> statusMap = new TreeMap<>();
+			for (Integer status : statuses.keySet()) {
+				statusMap.put(status, statuses.get(status).sum());
+			}
+			Map<String, LatencyHistogram> nameMap = new LinkedHashMap<>();
+			for (Entry entry : latencyMap.keySet()) {
+				nameMap.put(entry.name(), latencyMap.get(entry));
+			}
+			Duration elapsed = Duration.ofNanos(measureEnd.get() - measureStart);
+			return new RestLoadReport(rate, duration, elapsed, errors.sum(), Collections.unmodifiableMap(statusMap), latencies, serviceTimes, Collections.unmodifiableMap(nameMap));
+		}
+	}
+
+	record Entry(String name, int weight, Function<RestClient, RestResponse> request) {
+	}
+}
@@ -0,0 +1,203 @@
+package br.pro.hashi.sdx.rest.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Represents the result of running a {@link RestLoad}.
+ */
+public final class RestLoadReport {
+	private static final double[] PERCENTILES = { 50, 90, 99, 99.9, 99.99 };
+
+	private final double rate;
+	private final Duration duration;
+	private final Duration elapsed;
+	private final long errors;
+	private final Map<Integer, Long> statuses;
+	private final LatencyHistogram latencies;
+	private final LatencyHistogram serviceTimes;
+	private final Map<String, LatencyHistogram> latencyMap;
+
+	RestLoadReport(double rate, Duration duration, Duration elapsed, long errors, Map<Integer, Long> statuses, LatencyHistogram latencies, LatencyHistogram serviceTimes, Map<String, LatencyHistogram> latencyMap) {
+		this.rate = rate;
+		this.duration = duration;
+		this.elapsed = elapsed;
+		this.errors = errors;
+		this.statuses = statuses;
+		this.latencies = latencies;
+		this.serviceTimes = serviceTimes;
+		this.latencyMap = latencyMap;
+	}
+
+	/**
+	 * Obtains the target rate.
+	 *
+	 * @return the rate, in requests per second
+	 */
+	public double getRate() {
+		return rate;
+	}
+
+	/**
+	 * Obtains the measured duration, excluding the warmup.
+	 *
+	 * @return the duration
+	 */
+	public Duration getDuration() {
+		return duration;
+	}
+
+	/**
+	 * <p>
+	 * Obtains the time from the start of the measured duration to the end of the
+	 * last measured request.
+	 * </p>
+	 * <p>
+	 * If the server cannot keep up with the rate, this is longer than the
+	 * duration.
+	 * </p>
+	 *
+	 * @return the time
+	 */
+	public Duration getElapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * Obtains the number of measured requests.
+	 *
+	 * @return the number
+	 */
+	public long getCount() {
+		return latencies.getCount();
+	}
+
+	/**
+	 * Obtains the number of measured requests that threw an exception.
+	 *
+	 * @return the number
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Obtains the number of measured responses for each status.
+	 *
+	 * @return a map from statuses to numbers
+	 */
+	public Map<Integer, Long> getStatuses() {
+		return statuses;
+	}
+
+	/**
+	 * <p>
+	 * Obtains the histogram of latencies corrected for coordinated omission.
+	 * </p>
+	 * <p>
+	 * Each latency is measured from the instant the request was scheduled to
+	 * start, so the time a request waits because of previous slow requests is
+	 * included.
+	 * </p>
+	 *
+	 * @return the histogram
+	 */
+	public LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	/**
+	 * <p>
+	 * Obtains the histogram of uncorrected latencies.
+	 * </p>
+	 * <p>
+	 * Each latency is measured from the instant the request actually started, as
+	 * a closed-loop tool would report.
+	 * </p>
+	 *
+	 * @return the histogram
+	 */
+	public LatencyHistogram getServiceTimes() {
+		return serviceTimes;
+	}
+
+	/**
+	 * Obtains the histogram of corrected latencies for each request name.
+	 *
+	 * @return a map from names to histograms
+	 */
+	public Map<String, LatencyHistogram> getLatencyMap() {
+		return latencyMap;
+	}
+
+	/**
+	 * Writes this report as text.
+	 *
+	 * @param writer the writer
+	 * @throws NullPointerException if the writer is null
+	 * @throws UncheckedIOException if the writer throws an exception
+	 */
+	public void write(Writer writer) {
+		if (writer == null) {
+			throw new NullPointerException("Writer cannot be null");
+		}
+		try {
+			writer.write(toString());
+			writer.flush();
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		double seconds = elapsed.toNanos() / 1e9;
+		builder.append(format("Target rate: %.1f requests/s%n", rate));
+		builder.append(format("Throughput: %.1f requests/s%n", seconds > 0 ? getCount() / seconds : 0.0));
+		builder.append(format("Duration: %.1f s%n", duration.toNanos() / 1e9));
+		builder.append(format("Elapsed: %.1f s%n", seconds));
+		builder.append(format("Requests: %d%n", getCount()));
+		builder.append(format("Errors: %d%n", errors));
+		StringJoiner joiner = new StringJoiner(", ");
+		for (Integer status : statuses.keySet()) {
+			joiner.add("%d=%d".formatted(status, statuses.get(status)));
+		}
+		builder.append(format("Statuses: %s%n", joiner));
+		builder.append(format("%nLatency in ms, corrected for coordinated omission%n"));
+		appendHeader(builder);
+		appendRow(builder, "all", latencies);
+		for (String name : latencyMap.keySet()) {
+			appendRow(builder, name, latencyMap.get(name));
+		}
+		builder.append(format("%nService time in ms, not corrected%n"));
+		appendHeader(builder);
+		appendRow(builder, "all", serviceTimes);
+		return builder.toString();
+	}
+
+	private void appendHeader(StringBuilder builder) {
+		builder.append(format("%-16s %10s %10s", "name", "count", "mean"));
+		for (double percentile : PERCENTILES) {
+			builder.append(format(" %10s", "p%s".formatted(format("%s", percentile).replaceAll("\\.0$", ""))));
+		}
+		builder.append(format(" %10s%n", "max"));
+	}
+
+	private void appendRow(StringBuilder builder, String name, LatencyHistogram histogram) {
+		builder.append(format("%-16s %10d %10.3f", name, histogram.getCount(), histogram.getMean() / 1e6));
+		for (double percentile : PERCENTILES) {
+			builder.append(format(" %10.3f", histogram.getValueAtPercentile(percentile) / 1e6));
+		}
+		builder.append(format(" %10.3f%n", histogram.getMax() / 1e6));
+	}
+
+	private String format(String format, Object... args) {
+		return String.format(Locale.ROOT, format, args);
+	}
+}
@@ -1,7 +1,10 @@
 package br.pro.hashi.sdx.rest.client;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
 
 import br.pro.hashi.sdx.rest.Fields;
@@ -180,6 +183,20 @@ public final class RestResponse {
 		return body;
 	}
 
+	void discard() {
+		synchronized (this) {
+			if (!available) {
+				return;
+			}
+			available = false;
+		}
+		try (stream) {
+			stream.transferTo(OutputStream.nullOutputStream());
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
 	private InputStream decode(String contentType) {
 		synchronized (this) {
 			if (!available) {
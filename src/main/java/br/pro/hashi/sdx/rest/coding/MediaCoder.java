@@ -10,8 +10,8 @@ import java.nio.charset.Charset;
 import java.nio.charset.IllegalCharsetNameException;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.Base64;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import br.pro.hashi.sdx.rest.coding.exception.CharsetException;
 import br.pro.hashi.sdx.rest.constant.Defaults;
@@ -21,26 +21,114 @@ public class MediaCoder {
 	private static final MediaCoder INSTANCE = new MediaCoder();
 	private static final Base64.Encoder BASE64_ENCODER = Base64.getEncoder();
 	private static final Base64.Decoder BASE64_DECODER = Base64.getDecoder();
-	private static final Pattern BASE64_PATTERN = Pattern.compile("(?:[^;]*;)+\\s*base64\\s*(?:;[^;]*)*", Pattern.CASE_INSENSITIVE);
-	private static final Pattern CHARSET_PATTERN = Pattern.compile("(?:[^;]*;)+\\s*charset\\s*=\\s*([^\\s;]+)\\s*(?:;[^;]*)*", Pattern.CASE_INSENSITIVE);
+	private static final int CACHE_SIZE = 1024;
 
 	public static MediaCoder getInstance() {
 		return INSTANCE;
 	}
 
+	private final Map<String, MediaType> cache;
+
 	MediaCoder() {
+		this.cache = new ConcurrentHashMap<>();
 	}
 
-	public String strip(String contentType) {
-		int index = contentType.indexOf(';');
-		if (index != -1) {
-			contentType = contentType.substring(0, index);
+	Map<String, MediaType> getCache() {
+		return cache;
+	}
+
+	public MediaType parse(String contentType) {
+		MediaType mediaType = cache.get(contentType);
+		if (mediaType == null) {
+			mediaType = newMediaType(contentType);
+			// content types come from clients, so the cache stops growing when full
+			if (cache.size() < CACHE_SIZE) {
+				cache.putIfAbsent(contentType, mediaType);
+			}
 		}
-		contentType = contentType.strip();
-		if (contentType.isEmpty()) {
-			return null;
+		return mediaType;
+	}
+
+	MediaType newMediaType(String contentType) {
+		int length = contentType.length();
+		int end = contentType.indexOf(';');
+		if (end == -1) {
+			end = length;
 		}
-		return contentType;
+		String essence = contentType.substring(0, end).strip();
+		if (essence.isEmpty()) {
+			essence = null;
+		}
+
+		String charsetName = null;
+		boolean base64 = false;
+		int start = end + 1;
+		while (start <= length) {
+			end = contentType.indexOf(';', start);
+			if (end == -1) {
+				end = length;
+			}
+			int i = skipSpaces(contentType, start, end);
+			int j = skipSpacesBack(contentType, i, end);
+			if (j - i == 6 && startsWith(contentType, i, "base64")) {
+				base64 = true;
+			} else if (j - i > 7 && startsWith(contentType, i, "charset")) {
+				// the last valid charset wins, as it did with the former pattern
+				int k = skipSpaces(contentType, i + 7, j);
+				if (k < j && contentType.charAt(k) == '=') {
+					k = skipSpaces(contentType, k + 1, j);
+					if (k < j && indexOfSpace(contentType, k, j) == -1) {
+						charsetName = contentType.substring(k, j);
+					}
+				}
+			}
+			start = end + 1;
+		}
+		return new MediaType(essence, charsetName, base64);
+	}
+
+	private boolean startsWith(String contentType, int start, String name) {
+		for (int i = 0; i < name.length(); i++) {
+			char c = contentType.charAt(start + i);
+			if (c >= 'A' && c <= 'Z') {
+				c += 'a' - 'A';
+			}
+			if (c != name.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int skipSpaces(String contentType, int start, int end) {
+		while (start < end && isSpace(contentType.charAt(start))) {
+			start++;
+		}
+		return start;
+	}
+
+	private int skipSpacesBack(String contentType, int start, int end) {
+		while (end > start && isSpace(contentType.charAt(end - 1))) {
+			end--;
+		}
+		return end;
+	}
+
+	private int indexOfSpace(String contentType, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (isSpace(contentType.charAt(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private boolean isSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+	}
+
+	public String strip(String contentType) {
+		return parse(contentType).essence();
 	}
 
 	public Reader reader(InputStream stream, String contentType) {
@@ -48,9 +136,8 @@ public class MediaCoder {
 		if (contentType == null) {
 			charset = Defaults.CHARSET;
 		} else {
-			Matcher matcher = CHARSET_PATTERN.matcher(contentType);
-			if (matcher.matches()) {
-				String charsetName = matcher.group(1);
+			String charsetName = parse(contentType).charsetName();
+			if (charsetName != null) {
 				try {
 					charset = Charset.forName(charsetName);
 				} catch (IllegalCharsetNameException exception) {
@@ -98,7 +185,7 @@ public class MediaCoder {
 	}
 
 	public InputStream decode(InputStream stream, String contentType) {
-		if (contentType == null || !BASE64_PATTERN.matcher(contentType).matches()) {
+		if (contentType == null || !parse(contentType).base64()) {
 			return stream;
 		}
 		return BASE64_DECODER.wrap(stream);
@@ -0,0 +1,13 @@
+package br.pro.hashi.sdx.rest.coding;
+
+/**
+ * Represents the parts of a content type that the framework uses.
+ *
+ * @param essence     the type without parameters, or {@code null} if it is
+ *                    blank
+ * @param charsetName the value of the charset parameter, or {@code null} if
+ *                    there is none
+ * @param base64      whether there is a base64 parameter
+ */
+public record MediaType(String essence, String charsetName, boolean base64) {
+}
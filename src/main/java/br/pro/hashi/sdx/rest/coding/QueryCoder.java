@@ -3,6 +3,10 @@ package br.pro.hashi.sdx.rest.coding;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class QueryCoder {
 	private static final QueryCoder INSTANCE = new QueryCoder();
@@ -14,6 +18,64 @@ public class QueryCoder {
 	QueryCoder() {
 	}
 
+	public Map<String, String[]> parse(String query, Charset charset) {
+		Map<String, List<String>> lists = new LinkedHashMap<>();
+		int length = query.length();
+		int start = 0;
+		while (start < length) {
+			int end = query.indexOf('&', start);
+			if (end == -1) {
+				end = length;
+			}
+			if (end > start) {
+				int index = query.indexOf('=', start);
+				String name;
+				String value;
+				if (index == -1 || index > end) {
+					name = decode(query.substring(start, end), charset);
+					value = "";
+				} else {
+					name = decode(query.substring(start, index), charset);
+					value = decode(query.substring(index + 1, end), charset);
+				}
+				List<String> values = lists.get(name);
+				if (values == null) {
+					values = new ArrayList<>(1);
+					lists.put(name, values);
+				}
+				values.add(value);
+			}
+			start = end + 1;
+		}
+		Map<String, String[]> map = new LinkedHashMap<>();
+		for (String name : lists.keySet()) {
+			List<String> values = lists.get(name);
+			map.put(name, values.toArray(new String[values.size()]));
+		}
+		return map;
+	}
+
+	// checks escapes without decoding, so a query can be rejected before it
+	// is parsed
+	public boolean isDecodable(String query) {
+		int length = query.length();
+		int index = query.indexOf('%');
+		while (index != -1) {
+			if (index + 2 >= length || Character.digit(query.charAt(index + 1), 16) == -1 || Character.digit(query.charAt(index + 2), 16) == -1) {
+				return false;
+			}
+			index = query.indexOf('%', index + 3);
+		}
+		return true;
+	}
+
+	private String decode(String item, Charset charset) {
+		if (item.indexOf('%') == -1 && item.indexOf('+') == -1) {
+			return item;
+		}
+		return URLDecoder.decode(item, charset);
+	}
+
 	public String recode(String item, Charset charset) {
 		item = URLDecoder.decode(item, charset);
 		return encode(item, charset);
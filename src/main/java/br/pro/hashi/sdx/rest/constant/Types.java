@@ -42,6 +42,14 @@ public final class Types {
 		return body != null && type.equals(WRITER_CONSUMER);
 	}
 
+	public static boolean equalsStreamConsumer(Type type) {
+		return type.equals(STREAM_CONSUMER);
+	}
+
+	public static boolean equalsWriterConsumer(Type type) {
+		return type.equals(WRITER_CONSUMER);
+	}
+
 	public static boolean instanceOfSimple(Object body, Type type) {
 		return body != null && SIMPLE.contains(type);
 	}
@@ -8,6 +8,9 @@ import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 import br.pro.hashi.sdx.rest.reflection.exception.ReflectionException;
 
@@ -24,24 +27,41 @@ public class ParserFactory {
 	}
 
 	private final Reflector reflector;
-	private final Map<Class<?>, Function<String, ?>> cache;
+	private final ToIntFunction<String> intParser;
+	private final ToLongFunction<String> longParser;
+	private final ToDoubleFunction<String> doubleParser;
+	private final ClassValue<Function<String, ?>> cache;
 
 	ParserFactory(Reflector reflector) {
-		Map<Class<?>, Function<String, ?>> cache = new HashMap<>();
-		cache.put(boolean.class, Boolean::parseBoolean);
-		cache.put(byte.class, Byte::parseByte);
-		cache.put(short.class, Short::parseShort);
-		cache.put(int.class, Integer::parseInt);
-		cache.put(long.class, Long::parseLong);
-		cache.put(float.class, Float::parseFloat);
-		cache.put(double.class, Double::parseDouble);
-		cache.put(char.class, this::parseChar);
-		cache.put(Character.class, this::parseChar);
-		cache.put(BigInteger.class, BigInteger::new);
-		cache.put(BigDecimal.class, BigDecimal::new);
-		cache.put(String.class, (valueString) -> valueString);
+		Map<Class<?>, Function<String, ?>> parsers = new HashMap<>();
+		parsers.put(boolean.class, Boolean::parseBoolean);
+		parsers.put(byte.class, Byte::parseByte);
+		parsers.put(short.class, Short::parseShort);
+		parsers.put(int.class, Integer::parseInt);
+		parsers.put(long.class, Long::parseLong);
+		parsers.put(float.class, Float::parseFloat);
+		parsers.put(double.class, Double::parseDouble);
+		parsers.put(char.class, this::parseChar);
+		parsers.put(Character.class, this::parseChar);
+		parsers.put(BigInteger.class, BigInteger::new);
+		parsers.put(BigDecimal.class, BigDecimal::new);
+		parsers.put(String.class, (valueString) -> valueString);
 		this.reflector = reflector;
-		this.cache = cache;
+		this.intParser = Integer::parseInt;
+		this.longParser = Long::parseLong;
+		this.doubleParser = Double::parseDouble;
+		// a class value is read without locking or hashing, which matters
+		// because fields and items are parsed on every request
+		this.cache = new ClassValue<>() {
+			@Override
+			protected Function<String, ?> computeValue(Class<?> type) {
+				Function<String, ?> parser = parsers.get(type);
+				if (parser == null) {
+					parser = create(type);
+				}
+				return parser;
+			}
+		};
 	}
 
 	char parseChar(String valueString) {
@@ -54,36 +74,48 @@ public class ParserFactory {
 		return valueString.charAt(0);
 	}
 
-	public synchronized <T> Function<String, T> get(Class<T> type) {
+	public ToIntFunction<String> getIntParser() {
+		return intParser;
+	}
+
+	public ToLongFunction<String> getLongParser() {
+		return longParser;
+	}
+
+	public ToDoubleFunction<String> getDoubleParser() {
+		return doubleParser;
+	}
+
+	public <T> Function<String, T> get(Class<T> type) {
 		@SuppressWarnings("unchecked")
 		Function<String, T> parser = (Function<String, T>) cache.get(type);
-		if (parser == null) {
-			String typeName = type.getName();
-			Method method;
-			try {
-				method = type.getDeclaredMethod("valueOf", String.class);
-			} catch (NoSuchMethodException exception) {
-				throw new ReflectionException("Class %s must have a valueOf(String) method".formatted(typeName));
-			}
-			if (!method.getReturnType().equals(type)) {
-				throw new ReflectionException("Method valueOf(String) of class %s must return an instance of this class".formatted(typeName));
-			}
-			int modifiers = method.getModifiers();
-			if (!(Modifier.isPublic(modifiers) && Modifier.isStatic(modifiers))) {
-				throw new ReflectionException("Method valueOf(String) of class %s must be public and static".formatted(typeName));
-			}
-			for (Class<?> exceptionType : method.getExceptionTypes()) {
-				if (!RuntimeException.class.isAssignableFrom(exceptionType)) {
-					throw new ReflectionException("Method valueOf(String) of class %s can only throw unchecked exceptions".formatted(typeName));
-				}
+		return parser;
+	}
+
+	private <T> Function<String, T> create(Class<T> type) {
+		String typeName = type.getName();
+		Method method;
+		try {
+			method = type.getDeclaredMethod("valueOf", String.class);
+		} catch (NoSuchMethodException exception) {
+			throw new ReflectionException("Class %s must have a valueOf(String) method".formatted(typeName));
+		}
+		if (!method.getReturnType().equals(type)) {
+			throw new ReflectionException("Method valueOf(String) of class %s must return an instance of this class".formatted(typeName));
+		}
+		int modifiers = method.getModifiers();
+		if (!(Modifier.isPublic(modifiers) && Modifier.isStatic(modifiers))) {
+			throw new ReflectionException("Method valueOf(String) of class %s must be public and static".formatted(typeName));
+		}
+		for (Class<?> exceptionType : method.getExceptionTypes()) {
+			if (!RuntimeException.class.isAssignableFrom(exceptionType)) {
+				throw new ReflectionException("Method valueOf(String) of class %s can only throw unchecked exceptions".formatted(typeName));
 			}
-			MethodHandle handle = reflector.unreflect(method);
-			parser = (valueString) -> {
-				return invoke(handle, valueString);
-			};
-			cache.put(type, parser);
 		}
-		return parser;
+		MethodHandle handle = reflector.unreflect(method);
+		return (valueString) -> {
+			return invoke(handle, valueString);
+		};
 	}
 
 	<T> T invoke(MethodHandle handle, String valueString) {
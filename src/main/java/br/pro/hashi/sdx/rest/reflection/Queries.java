@@ -1,10 +1,12 @@
 package br.pro.hashi.sdx.rest.reflection;
 
+import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 
 import br.pro.hashi.sdx.rest.Fields;
+import br.pro.hashi.sdx.rest.coding.QueryCoder;
 
 public non-sealed class Queries extends Fields {
 	public static Queries newInstance(Map<String, String[]> map) {
@@ -12,25 +14,57 @@ public non-sealed class Queries extends Fields {
 		return new Queries(factory, map);
 	}
 
-	private final Map<String, String[]> map;
+	public static Queries newInstance(String query, Charset charset) {
+		ParserFactory factory = ParserFactory.getInstance();
+		QueryCoder coder = QueryCoder.getInstance();
+		return new Queries(factory, coder, query, charset);
+	}
+
+	private final QueryCoder coder;
+	private final String query;
+	private final Charset charset;
+	private Map<String, String[]> map;
 
 	Queries(ParserFactory factory, Map<String, String[]> map) {
 		super(factory);
+		this.coder = null;
+		this.query = null;
+		this.charset = null;
 		this.map = map;
 	}
 
+	Queries(ParserFactory factory, QueryCoder coder, String query, Charset charset) {
+		super(factory);
+		this.coder = coder;
+		this.query = query;
+		this.charset = charset;
+		this.map = null;
+	}
+
+	public String getQuery() {
+		return query;
+	}
+
+	// the raw query is only parsed if a query is actually read
 	public Map<String, String[]> getMap() {
+		if (map == null) {
+			if (query == null || query.isEmpty()) {
+				map = Map.of();
+			} else {
+				map = coder.parse(query, charset);
+			}
+		}
 		return map;
 	}
 
 	@Override
 	public Set<String> names() {
-		return map.keySet();
+		return getMap().keySet();
 	}
 
 	@Override
 	protected Stream<String> getStream(String name) {
-		String[] valueStrings = map.get(name);
+		String[] valueStrings = getMap().get(name);
 		if (valueStrings == null) {
 			return Stream.of();
 		}
@@ -39,7 +73,7 @@ public non-sealed class Queries extends Fields {
 
 	@Override
 	protected String getString(String name) {
-		String[] valueStrings = map.get(name);
+		String[] valueStrings = getMap().get(name);
 		if (valueStrings == null) {
 			return null;
 		}
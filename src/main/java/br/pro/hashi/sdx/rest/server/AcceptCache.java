@@ -0,0 +1,51 @@
+package br.pro.hashi.sdx.rest.server;
+
+import java.lang.reflect.Type;
+
+import br.pro.hashi.sdx.rest.server.exception.NotAcceptableException;
+import br.pro.hashi.sdx.rest.transform.manager.TransformManager;
+
+final class AcceptCache {
+	private static final int MIN_STRIPE_CAPACITY = 16;
+	private static final String NONE = "";
+	private static final String NOT_ACCEPTABLE = "*";
+
+	private final TransformManager manager;
+	private final StripedLruCache<Key, String> cache;
+
+	AcceptCache(TransformManager manager, int maxSize) {
+		this.manager = manager;
+		this.cache = new StripedLruCache<>(maxSize, MIN_STRIPE_CAPACITY);
+	}
+
+	StripedLruCache<Key, String> getCache() {
+		return cache;
+	}
+
+	String get(Type type, String accept) {
+		Key key = new Key(type, accept);
+		String acceptType = cache.peek(key);
+		if (acceptType == null) {
+			acceptType = manager.getAcceptType(type, accept);
+			if (acceptType == null) {
+				// the absence of a choice is also remembered
+				if (manager.acceptsDefault(type, accept)) {
+					acceptType = NONE;
+				} else {
+					acceptType = NOT_ACCEPTABLE;
+				}
+			}
+			cache.put(key, acceptType);
+		}
+		if (acceptType == NONE) {
+			return null;
+		}
+		if (acceptType == NOT_ACCEPTABLE) {
+			throw new NotAcceptableException("No acceptable response type");
+		}
+		return acceptType;
+	}
+
+	record Key(Type type, String accept) {
+	}
+}
@@ -0,0 +1,60 @@
+package br.pro.hashi.sdx.rest.server;
+
+import java.util.List;
+
+final class EntityTags {
+	static boolean matches(List<String> values, String tag) {
+		if (values == null) {
+			return false;
+		}
+		String opaqueTag = strip(tag);
+		for (String value : values) {
+			if (matches(value, opaqueTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// uses the weak comparison, as required for If-None-Match
+	private static boolean matches(String value, String opaqueTag) {
+		int length = value.length();
+		int index = 0;
+		while (index < length) {
+			char c = value.charAt(index);
+			if (c == ' ' || c == '\t' || c == ',') {
+				index++;
+				continue;
+			}
+			if (c == '*') {
+				return true;
+			}
+			if (value.startsWith("W/", index)) {
+				index += 2;
+			}
+			if (index == length || value.charAt(index) != '"') {
+				return false;
+			}
+			int end = value.indexOf('"', index + 1);
+			if (end == -1) {
+				return false;
+			}
+			end++;
+			if (end - index == opaqueTag.length() && value.startsWith(opaqueTag, index)) {
+				return true;
+			}
+			index = end;
+		}
+		return false;
+	}
+
+	private static String strip(String tag) {
+		if (tag.startsWith("W/")) {
+			return tag.substring(2);
+		}
+		return tag;
+	}
+
+	private EntityTags() {
+	}
+}
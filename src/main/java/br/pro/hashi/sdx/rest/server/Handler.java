@@ -1,5 +1,6 @@
 package br.pro.hashi.sdx.rest.server;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -7,16 +8,25 @@ import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
-import java.nio.charset.CharsetEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import org.eclipse.jetty.http.HttpStatus;
@@ -28,15 +38,23 @@ import org.slf4j.LoggerFactory;
 import br.pro.hashi.sdx.rest.Fields;
 import br.pro.hashi.sdx.rest.coding.MediaCoder;
 import br.pro.hashi.sdx.rest.coding.PathCoder;
+import br.pro.hashi.sdx.rest.coding.QueryCoder;
+import br.pro.hashi.sdx.rest.constant.Defaults;
 import br.pro.hashi.sdx.rest.constant.Types;
 import br.pro.hashi.sdx.rest.reflection.Headers;
 import br.pro.hashi.sdx.rest.reflection.PartHeaders;
 import br.pro.hashi.sdx.rest.reflection.Queries;
+import br.pro.hashi.sdx.rest.server.ResponseCache.Entry;
+import br.pro.hashi.sdx.rest.server.ResponseCache.Key;
+import br.pro.hashi.sdx.rest.server.RouteCache.Route;
 import br.pro.hashi.sdx.rest.server.exception.BadRequestException;
 import br.pro.hashi.sdx.rest.server.exception.MessageRestException;
 import br.pro.hashi.sdx.rest.server.exception.NotAcceptableException;
+import br.pro.hashi.sdx.rest.server.exception.NotModifiedException;
 import br.pro.hashi.sdx.rest.server.exception.PayloadTooLargeException;
 import br.pro.hashi.sdx.rest.server.stream.CountOutputStream;
+import br.pro.hashi.sdx.rest.server.stream.MultipartParser;
+import br.pro.hashi.sdx.rest.server.stream.TagOutputStream;
 import br.pro.hashi.sdx.rest.server.tree.Data;
 import br.pro.hashi.sdx.rest.server.tree.Endpoint;
 import br.pro.hashi.sdx.rest.server.tree.Node;
@@ -46,6 +64,9 @@ import br.pro.hashi.sdx.rest.transform.Assembler;
 import br.pro.hashi.sdx.rest.transform.Serializer;
 import br.pro.hashi.sdx.rest.transform.exception.TypeException;
 import br.pro.hashi.sdx.rest.transform.manager.TransformManager;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.MultipartConfigElement;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletOutputStream;
@@ -54,26 +75,51 @@ import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.Part;
 
 class Handler extends AbstractHandler {
+	private static final MethodType CREATOR_TYPE = MethodType.methodType(RestResource.class);
+	private static final int TAG_CAPACITY = 65536;
+	private static final int ACCEPT_CACHE_SIZE = 256;
+	private static final Plan NO_PLAN = new Plan(null, null, null, null, false);
+
 	private final Logger logger;
 	private final TransformManager manager;
 	private final Tree tree;
 	private final ErrorFormatter formatter;
-	private final Map<Class<? extends RestResource>, MethodHandle> handles;
+	private final Map<Class<? extends RestResource>, Lifecycle> lifecycles;
 	private final MultipartConfigElement element;
+	private final boolean streaming;
 	private final Set<Class<? extends RuntimeException>> gatewayTypes;
 	private final Charset urlCharset;
 	private final boolean cors;
-
-	Handler(TransformManager manager, Tree tree, ErrorFormatter formatter, Map<Class<? extends RestResource>, MethodHandle> handles, MultipartConfigElement element, Set<Class<? extends RuntimeException>> gatewayTypes, Charset urlCharset, boolean cors) {
+	private final RouteCache routeCache;
+	private final ResponseCache responseCache;
+	private final Inflation inflation;
+	private final boolean etag;
+	private final long asyncTimeout;
+	private final AcceptCache acceptCache;
+	private final Map<Type, Plan> plans;
+
+	Handler(TransformManager manager, Tree tree, ErrorFormatter formatter, Map<Class<? extends RestResource>, MethodHandle> handles, MultipartConfigElement element, boolean streaming, Set<Class<? extends RuntimeException>> gatewayTypes, Charset urlCharset, boolean cors, RouteCache routeCache, ResponseCache responseCache, Inflation inflation, boolean etag, long asyncTimeout) {
 		this.logger = LoggerFactory.getLogger(Handler.class);
 		this.manager = manager;
 		this.tree = tree;
 		this.formatter = formatter;
-		this.handles = handles;
+		this.lifecycles = new HashMap<>();
+		for (Class<? extends RestResource> type : handles.keySet()) {
+			MethodHandle handle = handles.get(type).asType(CREATOR_TYPE);
+			this.lifecycles.put(type, Lifecycle.newInstance(type, handle));
+		}
 		this.element = element;
+		this.streaming = streaming;
 		this.gatewayTypes = gatewayTypes;
 		this.urlCharset = urlCharset;
 		this.cors = cors;
+		this.routeCache = routeCache;
+		this.responseCache = responseCache;
+		this.inflation = inflation;
+		this.etag = etag;
+		this.asyncTimeout = asyncTimeout;
+		this.acceptCache = new AcceptCache(manager, ACCEPT_CACHE_SIZE);
+		this.plans = new ConcurrentHashMap<>();
 	}
 
 	TransformManager getManager() {
@@ -84,6 +130,10 @@ class Handler extends AbstractHandler {
 		return tree;
 	}
 
+	Map<Class<? extends RestResource>, Lifecycle> getLifecycles() {
+		return lifecycles;
+	}
+
 	ErrorFormatter getFormatter() {
 		return formatter;
 	}
@@ -92,6 +142,10 @@ class Handler extends AbstractHandler {
 		return element;
 	}
 
+	boolean isStreaming() {
+		return streaming;
+	}
+
 	Set<Class<? extends RuntimeException>> getGatewayTypes() {
 		return gatewayTypes;
 	}
@@ -104,8 +158,42 @@ class Handler extends AbstractHandler {
 		return cors;
 	}
 
+	RouteCache getRouteCache() {
+		return routeCache;
+	}
+
+	ResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+	Inflation getInflation() {
+		return inflation;
+	}
+
+	boolean isEtag() {
+		return etag;
+	}
+
+	long getAsyncTimeout() {
+		return asyncTimeout;
+	}
+
+	AcceptCache getAcceptCache() {
+		return acceptCache;
+	}
+
+	Map<Type, Plan> getPlans() {
+		return plans;
+	}
+
 	@Override
 	public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) {
+		Lifecycle lifecycle = null;
+		RestResource resource = null;
+		Key fillKey = null;
+		Set<String> fillNames = null;
+		Entry fillEntry = null;
+		MultipartParser parser = null;
 		try {
 			if (!cors) {
 				response.addHeader("Access-Control-Allow-Origin", "*");
@@ -120,46 +208,32 @@ class Handler extends AbstractHandler {
 			}
 
 			String uri = request.getRequestURI();
-			String extension;
-			String extensionType;
-			int length = uri.lastIndexOf('.') + 1;
-			if (length > 0 && length < uri.length() && uri.indexOf('/', length) == -1) {
-				extension = uri.substring(length);
-				extensionType = manager.getExtensionType(extension);
-				if (extensionType == null) {
-					extension = "";
-				} else {
-					uri = uri.substring(0, length - 1);
-				}
+			Route route;
+			if (routeCache == null) {
+				route = resolve(uri);
 			} else {
-				uri = PathCoder.getInstance().stripEndingSlashes(uri);
-				extension = "";
-				extensionType = null;
-			}
-
-			String[] items;
-			try {
-				items = PathCoder.getInstance().splitAndDecode(uri, urlCharset);
-			} catch (IllegalArgumentException error) {
-				String message = "URI could not be decoded";
-				logger.error(message, error);
-				throw new BadRequestException(message);
+				route = routeCache.get(uri);
+				if (route == null) {
+					route = resolve(uri);
+					routeCache.put(uri, route);
+				}
 			}
-
-			List<String> itemList = new ArrayList<>();
-			Leaf leaf = tree.getLeafAndAddItems(items, itemList);
+			String extension = route.extension();
+			String extensionType = route.extensionType();
+			Leaf leaf = route.leaf();
+			List<String> itemList = route.itemList();
 			Node node = leaf.node();
 			int varSize = leaf.varSize();
 
 			OutputStream responseStream = response.getOutputStream();
 			if (methodName.equals("OPTIONS")) {
-				Set<String> methodNames;
+				String allow;
 				if (varSize == 0) {
-					methodNames = node.getMethodNames();
+					allow = node.getAllow();
 				} else {
-					methodNames = node.getVarMethodNames();
+					allow = node.getVarAllow();
 				}
-				response.addHeader("Allow", String.join(", ", methodNames));
+				response.addHeader("Allow", allow);
 				response.setStatus(HttpServletResponse.SC_OK);
 				responseStream.close();
 				return;
@@ -170,69 +244,140 @@ class Handler extends AbstractHandler {
 				throw new MessageRestException(HttpStatus.METHOD_NOT_ALLOWED_405, "%s not allowed".formatted(methodName));
 			}
 
+			String acceptType = null;
+			if (extensionType == null) {
+				Type returnType = endpoint.getReturnType();
+				if (!(returnType.equals(void.class) || returnType.equals(Void.class))) {
+					// the response depends on the header even when no type is
+					// chosen from it
+					response.addHeader("Vary", "Accept");
+					List<String> acceptList = baseRequest.getHttpFields().getValuesList("Accept");
+					if (!acceptList.isEmpty()) {
+						acceptType = acceptCache.get(returnType, String.join(",", acceptList));
+					}
+				}
+			}
+
 			String requestType = request.getContentType();
-			Map<String, List<Fields>> headersMap = new HashMap<>();
-			Map<String, List<Data>> partMap = new HashMap<>();
-			Data requestBody;
-			if (requestType != null && requestType.startsWith("multipart/form-data")) {
-				request.setAttribute(Request.__MULTIPART_CONFIG_ELEMENT, element);
-				Collection<Part> parts;
-				try {
-					parts = request.getParts();
-				} catch (ServletException | IOException exception) {
-					String message = "Parts could not be parsed";
-					logger.error(message, exception);
-					throw new BadRequestException(message);
-				} catch (IllegalStateException exception) {
-					long maxRequestSize = element.getMaxRequestSize();
-					long maxFileSize = element.getMaxFileSize();
-					String message;
-					if (maxRequestSize > 0) {
-						if (maxFileSize > 0) {
-							message = "Multipart request exceeds %d bytes or one of the parts exceeds %d bytes".formatted(maxRequestSize, maxFileSize);
-						} else {
-							message = "Multipart request exceeds %d bytes".formatted(maxRequestSize);
-						}
+			Fields queries;
+			if (requestType != null && requestType.startsWith("application/x-www-form-urlencoded")) {
+				// form bodies are parameters too, and only the servlet reads them
+				queries = Queries.newInstance(request.getParameterMap());
+			} else {
+				// otherwise the raw query string is parsed only if read
+				String query = request.getQueryString();
+				if (query != null && !QueryCoder.getInstance().isDecodable(query)) {
+					throw new BadRequestException("Query could not be decoded");
+				}
+				queries = Queries.newInstance(query, urlCharset);
+			}
+
+			if (responseCache != null && endpoint.isCached()) {
+				Key key = newKey(queries, baseRequest, endpoint, extension, acceptType, itemList);
+				Entry entry = responseCache.get(key);
+				if (entry == null && !methodName.equals("HEAD")) {
+					CompletableFuture<Entry> pending = responseCache.claim(key);
+					if (pending == null) {
+						fillKey = key;
+						// the headers already set are not stored
+						fillNames = new HashSet<>(response.getHeaderNames());
 					} else {
-						if (maxFileSize > 0) {
-							message = "One of the parts exceeds %d bytes".formatted(maxFileSize);
-						} else {
-							message = "Multipart request is too large or one of the parts is too large";
-						}
+						entry = await(pending);
 					}
-					logger.error(message, exception);
-					throw new PayloadTooLargeException(message);
 				}
-				for (Part part : parts) {
-					String name = part.getName();
-					if (name == null) {
-						name = "";
+				if (entry != null) {
+					respond(response, baseRequest, methodName, entry, responseStream);
+					return;
+				}
+			}
+
+			Map<String, List<Fields>> headersMap;
+			Map<String, List<Data>> partMap;
+			Data requestBody;
+			// the declared length is checked before reading, which sends 100 Continue
+			long contentLength = request.getContentLengthLong();
+			if (requestType != null && requestType.startsWith("multipart/form-data")) {
+				long maxRequestSize = element.getMaxRequestSize();
+				if (maxRequestSize > 0 && contentLength > maxRequestSize) {
+					throw new PayloadTooLargeException("Multipart request exceeds %d bytes".formatted(maxRequestSize));
+				}
+				headersMap = new HashMap<>();
+				if (streaming) {
+					partMap = Map.of();
+					String boundary = MultipartParser.getBoundary(requestType);
+					if (boundary == null) {
+						throw new BadRequestException("Parts could not be parsed");
 					}
-					List<Fields> headersList = headersMap.get(name);
-					if (headersList == null) {
-						headersList = new ArrayList<>();
-						headersMap.put(name, headersList);
+					parser = new MultipartParser(request.getInputStream(), boundary, element.getMaxFileSize(), maxRequestSize, element.getLocation(), element.getFileSizeThreshold());
+				} else {
+					partMap = new HashMap<>();
+					request.setAttribute(Request.__MULTIPART_CONFIG_ELEMENT, element);
+					Collection<Part> parts;
+					try {
+						parts = request.getParts();
+					} catch (ServletException | IOException exception) {
+						String message = "Parts could not be parsed";
+						logger.error(message, exception);
+						throw new BadRequestException(message);
+					} catch (IllegalStateException exception) {
+						long maxFileSize = element.getMaxFileSize();
+						String message;
+						if (maxRequestSize > 0) {
+							if (maxFileSize > 0) {
+								message = "Multipart request exceeds %d bytes or one of the parts exceeds %d bytes".formatted(maxRequestSize, maxFileSize);
+							} else {
+								message = "Multipart request exceeds %d bytes".formatted(maxRequestSize);
+							}
+						} else {
+							if (maxFileSize > 0) {
+								message = "One of the parts exceeds %d bytes".formatted(maxFileSize);
+							} else {
+								message = "Multipart request is too large or one of the parts is too large";
+							}
+						}
+						logger.error(message, exception);
+						throw new PayloadTooLargeException(message);
 					}
-					List<Data> partList = partMap.get(name);
-					if (partList == null) {
-						partList = new ArrayList<>();
-						partMap.put(name, partList);
+					for (Part part : parts) {
+						String name = part.getName();
+						if (name == null) {
+							name = "";
+						}
+						List<Fields> headersList = headersMap.get(name);
+						if (headersList == null) {
+							headersList = new ArrayList<>();
+							headersMap.put(name, headersList);
+						}
+						List<Data> partList = partMap.get(name);
+						if (partList == null) {
+							partList = new ArrayList<>();
+							partMap.put(name, partList);
+						}
+						headersList.add(PartHeaders.newInstance(part));
+						partList.add(new Data(manager, part.getContentType(), part.getInputStream()));
 					}
-					headersList.add(PartHeaders.newInstance(part));
-					partList.add(new Data(manager, part.getContentType(), part.getInputStream()));
 				}
 				requestBody = null;
 			} else {
-				requestBody = new Data(manager, requestType, request.getInputStream());
+				headersMap = Map.of();
+				partMap = Map.of();
+				endpoint.checkContentLength(contentLength);
+				String requestEncoding = null;
+				// endpoints without a body only check that it is empty, as before inflation
+				if (endpoint.hasBody()) {
+					requestEncoding = request.getHeader("Content-Encoding");
+					if (requestEncoding != null) {
+						requestEncoding = inflation.getEncoding(requestEncoding);
+					}
+				}
+				requestBody = new Data(manager, requestType, request.getInputStream(), inflation, requestEncoding);
 			}
 
 			Fields headers = Headers.newInstance(baseRequest.getHttpFields());
-			Fields queries = Queries.newInstance(request.getParameterMap());
-			CharsetEncoder encoder = StandardCharsets.US_ASCII.newEncoder();
 
 			Class<? extends RestResource> resourceType = endpoint.getResourceType();
-			MethodHandle handle = handles.get(resourceType);
-			RestResource resource = invoke(handle);
+			lifecycle = lifecycles.get(resourceType);
+			resource = lifecycle.acquire();
 
 			Set<String> notAcceptableExtensions = resource.notAcceptableExtensions();
 			if (notAcceptableExtensions != null && notAcceptableExtensions.contains(extension)) {
@@ -244,91 +389,352 @@ class Handler extends AbstractHandler {
 				}
 				throw new NotAcceptableException(message);
 			}
-			resource.setFields(headersMap, headers, queries, encoder, response);
+			resource.setFields(headersMap, headers, queries, response);
+			if (acceptType != null) {
+				resource.setContentType(acceptType);
+			}
 
+			OutputStream bodyStream;
+			if (fillKey == null) {
+				bodyStream = responseStream;
+			} else {
+				bodyStream = new ByteArrayOutputStream();
+			}
 			Object responseBody;
-			Type returnType;
-			int status;
 			try {
-				responseBody = endpoint.call(resource, itemList, partMap, requestBody);
-				returnType = endpoint.getReturnType();
-				status = resource.getStatus();
-			} catch (RestException exception) {
-				responseBody = exception.getBody();
-				status = exception.getStatus();
-				if (responseBody instanceof String) {
-					responseBody = formatter.format(status, (String) responseBody);
-					returnType = formatter.getReturnType();
+				if (parser == null) {
+					responseBody = endpoint.call(resource, itemList, queries, headers, partMap, requestBody);
 				} else {
-					returnType = exception.getType();
+					responseBody = endpoint.call(resource, itemList, queries, headers, manager, parser, headersMap);
 				}
+			} catch (RestException exception) {
+				respond(response, resource, methodName, exception, acceptType, extensionType, bodyStream);
+				if (fillKey != null) {
+					capture(response, endpoint, fillNames, (ByteArrayOutputStream) bodyStream, responseStream);
+				}
+				return;
+			} catch (NotModifiedException exception) {
+				notModified(response, methodName, responseStream);
+				return;
+			}
+			Type returnType = endpoint.getReturnType();
+			if (endpoint.isAsync() && responseBody != null) {
+				respondLater(request, response, lifecycle, resource, parser, methodName, (CompletionStage<?>) responseBody, returnType, acceptType, extensionType, responseStream);
+				resource = null;
+				// the parts can still be read until the stage completes
+				parser = null;
+				return;
+			}
+			respond(response, resource, methodName, responseBody, returnType, resource.getStatus(), extensionType, bodyStream);
+			if (fillKey != null) {
+				fillEntry = capture(response, endpoint, fillNames, (ByteArrayOutputStream) bodyStream, responseStream);
+			}
+		} catch (Exception exception) {
+			fail(response, exception);
+		} finally {
+			if (fillKey != null) {
+				responseCache.release(fillKey, fillEntry);
 			}
+			if (resource != null) {
+				lifecycle.release(resource);
+			}
+			if (parser != null) {
+				close(parser);
+			}
+			baseRequest.setHandled(true);
+		}
+	}
+
+	Entry await(CompletableFuture<Entry> pending) {
+		long waitTimeout = responseCache.getWaitTimeout();
+		try {
+			if (waitTimeout > 0) {
+				return pending.get(waitTimeout, TimeUnit.MILLISECONDS);
+			}
+			return pending.get();
+		} catch (TimeoutException exception) {
+			// the waiter calls the endpoint itself, without filling the cache
+			logger.warn("Cached response took more than %d ms to fill".formatted(waitTimeout));
+			return null;
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException exception) {
+			return null;
+		}
+	}
+
+	Key newKey(Fields queries, Request baseRequest, Endpoint endpoint, String extension, String acceptType, List<String> itemList) {
+		List<List<String>> values = new ArrayList<>();
+		for (String name : endpoint.getCacheQueries()) {
+			values.add(queries.getList(name));
+		}
+		for (String name : endpoint.getCacheHeaders()) {
+			values.add(baseRequest.getHttpFields().getValuesList(name));
+		}
+		return new Key(endpoint, extension, acceptType, itemList, values);
+	}
+
+	Entry capture(HttpServletResponse response, Endpoint endpoint, Set<String> names, ByteArrayOutputStream bodyStream, OutputStream responseStream) throws IOException {
+		byte[] body = bodyStream.toByteArray();
+		if (body.length > 0) {
+			response.setContentLength(body.length);
+			responseStream.write(body);
+		}
+		responseStream.close();
+		int status = response.getStatus();
+		if (status != HttpStatus.OK_200) {
+			return null;
+		}
+		Map<String, List<String>> headers = new LinkedHashMap<>();
+		for (String name : response.getHeaderNames()) {
+			if (!(names.contains(name) || name.equalsIgnoreCase("Content-Type") || name.equalsIgnoreCase("Content-Length") || name.equalsIgnoreCase("ETag"))) {
+				headers.put(name, List.copyOf(response.getHeaders(name)));
+			}
+		}
+		long expiry = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(endpoint.getCacheTtl());
+		return new Entry(status, response.getContentType(), response.getHeader("ETag"), headers, body, expiry);
+	}
 
-			boolean withContent = !(returnType.equals(void.class) || returnType.equals(Void.class) || (responseBody == null && !resource.isNullable()));
-			if (status == -1) {
-				if (withContent) {
-					if (methodName.equals("POST")) {
-						response.setStatus(HttpStatus.CREATED_201);
+	private void close(MultipartParser parser) {
+		try {
+			parser.close();
+		} catch (IOException exception) {
+			logger.warn("Could not delete multipart files", exception);
+		}
+	}
+
+	void respondLater(HttpServletRequest request, HttpServletResponse response, Lifecycle lifecycle, RestResource resource, MultipartParser parser, String methodName, CompletionStage<?> stage, Type returnType, String acceptType, String extensionType, OutputStream responseStream) {
+		ResourceContext context = resource.detachContext();
+		AtomicBoolean done = new AtomicBoolean(false);
+		AsyncContext asyncContext = request.startAsync();
+		asyncContext.setTimeout(asyncTimeout);
+		asyncContext.addListener(new AsyncListener() {
+			@Override
+			public void onTimeout(AsyncEvent event) {
+				if (done.compareAndSet(false, true)) {
+					logger.error("Asynchronous response timed out");
+					sendError(response, HttpStatus.SERVICE_UNAVAILABLE_503, "Response timed out");
+					asyncContext.complete();
+				}
+			}
+
+			@Override
+			public void onError(AsyncEvent event) {
+				if (done.compareAndSet(false, true)) {
+					logger.error("Asynchronous response failed", event.getThrowable());
+					asyncContext.complete();
+				}
+			}
+
+			@Override
+			public void onComplete(AsyncEvent event) {
+			}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+			}
+		});
+		stage.whenComplete((responseBody, throwable) -> {
+			boolean first = done.compareAndSet(false, true);
+			ResourceContext previous = resource.attachContext(context);
+			try {
+				if (first) {
+					if (throwable == null) {
+						respond(response, resource, methodName, responseBody, returnType, resource.getStatus(), extensionType, responseStream);
 					} else {
-						response.setStatus(HttpStatus.OK_200);
+						while (throwable instanceof CompletionException && throwable.getCause() != null) {
+							throwable = throwable.getCause();
+						}
+						if (throwable instanceof RestException) {
+							respond(response, resource, methodName, (RestException) throwable, acceptType, extensionType, responseStream);
+						} else if (throwable instanceof NotModifiedException) {
+							notModified(response, methodName, responseStream);
+						} else {
+							fail(response, throwable);
+						}
 					}
-				} else {
-					response.setStatus(HttpStatus.NO_CONTENT_204);
 				}
-			} else {
-				response.setStatus(status);
+			} catch (Exception exception) {
+				fail(response, exception);
+			} finally {
+				if (parser != null) {
+					close(parser);
+				}
+				lifecycle.release(resource);
+				resource.restoreContext(previous);
+				if (first) {
+					asyncContext.complete();
+				}
 			}
+		});
+	}
 
-			if (methodName.equals("HEAD")) {
-				CountOutputStream countStream = new CountOutputStream();
-				if (withContent) {
-					if (write(response, resource, responseBody, returnType, extensionType, countStream)) {
-						response.setContentLengthLong(countStream.getCount());
-					}
+	void respond(HttpServletResponse response, RestResource resource, String methodName, RestException exception, String acceptType, String extensionType, OutputStream responseStream) throws IOException {
+		// the negotiated type was chosen for the return type, not for the error
+		if (acceptType != null && acceptType.equals(resource.getContentType())) {
+			resource.setContentType(null);
+		}
+		Object responseBody = exception.getBody();
+		int status = exception.getStatus();
+		Type returnType;
+		if (responseBody instanceof String) {
+			responseBody = formatter.format(status, (String) responseBody);
+			returnType = formatter.getReturnType();
+		} else {
+			returnType = exception.getType();
+		}
+		respond(response, resource, methodName, responseBody, returnType, status, extensionType, responseStream);
+	}
+
+	void respond(HttpServletResponse response, RestResource resource, String methodName, Object responseBody, Type returnType, int status, String extensionType, OutputStream responseStream) throws IOException {
+		boolean withContent = !(returnType.equals(void.class) || returnType.equals(Void.class) || (responseBody == null && !resource.isNullable()));
+		if (status == -1) {
+			if (withContent) {
+				if (methodName.equals("POST")) {
+					status = HttpStatus.CREATED_201;
+				} else {
+					status = HttpStatus.OK_200;
 				}
-				responseStream.close();
 			} else {
-				if (withContent) {
-					write(response, resource, responseBody, returnType, extensionType, responseStream);
+				status = HttpStatus.NO_CONTENT_204;
+			}
+		}
+		response.setStatus(status);
+
+		boolean tagging = etag && withContent && status == HttpStatus.OK_200 && (methodName.equals("GET") || methodName.equals("HEAD")) && !response.containsHeader("ETag");
+		if (methodName.equals("HEAD")) {
+			CountOutputStream countStream = new CountOutputStream();
+			if (withContent) {
+				boolean withLength;
+				if (tagging) {
+					withLength = writeWithTag(response, resource, responseBody, returnType, extensionType, countStream);
 				} else {
-					responseStream.close();
+					withLength = write(response, resource, responseBody, returnType, extensionType, countStream);
+				}
+				if (withLength) {
+					response.setContentLengthLong(countStream.getCount());
+				}
+			}
+			responseStream.close();
+		} else {
+			if (withContent) {
+				if (tagging) {
+					writeWithTag(response, resource, responseBody, returnType, extensionType, responseStream);
+				} else {
+					write(response, resource, responseBody, returnType, extensionType, responseStream);
 				}
+			} else {
+				responseStream.close();
+			}
+		}
+	}
+
+	void respond(HttpServletResponse response, Request baseRequest, String methodName, Entry entry, OutputStream responseStream) throws IOException {
+		Map<String, List<String>> headers = entry.headers();
+		for (String name : headers.keySet()) {
+			for (String value : headers.get(name)) {
+				response.addHeader(name, value);
 			}
-		} catch (MessageRestException exception) {
+		}
+		String tag = entry.tag();
+		if (tag != null) {
+			response.setHeader("ETag", tag);
+			if (EntityTags.matches(baseRequest.getHttpFields().getValuesList("If-None-Match"), tag)) {
+				response.setStatus(HttpStatus.NOT_MODIFIED_304);
+				responseStream.close();
+				return;
+			}
+		}
+		byte[] body = entry.body();
+		response.setStatus(entry.status());
+		String contentType = entry.contentType();
+		if (contentType != null) {
+			response.setContentType(contentType);
+		}
+		response.setContentLength(body.length);
+		if (!methodName.equals("HEAD")) {
+			responseStream.write(body);
+		}
+		responseStream.close();
+	}
+
+	void notModified(HttpServletResponse response, String methodName, OutputStream responseStream) throws IOException {
+		if (!(methodName.equals("GET") || methodName.equals("HEAD"))) {
+			throw new MessageRestException(HttpStatus.PRECONDITION_FAILED_412, "Precondition failed");
+		}
+		response.setStatus(HttpStatus.NOT_MODIFIED_304);
+		responseStream.close();
+	}
+
+	void fail(HttpServletResponse response, Throwable throwable) {
+		if (throwable instanceof MessageRestException) {
+			MessageRestException exception = (MessageRestException) throwable;
 			int status = exception.getStatus();
 			String message = (String) exception.getBody();
 			sendError(response, status, message);
-		} catch (Exception exception) {
-			response.reset();
-			boolean gateway = false;
-			for (Class<? extends RuntimeException> type : gatewayTypes) {
-				if (type.isAssignableFrom(exception.getClass())) {
-					gateway = true;
-					break;
-				}
+			return;
+		}
+		response.reset();
+		boolean gateway = false;
+		for (Class<? extends RuntimeException> type : gatewayTypes) {
+			if (type.isAssignableFrom(throwable.getClass())) {
+				gateway = true;
+				break;
 			}
-			int status;
-			if (gateway) {
-				logger.error("Bad gateway", exception);
-				status = HttpServletResponse.SC_BAD_GATEWAY;
+		}
+		int status;
+		if (gateway) {
+			logger.error("Bad gateway", throwable);
+			status = HttpServletResponse.SC_BAD_GATEWAY;
+		} else {
+			logger.error("Internal server error", throwable);
+			status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+		}
+		sendError(response, status, null);
+	}
+
+	Route resolve(String uri) {
+		String extension;
+		String extensionType;
+		int length = uri.lastIndexOf('.') + 1;
+		if (length > 0 && length < uri.length() && uri.indexOf('/', length) == -1) {
+			extension = uri.substring(length);
+			extensionType = manager.getExtensionType(extension);
+			if (extensionType == null) {
+				extension = "";
 			} else {
-				logger.error("Internal server error", exception);
-				status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+				uri = uri.substring(0, length - 1);
 			}
-			sendError(response, status, null);
-		} finally {
-			baseRequest.setHandled(true);
+		} else {
+			uri = PathCoder.getInstance().stripEndingSlashes(uri);
+			extension = "";
+			extensionType = null;
 		}
-	}
 
-	RestResource invoke(MethodHandle handle) {
-		RestResource resource;
-		try {
-			resource = (RestResource) handle.invoke();
-		} catch (Throwable throwable) {
-			throw new AssertionError(throwable);
+		Leaf leaf = null;
+		if (uri.indexOf('%') == -1 && uri.indexOf('+') == -1) {
+			leaf = tree.getStaticLeaf(uri);
 		}
-		return resource;
+		List<String> itemList;
+		if (leaf == null) {
+			String[] items;
+			try {
+				items = PathCoder.getInstance().splitAndDecode(uri, urlCharset);
+			} catch (IllegalArgumentException error) {
+				String message = "URI could not be decoded";
+				logger.error(message, error);
+				throw new BadRequestException(message);
+			}
+
+			List<String> addedList = new ArrayList<>();
+			leaf = tree.getLeafAndAddItems(items, addedList);
+			// the route is shared by every request for the same URI
+			itemList = List.copyOf(addedList);
+		} else {
+			itemList = List.of();
+		}
+		return new Route(extension, extensionType, leaf, itemList);
 	}
 
 	boolean write(HttpServletResponse response, RestResource resource, Object actual, Type type, String extensionType, OutputStream stream) {
@@ -339,12 +745,45 @@ class Handler extends AbstractHandler {
 			contentType = extensionType;
 		}
 		boolean base64 = resource.isBase64();
+		Charset charset = resource.getCharset();
 
+		Plan plan = null;
+		if (contentType == null && !base64 && actual != null) {
+			plan = getPlan(type);
+			if (plan == NO_PLAN || (plan.serializer() != null && !plan.charset().equals(charset))) {
+				plan = null;
+			}
+		}
+		boolean binary;
+		Assembler assembler;
+		Serializer serializer;
 		boolean withoutLength;
+		if (plan == null) {
+			binary = manager.isBinary(type);
+			if (binary) {
+				contentType = manager.getAssemblerType(contentType, actual, type);
+				assembler = manager.getAssembler(contentType);
+				serializer = null;
+				withoutLength = actual instanceof InputStream || Types.instanceOfStreamConsumer(actual, type);
+			} else {
+				contentType = manager.getSerializerType(contentType, actual, type);
+				assembler = null;
+				serializer = manager.getSerializer(contentType);
+				withoutLength = actual instanceof Reader || Types.instanceOfWriterConsumer(actual, type);
+				contentType = "%s;charset=%s".formatted(contentType, charset.name());
+			}
+		} else {
+			binary = plan.assembler() != null;
+			contentType = plan.contentType();
+			assembler = plan.assembler();
+			serializer = plan.serializer();
+			withoutLength = plan.withoutLength();
+		}
+
+		boolean counting = stream instanceof CountOutputStream;
+		long length = -1;
 		Consumer<OutputStream> consumer;
-		if (manager.isBinary(type)) {
-			contentType = manager.getAssemblerType(contentType, actual, type);
-			Assembler assembler = manager.getAssembler(contentType);
+		if (binary) {
 			consumer = (output) -> {
 				assembler.write(actual, type, output);
 				try {
@@ -353,11 +792,10 @@ class Handler extends AbstractHandler {
 					throw new UncheckedIOException(exception);
 				}
 			};
-			withoutLength = actual instanceof InputStream || Types.instanceOfStreamConsumer(actual, type);
+			if (counting) {
+				length = assembler.length(actual, type);
+			}
 		} else {
-			contentType = manager.getSerializerType(contentType, actual, type);
-			Serializer serializer = manager.getSerializer(contentType);
-			Charset charset = resource.getCharset();
 			consumer = (output) -> {
 				OutputStreamWriter writer = new OutputStreamWriter(output, charset);
 				serializer.write(actual, type, writer);
@@ -367,11 +805,15 @@ class Handler extends AbstractHandler {
 					throw new UncheckedIOException(exception);
 				}
 			};
-			withoutLength = actual instanceof Reader || Types.instanceOfWriterConsumer(actual, type);
-			contentType = "%s;charset=%s".formatted(contentType, charset.name());
+			if (counting) {
+				length = serializer.length(actual, type, charset);
+			}
 		}
 		if (base64) {
 			contentType = "%s;base64".formatted(contentType);
+			if (length > 0) {
+				length = 4 * ((length + 2) / 3);
+			}
 		}
 
 		try {
@@ -383,6 +825,11 @@ class Handler extends AbstractHandler {
 					throw new UncheckedIOException(exception);
 				}
 			}
+			if (length >= 0) {
+				// the length is known, so there is nothing to measure
+				((CountOutputStream) stream).add(length);
+				return !withoutLength;
+			}
 			if (base64) {
 				stream = MediaCoder.getInstance().encode(stream);
 			}
@@ -404,6 +851,57 @@ class Handler extends AbstractHandler {
 		return !withoutLength;
 	}
 
+	Plan getPlan(Type type) {
+		Plan plan = plans.get(type);
+		if (plan == null) {
+			plan = newPlan(type);
+			Plan previous = plans.putIfAbsent(type, plan);
+			if (previous != null) {
+				plan = previous;
+			}
+		}
+		return plan;
+	}
+
+	private Plan newPlan(Type type) {
+		String defaultType = manager.getDefaultType(type);
+		if (defaultType == null) {
+			return NO_PLAN;
+		}
+		try {
+			if (manager.isBinary(type)) {
+				Assembler assembler = manager.getAssembler(defaultType);
+				boolean withoutLength = Types.equalsStreamConsumer(type) || InputStream.class.isAssignableFrom((Class<?>) type);
+				return new Plan(assembler, null, null, defaultType.intern(), withoutLength);
+			}
+			Serializer serializer = manager.getSerializer(defaultType);
+			boolean withoutLength = Types.equalsWriterConsumer(type) || Reader.class.isAssignableFrom((Class<?>) type);
+			Charset charset = Defaults.CHARSET;
+			return new Plan(null, serializer, charset, "%s;charset=%s".formatted(defaultType, charset.name()).intern(), withoutLength);
+		} catch (TypeException exception) {
+			// the dynamic path reports the missing transformer
+			return NO_PLAN;
+		}
+	}
+
+	boolean writeWithTag(HttpServletResponse response, RestResource resource, Object actual, Type type, String extensionType, OutputStream stream) throws IOException {
+		TagOutputStream tagStream = new TagOutputStream(stream, TAG_CAPACITY);
+		boolean withLength = write(response, resource, actual, type, extensionType, tagStream);
+		if (tagStream.isOverflowed()) {
+			return withLength;
+		}
+		String tag = tagStream.getTag();
+		response.setHeader("ETag", tag);
+		if (EntityTags.matches(resource.getHeaders().getList("If-None-Match"), tag)) {
+			response.setStatus(HttpStatus.NOT_MODIFIED_304);
+			tagStream.release(false);
+			return false;
+		}
+		response.setContentLength(tagStream.getSize());
+		tagStream.release(true);
+		return true;
+	}
+
 	void sendError(HttpServletResponse response, int status, String message) {
 		try {
 			response.sendError(status, message);
@@ -411,4 +909,7 @@ class Handler extends AbstractHandler {
 			logger.warn("Could not send error message", exception);
 		}
 	}
+
+	record Plan(Assembler assembler, Serializer serializer, Charset charset, String contentType, boolean withoutLength) {
+	}
 }
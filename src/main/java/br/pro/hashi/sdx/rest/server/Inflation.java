@@ -0,0 +1,143 @@
+package br.pro.hashi.sdx.rest.server;
+
+import java.io.InputStream;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.http.HttpStatus;
+
+import br.pro.hashi.sdx.rest.server.exception.MessageRestException;
+import br.pro.hashi.sdx.rest.server.stream.InflateInputStream;
+
+/**
+ * <p>
+ * Decompresses request bodies sent with {@code Content-Encoding: gzip} or
+ * {@code Content-Encoding: deflate}.
+ * </p>
+ * <p>
+ * The body size limit applies to the compressed bytes and, together with the
+ * decompressed size limit, to the decompressed bytes. This prevents small
+ * bodies from expanding into huge ones.
+ * </p>
+ */
+public final class Inflation {
+	private final long maxSize;
+	private final LongAdder count;
+	private final LongAdder compressedSize;
+	private final LongAdder size;
+	private final LongAdder rejections;
+
+	Inflation(long maxSize) {
+		this.maxSize = maxSize;
+		this.count = new LongAdder();
+		this.compressedSize = new LongAdder();
+		this.size = new LongAdder();
+		this.rejections = new LongAdder();
+	}
+
+	/**
+	 * Obtains the maximum decompressed size allowed for a request body.
+	 *
+	 * @return the size limit, or a non-positive value if there is no limit
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Obtains the number of request bodies decompressed, either until the end or
+	 * until they were closed.
+	 *
+	 * @return the body count
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Obtains the number of compressed bytes read from decompressed request
+	 * bodies.
+	 *
+	 * @return the compressed size
+	 */
+	public long getCompressedSize() {
+		return compressedSize.sum();
+	}
+
+	/**
+	 * Obtains the number of bytes obtained from decompressed request bodies.
+	 *
+	 * @return the decompressed size
+	 */
+	public long getSize() {
+		return size.sum();
+	}
+
+	/**
+	 * Obtains the ratio between the decompressed size and the compressed size.
+	 *
+	 * @return the compression ratio, or {@code 0} if no body was decompressed
+	 */
+	public double getRatio() {
+		long compressed = compressedSize.sum();
+		if (compressed == 0) {
+			return 0;
+		}
+		return (double) size.sum() / compressed;
+	}
+
+	/**
+	 * Obtains the number of request bodies rejected for exceeding the
+	 * decompressed size limit.
+	 *
+	 * @return the rejection count
+	 */
+	public long getRejections() {
+		return rejections.sum();
+	}
+
+	String getEncoding(String contentEncoding) {
+		String encoding = contentEncoding.strip().toLowerCase();
+		switch (encoding) {
+		case "identity":
+		case "":
+			return null;
+		case "gzip":
+		case "x-gzip":
+			return "gzip";
+		case "deflate":
+			return "deflate";
+		default:
+			throw new MessageRestException(HttpStatus.UNSUPPORTED_MEDIA_TYPE_415, "Content encoding %s is not supported".formatted(contentEncoding));
+		}
+	}
+
+	/**
+	 * Internal member.
+	 *
+	 * @param stream   the compressed stream
+	 * @param encoding the encoding
+	 * @param bodySize the body size limit
+	 * @return the decompressed stream
+	 * @hidden
+	 */
+	public InputStream inflate(InputStream stream, String encoding, long bodySize) {
+		long limit;
+		if (maxSize > 0 && (bodySize < 1 || maxSize < bodySize)) {
+			limit = maxSize;
+		} else {
+			limit = bodySize;
+		}
+		return new InflateInputStream(stream, encoding.equals("gzip"), limit) {
+			@Override
+			protected void report(long compressedSize, long size, boolean exceeded) {
+				if (exceeded) {
+					rejections.increment();
+				} else {
+					count.increment();
+					Inflation.this.compressedSize.add(compressedSize);
+					Inflation.this.size.add(size);
+				}
+			}
+		};
+	}
+}
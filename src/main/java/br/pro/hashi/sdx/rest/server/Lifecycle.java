@@ -0,0 +1,134 @@
+package br.pro.hashi.sdx.rest.server;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import br.pro.hashi.sdx.rest.server.annotation.Pooled;
+import br.pro.hashi.sdx.rest.server.annotation.Singleton;
+import br.pro.hashi.sdx.rest.server.exception.ResourceException;
+
+abstract class Lifecycle {
+	static Lifecycle newInstance(Class<? extends RestResource> type, MethodHandle handle) {
+		String typeName = type.getName();
+		Singleton singleton = type.getAnnotation(Singleton.class);
+		Pooled pooled = type.getAnnotation(Pooled.class);
+		if (singleton == null) {
+			if (pooled == null) {
+				return new PerRequest(handle);
+			}
+			int capacity = pooled.value();
+			if (capacity < 1) {
+				throw new ResourceException(typeName, "Pool size must be positive");
+			}
+			return new Pool(handle, capacity);
+		}
+		if (pooled != null) {
+			throw new ResourceException(typeName, "Resource cannot be both singleton and pooled");
+		}
+		return new Shared(handle);
+	}
+
+	private final MethodHandle handle;
+
+	Lifecycle(MethodHandle handle) {
+		this.handle = handle;
+	}
+
+	MethodHandle getHandle() {
+		return handle;
+	}
+
+	RestResource create() {
+		RestResource resource;
+		try {
+			resource = (RestResource) handle.invokeExact();
+		} catch (Throwable throwable) {
+			throw new AssertionError(throwable);
+		}
+		return resource;
+	}
+
+	abstract RestResource acquire();
+
+	abstract void release(RestResource resource);
+
+	static final class PerRequest extends Lifecycle {
+		PerRequest(MethodHandle handle) {
+			super(handle);
+		}
+
+		@Override
+		RestResource acquire() {
+			return create();
+		}
+
+		@Override
+		void release(RestResource resource) {
+		}
+	}
+
+	static final class Shared extends Lifecycle {
+		private final RestResource instance;
+
+		Shared(MethodHandle handle) {
+			super(handle);
+			this.instance = create();
+			this.instance.share();
+		}
+
+		RestResource getInstance() {
+			return instance;
+		}
+
+		@Override
+		RestResource acquire() {
+			return instance;
+		}
+
+		@Override
+		void release(RestResource resource) {
+			resource.clearFields();
+		}
+	}
+
+	static final class Pool extends Lifecycle {
+		private final Logger logger;
+		private final Queue<RestResource> idle;
+
+		Pool(MethodHandle handle, int capacity) {
+			super(handle);
+			this.logger = LoggerFactory.getLogger(Pool.class);
+			this.idle = new ArrayBlockingQueue<>(capacity);
+		}
+
+		Queue<RestResource> getIdle() {
+			return idle;
+		}
+
+		@Override
+		RestResource acquire() {
+			RestResource resource = idle.poll();
+			if (resource == null) {
+				resource = create();
+				resource.pool();
+			}
+			return resource;
+		}
+
+		@Override
+		void release(RestResource resource) {
+			resource.clearFields();
+			try {
+				resource.reset();
+			} catch (RuntimeException exception) {
+				logger.warn("Could not reset pooled resource", exception);
+				return;
+			}
+			idle.offer(resource);
+		}
+	}
+}
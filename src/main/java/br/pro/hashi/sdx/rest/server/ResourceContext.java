@@ -0,0 +1,106 @@
+package br.pro.hashi.sdx.rest.server;
+
+import java.nio.charset.Charset;
+
+import br.pro.hashi.sdx.rest.Fields;
+import br.pro.hashi.sdx.rest.constant.Defaults;
+import jakarta.servlet.http.HttpServletResponse;
+
+final class ResourceContext {
+	private HeadersMap headersMap;
+	private Fields headers;
+	private Fields queries;
+	private HttpServletResponse response;
+	private int status;
+	private boolean nullable;
+	private String contentType;
+	private Charset charset;
+	private boolean base64;
+
+	ResourceContext() {
+		this.headersMap = null;
+		this.headers = null;
+		this.queries = null;
+		this.response = null;
+		this.status = -1;
+		this.nullable = false;
+		this.contentType = null;
+		this.charset = Defaults.CHARSET;
+		this.base64 = false;
+	}
+
+	ResourceContext(ResourceContext initial) {
+		this.headersMap = null;
+		this.headers = null;
+		this.queries = null;
+		this.response = null;
+		this.status = initial.status;
+		this.nullable = initial.nullable;
+		this.contentType = initial.contentType;
+		this.charset = initial.charset;
+		this.base64 = initial.base64;
+	}
+
+	void setRequest(HeadersMap headersMap, Fields headers, Fields queries, HttpServletResponse response) {
+		this.headersMap = headersMap;
+		this.headers = headers;
+		this.queries = queries;
+		this.response = response;
+	}
+
+	HeadersMap getHeadersMap() {
+		return headersMap;
+	}
+
+	Fields getHeaders() {
+		return headers;
+	}
+
+	Fields getQueries() {
+		return queries;
+	}
+
+	HttpServletResponse getResponse() {
+		return response;
+	}
+
+	int getStatus() {
+		return status;
+	}
+
+	void setStatus(int status) {
+		this.status = status;
+	}
+
+	boolean isNullable() {
+		return nullable;
+	}
+
+	void setNullable(boolean nullable) {
+		this.nullable = nullable;
+	}
+
+	String getContentType() {
+		return contentType;
+	}
+
+	void setContentType(String contentType) {
+		this.contentType = contentType;
+	}
+
+	Charset getCharset() {
+		return charset;
+	}
+
+	void setCharset(Charset charset) {
+		this.charset = charset;
+	}
+
+	boolean isBase64() {
+		return base64;
+	}
+
+	void setBase64(boolean base64) {
+		this.base64 = base64;
+	}
+}
@@ -0,0 +1,139 @@
+package br.pro.hashi.sdx.rest.server;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import br.pro.hashi.sdx.rest.server.tree.Endpoint;
+
+/**
+ * <p>
+ * Remembers successful responses of cached GET endpoints.
+ * </p>
+ * <p>
+ * The cache is limited by the total size of the bodies it holds and is split in
+ * stripes, each one evicting its least recently used responses when full.
+ * Responses are also evicted when they expire. When many requests miss the
+ * same response at once, only one of them calls the endpoint and the others
+ * wait for its result.
+ * </p>
+ * <p>
+ * Besides the status, the body and the content type, stored responses keep the
+ * headers set by the resource.
+ * </p>
+ */
+public final class ResponseCache {
+	private static final long MIN_STRIPE_CAPACITY = 65536;
+
+	private final StripedLruCache<Key, Entry> cache;
+	private final Map<Key, CompletableFuture<Entry>> fills;
+	private final long waitTimeout;
+
+	ResponseCache(long maxSize, long waitTimeout) {
+		this.cache = new StripedLruCache<>(maxSize, MIN_STRIPE_CAPACITY, (entry) -> entry.body().length, (entry) -> entry.expiry() - System.nanoTime() <= 0);
+		this.fills = new ConcurrentHashMap<>();
+		this.waitTimeout = waitTimeout;
+	}
+
+	StripedLruCache<Key, Entry> getCache() {
+		return cache;
+	}
+
+	Map<Key, CompletableFuture<Entry>> getFills() {
+		return fills;
+	}
+
+	/**
+	 * Obtains the maximum number of body bytes this cache can hold.
+	 *
+	 * @return the size limit
+	 */
+	public long getMaxSize() {
+		return cache.getMaxSize();
+	}
+
+	/**
+	 * Obtains how long, in milliseconds, a request waits for another request to
+	 * fill the same response.
+	 *
+	 * @return the timeout, or a non-positive value if there is no limit
+	 */
+	public long getWaitTimeout() {
+		return waitTimeout;
+	}
+
+	/**
+	 * Obtains the number of body bytes this cache currently holds.
+	 *
+	 * @return the size
+	 */
+	public long getSize() {
+		return cache.getSize();
+	}
+
+	/**
+	 * Obtains the number of requests answered with a stored response.
+	 *
+	 * @return the hit count
+	 */
+	public long getHits() {
+		return cache.getHits();
+	}
+
+	/**
+	 * Obtains the number of requests that did not find a stored response.
+	 *
+	 * @return the miss count
+	 */
+	public long getMisses() {
+		return cache.getMisses();
+	}
+
+	/**
+	 * Obtains the ratio between the hit count and the total count.
+	 *
+	 * @return the hit rate, or {@code 0} if there were no requests
+	 */
+	public double getHitRate() {
+		long hitCount = cache.getHits();
+		long total = hitCount + cache.getMisses();
+		if (total == 0) {
+			return 0;
+		}
+		return (double) hitCount / total;
+	}
+
+	Entry get(Key key) {
+		return cache.get(key);
+	}
+
+	CompletableFuture<Entry> claim(Key key) {
+		CompletableFuture<Entry> fill = new CompletableFuture<>();
+		CompletableFuture<Entry> pending = fills.putIfAbsent(key, fill);
+		if (pending != null) {
+			return pending;
+		}
+		// another fill may have been released between the miss and the claim
+		Entry entry = cache.peek(key);
+		if (entry != null) {
+			fills.remove(key);
+			fill.complete(entry);
+			return fill;
+		}
+		return null;
+	}
+
+	void release(Key key, Entry entry) {
+		if (entry != null) {
+			cache.put(key, entry);
+		}
+		fills.remove(key).complete(entry);
+	}
+
+	record Key(Endpoint endpoint, String extension, String acceptType, List<String> items, List<List<String>> values) {
+	}
+
+	record Entry(int status, String contentType, String tag, Map<String, List<String>> headers, byte[] body, long expiry) {
+	}
+}
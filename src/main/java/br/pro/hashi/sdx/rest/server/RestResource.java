@@ -9,35 +9,46 @@ import java.util.Set;
 
 import br.pro.hashi.sdx.rest.Fields;
 import br.pro.hashi.sdx.rest.coding.MediaCoder;
-import br.pro.hashi.sdx.rest.constant.Defaults;
+import br.pro.hashi.sdx.rest.server.annotation.Pooled;
+import br.pro.hashi.sdx.rest.server.annotation.Singleton;
+import br.pro.hashi.sdx.rest.server.exception.NotModifiedException;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
+ * <p>
  * Base class for representing REST resources.
+ * </p>
+ * <p>
+ * If the resource is a {@link Singleton}, the request details are bound to
+ * the thread handling the request. Code that runs on other threads, such as a
+ * task submitted to an executor, cannot call the methods that access them.
+ * The only exception is the completion of a returned
+ * {@link java.util.concurrent.CompletionStage}, which is bound again before
+ * the response is sent.
+ * </p>
  */
 public abstract class RestResource {
+	private static final ThreadLocal<ResourceContext> CONTEXTS = new ThreadLocal<>();
+	private static final ThreadLocal<CharsetEncoder> ENCODERS = ThreadLocal.withInitial(StandardCharsets.US_ASCII::newEncoder);
+
 	private final String base;
 	private final boolean nullBase;
-	private int status;
-	private boolean nullable;
-	private String contentType;
-	private Charset charset;
-	private boolean base64;
-	private HttpServletResponse response;
-	private CharsetEncoder encoder;
+	private boolean shared;
+	private ResourceContext initial;
+	private ResourceContext context;
 
 	/**
-	 * The multipart headers map.
+	 * The multipart headers map. Not set if the resource is a {@link Singleton}.
 	 */
 	protected HeadersMap headersMap;
 
 	/**
-	 * The request headers.
+	 * The request headers. Not set if the resource is a {@link Singleton}.
 	 */
 	protected Fields headers;
 
 	/**
-	 * The query parameters.
+	 * The query parameters. Not set if the resource is a {@link Singleton}.
 	 */
 	protected Fields queries;
 
@@ -47,7 +58,9 @@ public abstract class RestResource {
 	protected RestResource() {
 		this.base = null;
 		this.nullBase = true;
-		init();
+		this.shared = false;
+		this.initial = null;
+		this.context = new ResourceContext();
 	}
 
 	/**
@@ -58,15 +71,9 @@ public abstract class RestResource {
 	protected RestResource(String base) {
 		this.base = base;
 		this.nullBase = false;
-		init();
-	}
-
-	private void init() {
-		this.status = -1;
-		this.nullable = false;
-		this.contentType = null;
-		this.charset = Defaults.CHARSET;
-		this.base64 = false;
+		this.shared = false;
+		this.initial = null;
+		this.context = new ResourceContext();
 	}
 
 	String getBase() {
@@ -77,32 +84,149 @@ public abstract class RestResource {
 		return nullBase;
 	}
 
+	boolean isShared() {
+		return shared;
+	}
+
+	// the state set by the constructor is kept as the initial state of each
+	// request, as if every request had its own instance
+	void share() {
+		this.shared = true;
+		this.initial = context;
+		this.context = null;
+	}
+
+	void pool() {
+		this.initial = new ResourceContext(context);
+	}
+
 	int getStatus() {
-		return status;
+		return getContext().getStatus();
 	}
 
 	boolean isNullable() {
-		return nullable;
+		return getContext().isNullable();
 	}
 
 	String getContentType() {
-		return contentType;
+		return getContext().getContentType();
+	}
+
+	void setContentType(String contentType) {
+		getContext().setContentType(contentType);
 	}
 
 	Charset getCharset() {
-		return charset;
+		return getContext().getCharset();
 	}
 
 	boolean isBase64() {
-		return base64;
+		return getContext().isBase64();
+	}
+
+	void setFields(Map<String, List<Fields>> map, Fields headers, Fields queries, HttpServletResponse response) {
+		HeadersMap headersMap = new HeadersMap(map);
+		if (shared) {
+			ResourceContext context = new ResourceContext(initial);
+			context.setRequest(headersMap, headers, queries, response);
+			CONTEXTS.set(context);
+		} else {
+			this.context.setRequest(headersMap, headers, queries, response);
+			this.headersMap = headersMap;
+			this.headers = headers;
+			this.queries = queries;
+		}
+	}
+
+	void clearFields() {
+		if (shared) {
+			CONTEXTS.remove();
+		} else {
+			if (initial == null) {
+				this.context = new ResourceContext();
+			} else {
+				this.context = new ResourceContext(initial);
+			}
+			this.headersMap = null;
+			this.headers = null;
+			this.queries = null;
+		}
 	}
 
-	void setFields(Map<String, List<Fields>> map, Fields headers, Fields queries, CharsetEncoder encoder, HttpServletResponse response) {
-		this.headersMap = new HeadersMap(map);
-		this.headers = headers;
-		this.queries = queries;
-		this.encoder = encoder;
-		this.response = response;
+	ResourceContext detachContext() {
+		ResourceContext context = getContext();
+		if (shared) {
+			CONTEXTS.remove();
+		}
+		return context;
+	}
+
+	// the thread might be handling a request for another singleton, so its
+	// context is returned to be restored afterwards
+	ResourceContext attachContext(ResourceContext context) {
+		if (shared) {
+			ResourceContext previous = CONTEXTS.get();
+			CONTEXTS.set(context);
+			return previous;
+		}
+		return null;
+	}
+
+	void restoreContext(ResourceContext previous) {
+		if (shared) {
+			if (previous == null) {
+				CONTEXTS.remove();
+			} else {
+				CONTEXTS.set(previous);
+			}
+		}
+	}
+
+	private ResourceContext getContext() {
+		if (shared) {
+			ResourceContext context = CONTEXTS.get();
+			if (context == null) {
+				throw new IllegalStateException("Singleton resource cannot access the request outside the thread handling it");
+			}
+			return context;
+		}
+		return context;
+	}
+
+	/**
+	 * Obtains the multipart headers map. Unlike the field, this method is
+	 * available even if the resource is a {@link Singleton}.
+	 *
+	 * @return the map
+	 * @throws IllegalStateException if the resource is a {@link Singleton} and
+	 *                               the current thread is not handling a request
+	 */
+	protected final HeadersMap getHeadersMap() {
+		return getContext().getHeadersMap();
+	}
+
+	/**
+	 * Obtains the request headers. Unlike the field, this method is available
+	 * even if the resource is a {@link Singleton}.
+	 *
+	 * @return the headers
+	 * @throws IllegalStateException if the resource is a {@link Singleton} and
+	 *                               the current thread is not handling a request
+	 */
+	protected final Fields getHeaders() {
+		return getContext().getHeaders();
+	}
+
+	/**
+	 * Obtains the query parameters. Unlike the field, this method is available
+	 * even if the resource is a {@link Singleton}.
+	 *
+	 * @return the queries
+	 * @throws IllegalStateException if the resource is a {@link Singleton} and
+	 *                               the current thread is not handling a request
+	 */
+	protected final Fields getQueries() {
+		return getContext().getQueries();
 	}
 
 	/**
@@ -124,6 +248,20 @@ public abstract class RestResource {
 		return null;
 	}
 
+	/**
+	 * <p>
+	 * Override this method to reset the state of a {@link Pooled} resource
+	 * before it is reused. Default does nothing.
+	 * </p>
+	 * <p>
+	 * The response details are reset regardless, but fields declared by the
+	 * subclass keep their values from one request to the next unless they are
+	 * reset here. If this method throws an exception, the instance is discarded.
+	 * </p>
+	 */
+	protected void reset() {
+	}
+
 	/**
 	 * Wrap the response body with this method to indicate that it should be sent
 	 * even if it is null.
@@ -133,7 +271,7 @@ public abstract class RestResource {
 	 * @return the parameter, for wrapping
 	 */
 	protected final <T> T nullable(T body) {
-		nullable = true;
+		getContext().setNullable(true);
 		return body;
 	}
 
@@ -169,7 +307,7 @@ public abstract class RestResource {
 		if (contentType == null) {
 			throw new IllegalArgumentException("Content type cannot be blank");
 		}
-		this.contentType = contentType;
+		getContext().setContentType(contentType);
 		return null;
 	}
 
@@ -200,7 +338,7 @@ public abstract class RestResource {
 		if (charset == null) {
 			throw new NullPointerException("Charset cannot be null");
 		}
-		this.charset = charset;
+		getContext().setCharset(charset);
 		return null;
 	}
 
@@ -208,7 +346,7 @@ public abstract class RestResource {
 	 * Encodes the response body in Base64.
 	 */
 	protected final Void inBase64() {
-		this.base64 = true;
+		getContext().setBase64(true);
 		return null;
 	}
 
@@ -254,6 +392,9 @@ public abstract class RestResource {
 		if (name.isEmpty()) {
 			throw new IllegalArgumentException("Header name cannot be blank");
 		}
+		ResourceContext context = getContext();
+		// encoders are not thread-safe, so each thread reuses its own
+		CharsetEncoder encoder = ENCODERS.get();
 		if (!encoder.canEncode(name)) {
 			throw new IllegalArgumentException("Header name must be in US-ASCII");
 		}
@@ -267,7 +408,7 @@ public abstract class RestResource {
 		if (!encoder.canEncode(valueString)) {
 			throw new IllegalArgumentException("Header value string must be in US-ASCII");
 		}
-		response.addHeader(name, valueString);
+		context.getResponse().addHeader(name, valueString);
 		return null;
 	}
 
@@ -332,7 +473,52 @@ public abstract class RestResource {
 		if (status < 100 || status > 399) {
 			throw new IllegalArgumentException("Status must be between 100 and 399");
 		}
-		this.status = status;
+		getContext().setStatus(status);
+	}
+
+	/**
+	 * <p>
+	 * Sets a version for the response, sent as a weak {@code ETag}.
+	 * </p>
+	 * <p>
+	 * If the request has an {@code If-None-Match} header that matches the version,
+	 * the endpoint is interrupted and the response is {@code 304 Not Modified}
+	 * without a body, or {@code 412 Precondition Failed} if the method is neither
+	 * GET nor HEAD. Call this method before producing the body, so that it is not
+	 * produced in vain.
+	 * </p>
+	 * <p>
+	 * The version is converted to {@code String} via {@code toString()}.
+	 * </p>
+	 *
+	 * @param version the version
+	 * @throws NullPointerException     if the version is null
+	 * @throws IllegalArgumentException if the version is empty or has characters
+	 *                                  that are not visible US-ASCII or are quotes
+	 */
+	protected final void version(Object version) {
+		if (version == null) {
+			throw new NullPointerException("Version cannot be null");
+		}
+		String versionString = version.toString();
+		if (versionString == null) {
+			throw new NullPointerException("Version string cannot be null");
+		}
+		if (versionString.isEmpty()) {
+			throw new IllegalArgumentException("Version string cannot be empty");
+		}
+		for (int i = 0; i < versionString.length(); i++) {
+			char c = versionString.charAt(i);
+			if (c < '!' || c > '~' || c == '"') {
+				throw new IllegalArgumentException("Version string must have only visible US-ASCII characters other than quotes");
+			}
+		}
+		String tag = "W/\"%s\"".formatted(versionString);
+		ResourceContext context = getContext();
+		context.getResponse().setHeader("ETag", tag);
+		if (EntityTags.matches(context.getHeaders().getList("If-None-Match"), tag)) {
+			throw new NotModifiedException();
+		}
 	}
 
 	/**
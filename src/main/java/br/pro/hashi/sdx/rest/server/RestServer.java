@@ -35,6 +35,9 @@ public final class RestServer {
 	private final int clearPort;
 	private final int mainPort;
 	private final int altPort;
+	private final RouteCache routeCache;
+	private final ResponseCache responseCache;
+	private final Inflation inflation;
 	private String publicAddress;
 	private String publicUrl;
 	private String publicUrl3;
@@ -42,13 +45,16 @@ public final class RestServer {
 	private String privateUrl;
 	private String privateUrl3;
 
-	RestServer(Server jettyServer, String scheme, int clearPort, int mainPort, int altPort) {
+	RestServer(Server jettyServer, String scheme, int clearPort, int mainPort, int altPort, RouteCache routeCache, ResponseCache responseCache, Inflation inflation) {
 		this.logger = LoggerFactory.getLogger(RestServer.class);
 		this.jettyServer = jettyServer;
 		this.scheme = scheme;
 		this.clearPort = clearPort;
 		this.mainPort = mainPort;
 		this.altPort = altPort;
+		this.routeCache = routeCache;
+		this.responseCache = responseCache;
+		this.inflation = inflation;
 		this.publicAddress = null;
 		this.publicUrl = null;
 		this.publicUrl3 = null;
@@ -87,6 +93,36 @@ public final class RestServer {
 		return jettyServer;
 	}
 
+	/**
+	 * Obtains the route cache of this server or {@code null} if the cache is
+	 * disabled.
+	 * 
+	 * @return the cache
+	 */
+	public RouteCache getRouteCache() {
+		return routeCache;
+	}
+
+	/**
+	 * Obtains the response cache of this server or {@code null} if the cache is
+	 * disabled.
+	 * 
+	 * @return the cache
+	 */
+	public ResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+	/**
+	 * Obtains the request body decompression of this server, which also holds
+	 * its metrics.
+	 * 
+	 * @return the decompression
+	 */
+	public Inflation getInflation() {
+		return inflation;
+	}
+
 	/**
 	 * Obtains the public IP of this server or {@code null} if the address is not
 	 * available.
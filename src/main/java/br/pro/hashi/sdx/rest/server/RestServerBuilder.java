@@ -29,6 +29,7 @@ import org.eclipse.jetty.server.handler.AbstractHandler;
 import org.eclipse.jetty.server.handler.SecuredRedirectHandler;
 import org.eclipse.jetty.server.handler.ThreadLimitHandler;
 import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.ThreadPool;
 import org.slf4j.Logger;
@@ -40,6 +41,7 @@ import br.pro.hashi.sdx.rest.constant.Defaults;
 import br.pro.hashi.sdx.rest.reflection.Reflector;
 import br.pro.hashi.sdx.rest.server.exception.ResourceException;
 import br.pro.hashi.sdx.rest.server.tree.Tree;
+import br.pro.hashi.sdx.rest.transform.manager.TransformManager;
 import jakarta.servlet.MultipartConfigElement;
 
 /**
@@ -58,9 +60,12 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 	private boolean base64;
 	private SslContextFactory.Server factory;
 	private ThreadPool requestPool;
+	private boolean virtualThreads;
 	private MultipartConfigElement element;
+	private boolean streaming;
 	private UriCompliance compliance;
 	private long maxBodySize;
+	private long maxInflatedSize;
 	private int clearPort;
 	private int securePort;
 	private int port3;
@@ -68,6 +73,11 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 	private boolean http2;
 	private boolean http1;
 	private boolean cors;
+	private int routeCacheSize;
+	private long responseCacheSize;
+	private long cacheWaitTimeout;
+	private boolean etag;
+	private long asyncTimeout;
 
 	/**
 	 * Constructs a new builder.
@@ -83,9 +93,12 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 		this.base64 = false;
 		this.factory = null;
 		this.requestPool = null;
+		this.virtualThreads = false;
 		this.element = new MultipartConfigElement("", 0, 2000000, 200000);
+		this.streaming = false;
 		this.compliance = UriCompliance.RFC3986_UNAMBIGUOUS;
 		this.maxBodySize = 200000;
+		this.maxInflatedSize = 2000000;
 		this.clearPort = 8080;
 		this.securePort = 8443;
 		this.port3 = 8843;
@@ -93,6 +106,11 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 		this.http2 = true;
 		this.http1 = true;
 		this.cors = true;
+		this.routeCacheSize = 0;
+		this.responseCacheSize = 0;
+		this.cacheWaitTimeout = 30000;
+		this.etag = false;
+		this.asyncTimeout = 30000;
 	}
 
 	Set<Class<? extends RuntimeException>> getGatewayTypes() {
@@ -123,10 +141,18 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 		return requestPool;
 	}
 
+	boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
 	MultipartConfigElement getElement() {
 		return element;
 	}
 
+	boolean isStreaming() {
+		return streaming;
+	}
+
 	UriCompliance getCompliance() {
 		return compliance;
 	}
@@ -135,6 +161,10 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 		return maxBodySize;
 	}
 
+	long getMaxInflatedSize() {
+		return maxInflatedSize;
+	}
+
 	int getClearPort() {
 		return clearPort;
 	}
@@ -163,6 +193,26 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 		return cors;
 	}
 
+	int getRouteCacheSize() {
+		return routeCacheSize;
+	}
+
+	long getResponseCacheSize() {
+		return responseCacheSize;
+	}
+
+	long getCacheWaitTimeout() {
+		return cacheWaitTimeout;
+	}
+
+	boolean isEtag() {
+		return etag;
+	}
+
+	long getAsyncTimeout() {
+		return asyncTimeout;
+	}
+
 	/**
 	 * <p>
 	 * Associates the specified extension to the specified content type. Parameters
@@ -336,6 +386,30 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 		return self();
 	}
 
+	/**
+	 * <p>
+	 * Handles requests in virtual threads.
+	 * </p>
+	 * <p>
+	 * Selectors and acceptors still run in the request pool, but each request is
+	 * handed to a new virtual thread. Useful when endpoints spend most of their
+	 * time blocked, for example waiting for a database or another server. The
+	 * request pool must implement {@link VirtualThreads.Configurable}, as the
+	 * default one does.
+	 * </p>
+	 *
+	 * @return this builder, for chaining
+	 * @throws UnsupportedOperationException if the runtime does not support
+	 *                                       virtual threads
+	 */
+	public final RestServerBuilder withVirtualThreads() {
+		if (!VirtualThreads.areSupported()) {
+			throw new UnsupportedOperationException("Virtual threads are not supported by this runtime");
+		}
+		this.virtualThreads = true;
+		return self();
+	}
+
 	/**
 	 * Sets a configuration that should be used for multipart requests.
 	 *
@@ -352,6 +426,27 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 		return self();
 	}
 
+	/**
+	 * <p>
+	 * Enables streaming of multipart requests.
+	 * </p>
+	 * <p>
+	 * Parts are parsed in the order they arrive and bound directly to the part
+	 * parameters. A part is kept only if a later part must be read before the
+	 * endpoint is called, so the last part can be read straight from the request.
+	 * A kept part stays in memory up to the threshold of the multipart
+	 * configuration and is written to a temporary file in its location above it.
+	 * The maximum file size limits each part and the maximum request size limits
+	 * the total.
+	 * </p>
+	 *
+	 * @return this builder, for chaining
+	 */
+	public final RestServerBuilder withStreamingMultipart() {
+		this.streaming = true;
+		return self();
+	}
+
 	/**
 	 * Sets the URI compliance for endpoint bases.
 	 *
@@ -379,6 +474,20 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 		return self();
 	}
 
+	/**
+	 * Sets the maximum decompressed size allowed in non-multipart requests sent
+	 * with {@code Content-Encoding: gzip} or {@code Content-Encoding: deflate}.
+	 * The maximum body size applies to both the compressed and the decompressed
+	 * bytes, so the smaller limit wins. Default is {@code 2000000}.
+	 *
+	 * @param maxInflatedSize the limit
+	 * @return this builder, for chaining
+	 */
+	public final RestServerBuilder withMaxInflatedSize(long maxInflatedSize) {
+		this.maxInflatedSize = maxInflatedSize;
+		return self();
+	}
+
 	/**
 	 * Sets the port for clear-text HTTP/1.1 and HTTP/2.
 	 *
@@ -460,13 +569,105 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 		return self();
 	}
 
+	/**
+	 * <p>
+	 * Enables a cache that maps raw request URIs to their routes.
+	 * </p>
+	 * <p>
+	 * Useful when clients repeatedly request the same URIs with path variables.
+	 * The least recently used routes are evicted when the limit is reached.
+	 * </p>
+	 *
+	 * @param routeCacheSize the maximum number of routes
+	 * @return this builder, for chaining
+	 * @throws IllegalArgumentException if the size is not positive
+	 */
+	public final RestServerBuilder withRouteCache(int routeCacheSize) {
+		if (routeCacheSize < 1) {
+			throw new IllegalArgumentException("Route cache size must be positive");
+		}
+		this.routeCacheSize = routeCacheSize;
+		return self();
+	}
+
+	/**
+	 * <p>
+	 * Enables a cache that stores responses of GET endpoints annotated with
+	 * {@link br.pro.hashi.sdx.rest.server.annotation.Cached}.
+	 * </p>
+	 * <p>
+	 * Cached responses skip resource construction, deserialization and
+	 * serialization. The least recently used responses are evicted when the limit
+	 * is reached.
+	 * </p>
+	 *
+	 * @param responseCacheSize the maximum number of body bytes
+	 * @return this builder, for chaining
+	 * @throws IllegalArgumentException if the size is not positive
+	 */
+	public final RestServerBuilder withResponseCache(long responseCacheSize) {
+		if (responseCacheSize < 1) {
+			throw new IllegalArgumentException("Response cache size must be positive");
+		}
+		this.responseCacheSize = responseCacheSize;
+		return self();
+	}
+
+	/**
+	 * Sets how long, in milliseconds, a request waits for another request that is
+	 * already filling the same cached response. After that, the request calls the
+	 * endpoint itself. A non-positive value means no limit. Default is
+	 * {@code 30000}.
+	 *
+	 * @param cacheWaitTimeout the timeout
+	 * @return this builder, for chaining
+	 */
+	public final RestServerBuilder withCacheWaitTimeout(long cacheWaitTimeout) {
+		this.cacheWaitTimeout = cacheWaitTimeout;
+		return self();
+	}
+
+	/**
+	 * <p>
+	 * Enables automatic {@code ETag} headers.
+	 * </p>
+	 * <p>
+	 * Bodies of successful GET and HEAD responses up to 64 KiB are held and hashed
+	 * before being sent. If the request has an {@code If-None-Match} header that
+	 * matches the hash, the response is {@code 304 Not Modified} without a body.
+	 * Larger bodies are streamed without a tag. Responses whose endpoints already
+	 * set a version are not hashed.
+	 * </p>
+	 *
+	 * @return this builder, for chaining
+	 */
+	public final RestServerBuilder withETag() {
+		this.etag = true;
+		return self();
+	}
+
+	/**
+	 * Sets how long, in milliseconds, a response from an endpoint that returns a
+	 * {@link java.util.concurrent.CompletionStage} can take. A non-positive value
+	 * means no limit. Default is {@code 30000}.
+	 *
+	 * @param asyncTimeout the timeout
+	 * @return this builder, for chaining
+	 */
+	public final RestServerBuilder withAsyncTimeout(long asyncTimeout) {
+		this.asyncTimeout = asyncTimeout;
+		return self();
+	}
+
 	/**
 	 * Builds a server with the current configuration from the resources in the
 	 * specified package.
 	 *
 	 * @param packageName the package name
 	 * @return the server
-	 * @throws NullPointerException if the package name is null
+	 * @throws NullPointerException  if the package name is null
+	 * @throws IllegalStateException if virtual threads are enabled but the request
+	 *                               pool does not support them
 	 */
 	public final RestServer build(String packageName) {
 		Map<Class<? extends RestResource>, MethodHandle> handles = new HashMap<>();
@@ -486,6 +687,7 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 			tree.putNodesAndEndpoints(type, typeName, itemMap);
 			logger.info("Registered %s".formatted(typeName));
 		}
+		tree.freeze();
 
 		Server server;
 		if (requestPool == null) {
@@ -493,11 +695,37 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 		} else {
 			server = new Server(requestPool);
 		}
+		if (virtualThreads) {
+			ThreadPool threadPool = server.getThreadPool();
+			if (!(threadPool instanceof VirtualThreads.Configurable)) {
+				throw new IllegalStateException("Request pool must be configurable to use virtual threads");
+			}
+			((VirtualThreads.Configurable) threadPool).setVirtualThreadsExecutor(VirtualThreads.getDefaultVirtualThreadsExecutor());
+		}
+
+		TransformManager managerCopy = TransformManager.newInstance(managerBase);
+		managerCopy.freeze();
 
-		ConcreteHandler errorHandler = new ConcreteHandler(managerBase, formatter, contentType, charset, base64);
+		ConcreteHandler errorHandler = new ConcreteHandler(managerCopy, formatter, contentType, charset, base64);
 		server.setErrorHandler(errorHandler);
 
-		AbstractHandler handler = new Handler(managerBase, tree, formatter, handles, element, gatewayTypes, urlCharset, cors);
+		RouteCache routeCache;
+		if (routeCacheSize > 0) {
+			routeCache = new RouteCache(routeCacheSize);
+		} else {
+			routeCache = null;
+		}
+
+		ResponseCache responseCache;
+		if (responseCacheSize > 0) {
+			responseCache = new ResponseCache(responseCacheSize, cacheWaitTimeout);
+		} else {
+			responseCache = null;
+		}
+
+		Inflation inflation = new Inflation(maxInflatedSize);
+
+		AbstractHandler handler = new Handler(managerCopy, tree, formatter, handles, element, streaming, gatewayTypes, urlCharset, cors, routeCache, responseCache, inflation, etag, asyncTimeout);
 		if (compression) {
 			GzipHandler gzipHandler = new GzipHandler();
 			gzipHandler.setHandler(handler);
@@ -586,7 +814,7 @@ public non-sealed class RestServerBuilder extends Builder<RestServerBuilder> {
 			}
 		}
 
-		return new RestServer(server, scheme, clearPort, mainPort, altPort);
+		return new RestServer(server, scheme, clearPort, mainPort, altPort, routeCache, responseCache, inflation);
 	}
 
 	private String[] getItems(MethodHandle handle, String typeName) {
@@ -0,0 +1,77 @@
+package br.pro.hashi.sdx.rest.server;
+
+import java.util.List;
+
+import br.pro.hashi.sdx.rest.server.tree.Tree.Leaf;
+
+/**
+ * <p>
+ * Remembers how raw request URIs were routed.
+ * </p>
+ * <p>
+ * The cache is split in stripes, each one evicting its least recently used
+ * entry when full, so that concurrent requests rarely wait for each other. The
+ * stripes are guarded by explicit locks instead of monitors, so that waiting
+ * virtual threads do not pin their carriers.
+ * </p>
+ */
+public final class RouteCache {
+	private static final int MIN_STRIPE_CAPACITY = 16;
+
+	private final StripedLruCache<String, Route> cache;
+
+	RouteCache(int maxSize) {
+		this.cache = new StripedLruCache<>(maxSize, MIN_STRIPE_CAPACITY);
+	}
+
+	StripedLruCache<String, Route> getCache() {
+		return cache;
+	}
+
+	/**
+	 * Obtains the maximum number of routes this cache can hold.
+	 *
+	 * @return the size limit
+	 */
+	public int getMaxSize() {
+		return (int) cache.getMaxSize();
+	}
+
+	/**
+	 * Obtains the number of routes this cache currently holds.
+	 *
+	 * @return the size
+	 */
+	public int getSize() {
+		return (int) cache.getSize();
+	}
+
+	/**
+	 * Obtains the number of requests routed from this cache.
+	 *
+	 * @return the hit count
+	 */
+	public long getHits() {
+		return cache.getHits();
+	}
+
+	/**
+	 * Obtains the number of requests that had to be routed from scratch.
+	 *
+	 * @return the miss count
+	 */
+	public long getMisses() {
+		return cache.getMisses();
+	}
+
+	Route get(String uri) {
+		return cache.get(uri);
+	}
+
+	void put(String uri, Route route) {
+		cache.put(uri, route);
+	}
+
+	record Route(String extension, String extensionType, Leaf leaf, List<String> itemList) {
+	}
+}
@@ -0,0 +1,148 @@
+package br.pro.hashi.sdx.rest.server;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+// Split in stripes, each one evicting its least recently used entries when the
+// total weight exceeds its capacity, so that concurrent requests rarely wait
+// for each other. The stripes are guarded by explicit locks instead of
+// monitors, so that waiting virtual threads do not pin their carriers.
+final class StripedLruCache<K, V> {
+	private static final int MAX_STRIPES = 16;
+
+	private final long maxSize;
+	private final ToLongFunction<V> weigher;
+	private final Predicate<V> expired;
+	private final Stripe<K, V>[] stripes;
+	private final LongAdder hits;
+	private final LongAdder misses;
+
+	StripedLruCache(long maxSize, long minStripeCapacity) {
+		this(maxSize, minStripeCapacity, (value) -> 1, null);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	StripedLruCache(long maxSize, long minStripeCapacity, ToLongFunction<V> weigher, Predicate<V> expired) {
+		int length = 1;
+		while (length < MAX_STRIPES && length * 2 * minStripeCapacity <= maxSize) {
+			length *= 2;
+		}
+		this.maxSize = maxSize;
+		this.weigher = weigher;
+		this.expired = expired;
+		this.stripes = new Stripe[length];
+		for (int i = 0; i < length; i++) {
+			this.stripes[i] = new Stripe<>(maxSize / length);
+		}
+		this.hits = new LongAdder();
+		this.misses = new LongAdder();
+	}
+
+	Stripe<K, V>[] getStripes() {
+		return stripes;
+	}
+
+	long getMaxSize() {
+		return maxSize;
+	}
+
+	long getSize() {
+		long size = 0;
+		for (Stripe<K, V> stripe : stripes) {
+			stripe.lock.lock();
+			try {
+				size += stripe.weight;
+			} finally {
+				stripe.lock.unlock();
+			}
+		}
+		return size;
+	}
+
+	long getHits() {
+		return hits.sum();
+	}
+
+	long getMisses() {
+		return misses.sum();
+	}
+
+	V get(K key) {
+		V value = peek(key);
+		if (value == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return value;
+	}
+
+	// same as get, but not counted as a hit or a miss
+	V peek(K key) {
+		Stripe<K, V> stripe = getStripe(key);
+		stripe.lock.lock();
+		try {
+			V value = stripe.get(key);
+			if (value != null && expired != null && expired.test(value)) {
+				stripe.remove(key);
+				stripe.weight -= weigher.applyAsLong(value);
+				value = null;
+			}
+			return value;
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	void put(K key, V value) {
+		Stripe<K, V> stripe = getStripe(key);
+		long weight = weigher.applyAsLong(value);
+		if (weight > stripe.capacity) {
+			return;
+		}
+		stripe.lock.lock();
+		try {
+			V previous = stripe.put(key, value);
+			if (previous != null) {
+				stripe.weight -= weigher.applyAsLong(previous);
+			}
+			stripe.weight += weight;
+			Iterator<V> iterator = stripe.values().iterator();
+			while (stripe.weight > stripe.capacity) {
+				stripe.weight -= weigher.applyAsLong(iterator.next());
+				iterator.remove();
+			}
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	private Stripe<K, V> getStripe(K key) {
+		int hash = key.hashCode();
+		hash ^= hash >>> 16;
+		return stripes[hash & (stripes.length - 1)];
+	}
+
+	static class Stripe<K, V> extends LinkedHashMap<K, V> {
+		private static final long serialVersionUID = 1L;
+
+		private final transient ReentrantLock lock;
+		private final long capacity;
+		private long weight;
+
+		private Stripe(long capacity) {
+			super(16, 0.75f, true);
+			this.lock = new ReentrantLock();
+			this.capacity = capacity;
+			this.weight = 0;
+		}
+
+		long getCapacity() {
+			return capacity;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package br.pro.hashi.sdx.rest.server.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+
+/**
+ * <p>
+ * Indicates that successful responses of a GET endpoint, or of all GET
+ * endpoints of a {@link RestResource}, should be cached by the server.
+ * </p>
+ * <p>
+ * Responses are identified by the endpoint, the path items, the URI extension,
+ * the type chosen from the Accept header and the values of the specified
+ * queries and headers. The status, the headers set by the endpoint and the
+ * body are cached and repeated in cached responses. Has no effect if the
+ * server was built without a response cache.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface Cached {
+	/**
+	 * How long, in milliseconds, a response remains cached. Default is
+	 * {@code 60000}.
+	 *
+	 * @return a long representing the duration
+	 */
+	long value() default 60000;
+
+	/**
+	 * The names of the queries that distinguish responses. Default is none.
+	 *
+	 * @return an array of strings representing the names
+	 */
+	String[] queries() default {};
+
+	/**
+	 * The names of the headers that distinguish responses. Default is none.
+	 *
+	 * @return an array of strings representing the names
+	 */
+	String[] headers() default {};
+}
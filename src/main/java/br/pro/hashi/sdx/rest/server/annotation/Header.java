@@ -0,0 +1,45 @@
+package br.pro.hashi.sdx.rest.server.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * Indicates that the parameter represents a request header.
+ * </p>
+ * <p>
+ * The value is converted via {@code valueOf(String)}. If multiple values
+ * correspond to the name, the first one is considered.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Header {
+	/**
+	 * The name of the header.
+	 *
+	 * @return a string representing the name
+	 */
+	String value();
+
+	/**
+	 * The value used if the header is missing. Default is empty, which means
+	 * there is no default.
+	 *
+	 * @return a string representing the default
+	 */
+	String defaultValue() default "";
+
+	/**
+	 * Whether the request must have the header if there is no default. If
+	 * {@code false}, a missing header is passed as {@code null}, so the parameter
+	 * cannot be primitive. Default is {@code true}.
+	 *
+	 * @return a boolean representing the requirement
+	 */
+	boolean required() default true;
+}
@@ -0,0 +1,33 @@
+package br.pro.hashi.sdx.rest.server.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+
+/**
+ * <p>
+ * Indicates that instances of a {@link RestResource} should be reused across
+ * requests.
+ * </p>
+ * <p>
+ * Each instance handles one request at a time and its response details are
+ * reset before it is reused. Other state can be reset by overriding
+ * {@link RestResource#reset()}. If all pooled instances are busy, a new instance
+ * is constructed and discarded after the request.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Pooled {
+	/**
+	 * The maximum number of idle instances kept. Default is {@code 16}.
+	 *
+	 * @return an integer representing the limit
+	 */
+	int value() default 16;
+}
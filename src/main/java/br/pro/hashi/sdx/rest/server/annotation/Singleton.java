@@ -0,0 +1,31 @@
+package br.pro.hashi.sdx.rest.server.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+
+/**
+ * <p>
+ * Indicates that a single instance of a {@link RestResource} should handle all
+ * requests, possibly at the same time.
+ * </p>
+ * <p>
+ * The resource should be stateless and access the request details only through
+ * the protected methods of {@link RestResource}, since the protected fields are
+ * not set for shared instances.
+ * </p>
+ * <p>
+ * These methods are available only on the thread handling the request. If the
+ * resource passes work to another thread, it must read the request details
+ * first and pass them along.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Singleton {
+}
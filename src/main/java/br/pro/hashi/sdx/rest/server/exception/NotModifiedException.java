@@ -0,0 +1,10 @@
+package br.pro.hashi.sdx.rest.server.exception;
+
+public class NotModifiedException extends RuntimeException {
+	private static final long serialVersionUID = 2194820593771408536L;
+
+	public NotModifiedException() {
+		// thrown only to interrupt an endpoint, so there is no need for a stack trace
+		super(null, null, false, false);
+	}
+}
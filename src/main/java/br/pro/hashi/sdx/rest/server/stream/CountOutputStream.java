@@ -13,6 +13,13 @@ public class CountOutputStream extends OutputStream {
 		return count;
 	}
 
+	public void add(long length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("Length must be non-negative");
+		}
+		count += length;
+	}
+
 	@Override
 	public void write(int b) {
 		write(new byte[] { (byte) b });
@@ -0,0 +1,106 @@
+package br.pro.hashi.sdx.rest.server.stream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import br.pro.hashi.sdx.rest.server.exception.BadRequestException;
+import br.pro.hashi.sdx.rest.server.exception.PayloadTooLargeException;
+
+public class InflateInputStream extends InputStream {
+	private final LimitInputStream stream;
+	private final boolean gzip;
+	private final long maxSize;
+	private InputStream inflated;
+	private long size;
+	private boolean done;
+
+	public InflateInputStream(InputStream stream, boolean gzip, long maxSize) {
+		this.stream = new LimitInputStream(stream, Long.MAX_VALUE);
+		this.gzip = gzip;
+		this.maxSize = maxSize;
+		this.inflated = null;
+		this.size = 0;
+		this.done = false;
+	}
+
+	public long getCompressedSize() {
+		return stream.getSize();
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		int length;
+		do {
+			length = read(b, 0, 1);
+		} while (length == 0);
+		if (length == -1) {
+			return -1;
+		}
+		return b[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int length;
+		try {
+			if (inflated == null) {
+				// the gzip header is read on construction
+				if (gzip) {
+					inflated = new GZIPInputStream(stream);
+				} else {
+					inflated = new InflaterInputStream(stream);
+				}
+			}
+			length = inflated.read(b, off, len);
+		} catch (ZipException | EOFException exception) {
+			throw new BadRequestException("Request body is not valid %s data".formatted(gzip ? "gzip" : "deflate"));
+		}
+		if (length == -1) {
+			finish(false);
+		} else {
+			size += length;
+			if (maxSize > 0 && size > maxSize) {
+				finish(true);
+				throw new PayloadTooLargeException("Decompressed request body exceeds %d bytes".formatted(maxSize));
+			}
+		}
+		return length;
+	}
+
+	private void finish(boolean exceeded) {
+		if (!done) {
+			done = true;
+			report(stream.getSize(), size, exceeded);
+		}
+	}
+
+	protected void report(long compressedSize, long size, boolean exceeded) {
+	}
+
+	@Override
+	public int available() throws IOException {
+		if (inflated == null) {
+			return 0;
+		}
+		return inflated.available();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (inflated == null) {
+			stream.close();
+		} else {
+			finish(false);
+			inflated.close();
+		}
+	}
+}
@@ -32,16 +32,12 @@ public class LimitInputStream extends InputStream {
 
 	@Override
 	public int read(byte[] b) throws IOException {
-		int length = stream.read(b);
-		if (length != -1) {
-			add(length);
-		}
-		return length;
+		return read(b, 0, b.length);
 	}
 
 	@Override
 	public int read(byte[] b, int off, int len) throws IOException {
-		int length = stream.read(b, off, len);
+		int length = stream.read(b, off, (int) cap(len));
 		if (length != -1) {
 			add(length);
 		}
@@ -50,36 +46,64 @@ public class LimitInputStream extends InputStream {
 
 	@Override
 	public byte[] readAllBytes() throws IOException {
-		byte[] b = stream.readAllBytes();
+		byte[] b;
+		if (maxSize - size < Integer.MAX_VALUE) {
+			b = stream.readNBytes((int) cap(Integer.MAX_VALUE));
+		} else {
+			b = stream.readAllBytes();
+		}
 		add(b.length);
 		return b;
 	}
 
 	@Override
 	public byte[] readNBytes(int len) throws IOException {
-		byte[] b = stream.readNBytes(len);
+		byte[] b = stream.readNBytes((int) cap(len));
 		add(b.length);
 		return b;
 	}
 
 	@Override
 	public int readNBytes(byte[] b, int off, int len) throws IOException {
-		int length = stream.readNBytes(b, off, len);
+		int length = stream.readNBytes(b, off, (int) cap(len));
 		add(length);
 		return length;
 	}
 
 	@Override
 	public long skip(long n) throws IOException {
-		long length = stream.skip(n);
+		long length = stream.skip(cap(n));
 		add(length);
 		return length;
 	}
 
 	@Override
 	public void skipNBytes(long n) throws IOException {
-		stream.skipNBytes(n);
-		add(n);
+		long length = cap(n);
+		stream.skipNBytes(length);
+		add(length);
+	}
+
+	@Override
+	public long transferTo(OutputStream out) throws IOException {
+		long total = 0;
+		byte[] buffer = new byte[8192];
+		int length;
+		while ((length = read(buffer, 0, buffer.length)) != -1) {
+			out.write(buffer, 0, length);
+			total += length;
+		}
+		return total;
+	}
+
+	// never asks for more than one byte past the limit, so exceeding it fails
+	// before the rest of the stream is read
+	private long cap(long length) {
+		long remaining = maxSize - size;
+		if (length > remaining) {
+			length = remaining + 1;
+		}
+		return length;
 	}
 
 	private void add(long length) {
@@ -113,9 +137,4 @@ public class LimitInputStream extends InputStream {
 	public boolean markSupported() {
 		return stream.markSupported();
 	}
-
-	@Override
-	public long transferTo(OutputStream out) throws IOException {
-		return stream.transferTo(out);
-	}
 }
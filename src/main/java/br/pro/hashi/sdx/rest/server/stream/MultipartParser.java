@@ -0,0 +1,414 @@
+package br.pro.hashi.sdx.rest.server.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jetty.http.HttpFields;
+
+import br.pro.hashi.sdx.rest.server.exception.BadRequestException;
+import br.pro.hashi.sdx.rest.server.exception.PayloadTooLargeException;
+
+public class MultipartParser {
+	private static final int BUFFER_SIZE = 8192;
+	private static final int MAX_HEADERS_SIZE = 8192;
+	private static final String MESSAGE = "Parts could not be parsed";
+
+	public static String getBoundary(String contentType) {
+		for (String parameter : contentType.split(";")) {
+			int index = parameter.indexOf('=');
+			if (index != -1 && parameter.substring(0, index).strip().equalsIgnoreCase("boundary")) {
+				String boundary = parameter.substring(index + 1).strip();
+				if (boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+					boundary = boundary.substring(1, boundary.length() - 1);
+				}
+				if (boundary.isEmpty()) {
+					return null;
+				}
+				return boundary;
+			}
+		}
+		return null;
+	}
+
+	static String getName(String disposition) {
+		int length = disposition.length();
+		int index = 0;
+		while (index < length) {
+			int start = index;
+			boolean quoted = false;
+			while (index < length) {
+				char c = disposition.charAt(index);
+				if (c == '"') {
+					quoted = !quoted;
+				} else if (c == '\\' && quoted) {
+					index++;
+				} else if (c == ';' && !quoted) {
+					break;
+				}
+				index++;
+			}
+			String parameter = disposition.substring(start, Math.min(index, length));
+			index++;
+			int equals = parameter.indexOf('=');
+			if (equals != -1 && parameter.substring(0, equals).strip().equalsIgnoreCase("name")) {
+				String value = parameter.substring(equals + 1).strip();
+				if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+					StringBuilder builder = new StringBuilder();
+					for (int i = 1; i < value.length() - 1; i++) {
+						char c = value.charAt(i);
+						if (c == '\\' && i < value.length() - 2) {
+							i++;
+							c = value.charAt(i);
+						}
+						builder.append(c);
+					}
+					value = builder.toString();
+				}
+				return value;
+			}
+		}
+		return null;
+	}
+
+	private final InputStream stream;
+	private final byte[] delimiter;
+	private final long maxPartSize;
+	private final long maxSize;
+	private final String location;
+	private final int fileSizeThreshold;
+	private final List<InputStream> files;
+	private final byte[] buffer;
+	private int pos;
+	private int lim;
+	private long size;
+	private boolean eof;
+	private boolean done;
+	private PartInputStream part;
+	private HttpFields headers;
+	private String name;
+	private String contentType;
+
+	public MultipartParser(InputStream stream, String boundary, long maxPartSize, long maxSize, String location, int fileSizeThreshold) {
+		byte[] bytes = boundary.getBytes(StandardCharsets.US_ASCII);
+		this.stream = stream;
+		this.delimiter = new byte[bytes.length + 4];
+		this.delimiter[0] = '\r';
+		this.delimiter[1] = '\n';
+		this.delimiter[2] = '-';
+		this.delimiter[3] = '-';
+		System.arraycopy(bytes, 0, this.delimiter, 4, bytes.length);
+		this.maxPartSize = maxPartSize;
+		this.maxSize = maxSize;
+		this.location = location;
+		this.fileSizeThreshold = fileSizeThreshold;
+		this.files = new ArrayList<>();
+		this.buffer = new byte[Math.max(BUFFER_SIZE, 2 * this.delimiter.length)];
+		// the first boundary is not preceded by a line break, so one is simulated
+		this.buffer[0] = '\r';
+		this.buffer[1] = '\n';
+		this.pos = 0;
+		this.lim = 2;
+		this.size = 0;
+		this.eof = false;
+		this.done = false;
+		this.part = null;
+		this.headers = null;
+		this.name = null;
+		this.contentType = null;
+	}
+
+	public HttpFields getHeaders() {
+		return headers;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public InputStream getStream() {
+		part.used = true;
+		return part;
+	}
+
+	public boolean next() throws IOException {
+		if (done) {
+			return false;
+		}
+		if (part == null) {
+			// the preamble is discarded
+			new PartInputStream().finish();
+		} else {
+			part.finish();
+			part = null;
+		}
+		headers = null;
+		name = null;
+		contentType = null;
+		while (lim - pos < 2 && !eof) {
+			fill();
+		}
+		if (lim - pos >= 2 && buffer[pos] == '-' && buffer[pos + 1] == '-') {
+			// the epilogue is ignored
+			done = true;
+			return false;
+		}
+		String padding = readLine();
+		for (int i = 0; i < padding.length(); i++) {
+			char c = padding.charAt(i);
+			if (c != ' ' && c != '\t') {
+				throw new BadRequestException(MESSAGE);
+			}
+		}
+		HttpFields.Mutable fields = HttpFields.build();
+		int headersSize = 0;
+		String line;
+		while (!(line = readLine()).isEmpty()) {
+			headersSize += line.length();
+			if (headersSize > MAX_HEADERS_SIZE) {
+				throw new BadRequestException(MESSAGE);
+			}
+			int index = line.indexOf(':');
+			if (index < 1) {
+				throw new BadRequestException(MESSAGE);
+			}
+			fields.add(line.substring(0, index).strip(), line.substring(index + 1).strip());
+		}
+		headers = fields.asImmutable();
+		String disposition = headers.get("Content-Disposition");
+		if (disposition != null) {
+			name = getName(disposition);
+		}
+		contentType = headers.get("Content-Type");
+		part = new PartInputStream();
+		return true;
+	}
+
+	// deletes the files of parts that were moved past but not fully read
+	public void close() throws IOException {
+		for (InputStream file : files) {
+			file.close();
+		}
+		files.clear();
+	}
+
+	private String readLine() throws IOException {
+		int index = pos;
+		while (true) {
+			while (index + 1 < lim) {
+				if (buffer[index] == '\r' && buffer[index + 1] == '\n') {
+					String line = new String(buffer, pos, index - pos, StandardCharsets.UTF_8);
+					pos = index + 2;
+					return line;
+				}
+				index++;
+			}
+			if (eof || (pos == 0 && lim == buffer.length)) {
+				throw new BadRequestException(MESSAGE);
+			}
+			int offset = index - pos;
+			fill();
+			index = pos + offset;
+		}
+	}
+
+	private int readBody(byte[] b, int off, int len) throws IOException {
+		int length = delimiter.length;
+		while (true) {
+			int index = indexOfDelimiter();
+			if (index == pos) {
+				pos += length;
+				return -1;
+			}
+			int end;
+			if (index == -1) {
+				if (eof) {
+					throw new BadRequestException(MESSAGE);
+				}
+				// the tail might be the beginning of a delimiter
+				end = lim - (length - 1);
+			} else {
+				end = index;
+			}
+			if (end > pos) {
+				int n = Math.min(len, end - pos);
+				System.arraycopy(buffer, pos, b, off, n);
+				pos += n;
+				return n;
+			}
+			fill();
+		}
+	}
+
+	private int indexOfDelimiter() {
+		int length = delimiter.length;
+		int end = lim - length;
+		for (int i = pos; i <= end; i++) {
+			if (buffer[i] == '\r') {
+				int j = 1;
+				while (j < length && buffer[i + j] == delimiter[j]) {
+					j++;
+				}
+				if (j == length) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private void fill() throws IOException {
+		if (pos > 0) {
+			System.arraycopy(buffer, pos, buffer, 0, lim - pos);
+			lim -= pos;
+			pos = 0;
+		}
+		int length = stream.read(buffer, lim, buffer.length - lim);
+		if (length == -1) {
+			eof = true;
+		} else {
+			size += length;
+			if (maxSize > 0 && size > maxSize) {
+				throw new PayloadTooLargeException("Multipart request exceeds %d bytes".formatted(maxSize));
+			}
+			lim += length;
+		}
+	}
+
+	private Path createFile() throws IOException {
+		if (location.isEmpty()) {
+			return Files.createTempFile("MultiPart", "");
+		}
+		return Files.createTempFile(Path.of(location), "MultiPart", "");
+	}
+
+	private class PartInputStream extends InputStream {
+		private boolean used;
+		private boolean ended;
+		private long size;
+		private InputStream rest;
+
+		private PartInputStream() {
+			this.used = false;
+			this.ended = false;
+			this.size = 0;
+			this.rest = null;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			int length;
+			do {
+				length = read(b, 0, 1);
+			} while (length == 0);
+			if (length == -1) {
+				return -1;
+			}
+			return b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (rest != null) {
+				int length = rest.read(b, off, len);
+				if (length == -1) {
+					close();
+				}
+				return length;
+			}
+			if (ended) {
+				return -1;
+			}
+			if (len == 0) {
+				return 0;
+			}
+			int length = readBody(b, off, len);
+			if (length == -1) {
+				ended = true;
+			} else {
+				size += length;
+				if (maxPartSize > 0 && size > maxPartSize) {
+					throw new PayloadTooLargeException("One of the parts exceeds %d bytes".formatted(maxPartSize));
+				}
+			}
+			return length;
+		}
+
+		@Override
+		public int available() throws IOException {
+			if (rest == null) {
+				return 0;
+			}
+			return rest.available();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (rest != null) {
+				// also deletes the file, if there is one
+				rest.close();
+				rest = InputStream.nullInputStream();
+			}
+		}
+
+		// moves the parser past this part, keeping what was not read if the
+		// stream was already handed out, in memory up to the threshold and in a
+		// file above it
+		private void finish() throws IOException {
+			if (ended || rest != null) {
+				return;
+			}
+			byte[] b = new byte[BUFFER_SIZE];
+			if (used) {
+				ByteArrayOutputStream memory = new ByteArrayOutputStream();
+				OutputStream output = memory;
+				Path path = null;
+				try {
+					long total = 0;
+					int length;
+					while ((length = read(b, 0, b.length)) != -1) {
+						total += length;
+						if (path == null && total > fileSizeThreshold) {
+							path = createFile();
+							output = Files.newOutputStream(path);
+							memory.writeTo(output);
+						}
+						output.write(b, 0, length);
+					}
+				} catch (IOException | RuntimeException exception) {
+					if (path != null) {
+						output.close();
+						Files.delete(path);
+					}
+					throw exception;
+				}
+				if (path == null) {
+					rest = new ByteArrayInputStream(memory.toByteArray());
+				} else {
+					output.close();
+					rest = Files.newInputStream(path, StandardOpenOption.DELETE_ON_CLOSE);
+					files.add(rest);
+				}
+			} else {
+				int length;
+				do {
+					length = readBody(b, 0, b.length);
+				} while (length != -1);
+				ended = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package br.pro.hashi.sdx.rest.server.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+public class TagOutputStream extends OutputStream {
+	private static final int TAG_LENGTH = 16;
+
+	private final OutputStream stream;
+	private final int capacity;
+	private byte[] buffer;
+	private int size;
+	private boolean overflowed;
+
+	public TagOutputStream(OutputStream stream, int capacity) {
+		this.stream = stream;
+		this.capacity = capacity;
+		this.buffer = new byte[Math.min(capacity, 512)];
+		this.size = 0;
+		this.overflowed = false;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public boolean isOverflowed() {
+		return overflowed;
+	}
+
+	public String getTag() {
+		if (overflowed) {
+			throw new IllegalStateException("Stream has overflowed");
+		}
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException exception) {
+			throw new AssertionError(exception);
+		}
+		digest.update(buffer, 0, size);
+		byte[] hash = Arrays.copyOf(digest.digest(), TAG_LENGTH);
+		return "\"%s\"".formatted(Base64.getUrlEncoder().withoutPadding().encodeToString(hash));
+	}
+
+	public void release(boolean withBody) throws IOException {
+		if (overflowed) {
+			throw new IllegalStateException("Stream has overflowed");
+		}
+		if (withBody) {
+			stream.write(buffer, 0, size);
+		}
+		buffer = null;
+		stream.close();
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b });
+	}
+
+	@Override
+	public void write(byte[] b) throws IOException {
+		write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (b == null) {
+			throw new NullPointerException();
+		}
+		if (off < 0) {
+			throw new IndexOutOfBoundsException(off);
+		}
+		if (len < 0) {
+			throw new IndexOutOfBoundsException(len);
+		}
+		int index = off + len;
+		if (index > b.length) {
+			throw new IndexOutOfBoundsException(index - 1);
+		}
+		if (overflowed) {
+			stream.write(b, off, len);
+			return;
+		}
+		int newSize = size + len;
+		if (newSize > capacity) {
+			// the body is too large to be held, so it is streamed without a tag
+			overflowed = true;
+			stream.write(buffer, 0, size);
+			stream.write(b, off, len);
+			buffer = null;
+			return;
+		}
+		if (newSize > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.min(Math.max(newSize, 2 * buffer.length), capacity));
+		}
+		System.arraycopy(b, off, buffer, size, len);
+		size = newSize;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (overflowed) {
+			stream.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (overflowed) {
+			stream.close();
+		}
+	}
+}
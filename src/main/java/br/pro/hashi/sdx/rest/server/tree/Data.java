@@ -5,6 +5,7 @@ import java.io.Reader;
 import java.lang.reflect.Type;
 
 import br.pro.hashi.sdx.rest.coding.MediaCoder;
+import br.pro.hashi.sdx.rest.server.Inflation;
 import br.pro.hashi.sdx.rest.server.stream.LimitInputStream;
 import br.pro.hashi.sdx.rest.transform.Deserializer;
 import br.pro.hashi.sdx.rest.transform.Disassembler;
@@ -14,11 +15,19 @@ public class Data {
 	private final TransformManager manager;
 	private final String contentType;
 	private final InputStream stream;
+	private final Inflation inflation;
+	private final String encoding;
 
 	public Data(TransformManager manager, String contentType, InputStream stream) {
+		this(manager, contentType, stream, null, null);
+	}
+
+	public Data(TransformManager manager, String contentType, InputStream stream, Inflation inflation, String encoding) {
 		this.manager = manager;
 		this.contentType = contentType;
 		this.stream = stream;
+		this.inflation = inflation;
+		this.encoding = encoding;
 	}
 
 	public String getContentType() {
@@ -29,10 +38,18 @@ public class Data {
 		return stream;
 	}
 
+	public Inflation getInflation() {
+		return inflation;
+	}
+
+	public String getEncoding() {
+		return encoding;
+	}
+
 	Object getBody(Type type, long maxSize) {
 		Object body;
 		String contentType = this.contentType;
-		InputStream stream = MediaCoder.getInstance().decode(limit(this.stream, maxSize), contentType);
+		InputStream stream = MediaCoder.getInstance().decode(inflate(limit(this.stream, maxSize), maxSize), contentType);
 		if (manager.isBinary(type)) {
 			contentType = manager.getDisassemblerType(strip(contentType), type);
 			Disassembler disassembler = manager.getDisassembler(contentType);
@@ -53,6 +70,13 @@ public class Data {
 		return stream;
 	}
 
+	private InputStream inflate(InputStream stream, long maxSize) {
+		if (encoding != null) {
+			stream = inflation.inflate(stream, encoding, maxSize);
+		}
+		return stream;
+	}
+
 	private String strip(String contentType) {
 		if (contentType != null) {
 			contentType = MediaCoder.getInstance().strip(contentType);
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
@@ -12,10 +13,16 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -23,32 +30,53 @@ import org.eclipse.jetty.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import br.pro.hashi.sdx.rest.Fields;
+import br.pro.hashi.sdx.rest.reflection.Headers;
 import br.pro.hashi.sdx.rest.reflection.ParserFactory;
 import br.pro.hashi.sdx.rest.reflection.Reflector;
 import br.pro.hashi.sdx.rest.reflection.exception.ReflectionException;
 import br.pro.hashi.sdx.rest.server.RestException;
 import br.pro.hashi.sdx.rest.server.RestResource;
 import br.pro.hashi.sdx.rest.server.annotation.Body;
+import br.pro.hashi.sdx.rest.server.annotation.Cached;
+import br.pro.hashi.sdx.rest.server.annotation.Header;
 import br.pro.hashi.sdx.rest.server.annotation.Part;
+import br.pro.hashi.sdx.rest.server.annotation.Query;
 import br.pro.hashi.sdx.rest.server.exception.BadRequestException;
+import br.pro.hashi.sdx.rest.server.exception.PayloadTooLargeException;
+import br.pro.hashi.sdx.rest.server.stream.MultipartParser;
 import br.pro.hashi.sdx.rest.transform.exception.DeserializingException;
 import br.pro.hashi.sdx.rest.transform.exception.DisassemblingException;
 import br.pro.hashi.sdx.rest.transform.exception.TypeException;
+import br.pro.hashi.sdx.rest.transform.manager.TransformManager;
 
 public class Endpoint {
 	private static final Pattern METHOD_PATTERN = Pattern.compile("[A-Za-z]+");
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+	static MethodHandle toInvoker(MethodHandle handle) {
+		int length = handle.type().parameterCount();
+		return handle.asSpreader(Object[].class, length).asType(INVOKER_TYPE);
+	}
 
 	private final Reflector reflector;
 	private final Logger logger;
 	private final Class<? extends RestResource> resourceType;
-	private final MethodHandle handle;
+	private final MethodHandle invoker;
 	private final Type returnType;
+	private final boolean async;
 	private final Class<?> varType;
+	private final ArrayParser varParser;
 	private final ItemParameter[] itemParameters;
+	private final FieldParameter[] queryParameters;
+	private final FieldParameter[] headerParameters;
 	private final Map<String, DataParameter[]> partParameters;
 	private final DataParameter bodyParameter;
-	private final Object[] arguments;
+	private final ThreadLocal<Object[]> frames;
 	private final int reach;
+	private final long cacheTtl;
+	private final String[] cacheQueries;
+	private final String[] cacheHeaders;
 
 	Endpoint(ParserFactory factory, long maxBodySize, int distance, Class<? extends RestResource> resourceType, String typeName, Method method, String methodName) {
 		Matcher matcher = METHOD_PATTERN.matcher(methodName);
@@ -57,9 +85,22 @@ public class Endpoint {
 			throw new ReflectionException("Method name %s can only have US-ASCII letters".formatted(methodName));
 		}
 
+		Cached cachedAnnotation = method.getDeclaredAnnotation(Cached.class);
+		if (cachedAnnotation == null) {
+			if (method.getName().equalsIgnoreCase("GET")) {
+				cachedAnnotation = resourceType.getDeclaredAnnotation(Cached.class);
+			}
+		} else {
+			if (!method.getName().equalsIgnoreCase("GET")) {
+				throw new ReflectionException("Method %s cannot be cached because it is not GET".formatted(methodName));
+			}
+		}
+
 		Type[] types = method.getGenericParameterTypes();
 		Class<?> varType = null;
 		List<ItemParameter> itemList = new ArrayList<>();
+		List<FieldParameter> queryList = new ArrayList<>();
+		List<FieldParameter> headerList = new ArrayList<>();
 		Map<String, List<DataParameter>> partMap = new HashMap<>();
 		DataParameter bodyParameter = null;
 		int start = method.isVarArgs() ? types.length - 1 : -1;
@@ -69,7 +110,28 @@ public class Endpoint {
 			Type type = types[index];
 			Part partAnnotation = parameter.getDeclaredAnnotation(Part.class);
 			Body bodyAnnotation = parameter.getDeclaredAnnotation(Body.class);
-			if (partAnnotation == null) {
+			Query queryAnnotation = parameter.getDeclaredAnnotation(Query.class);
+			Header headerAnnotation = parameter.getDeclaredAnnotation(Header.class);
+			if (queryAnnotation != null || headerAnnotation != null) {
+				if (partAnnotation != null || bodyAnnotation != null || (queryAnnotation != null && headerAnnotation != null)) {
+					throw new ReflectionException("Parameter %d of method %s cannot have more than one of part, body, query, and header".formatted(index, methodName));
+				}
+				String kind = queryAnnotation == null ? "header" : "query";
+				if (index == start) {
+					throw new ReflectionException("Method %s cannot have a varargs %s".formatted(methodName, kind));
+				}
+				if (type instanceof ParameterizedType) {
+					throw new ReflectionException("Parameter %d of method %s cannot be generic if %s".formatted(index, methodName, kind));
+				}
+				FieldParameter fieldParameter;
+				if (queryAnnotation == null) {
+					fieldParameter = newFieldParameter(factory, index, type, kind, headerAnnotation.value().strip(), headerAnnotation.defaultValue(), headerAnnotation.required(), methodName);
+					headerList.add(fieldParameter);
+				} else {
+					fieldParameter = newFieldParameter(factory, index, type, kind, queryAnnotation.value(), queryAnnotation.defaultValue(), queryAnnotation.required(), methodName);
+					queryList.add(fieldParameter);
+				}
+			} else if (partAnnotation == null) {
 				if (bodyAnnotation == null) {
 					if (type instanceof ParameterizedType) {
 						throw new ReflectionException("Parameter %d of method %s cannot be generic if neither part or body".formatted(index, methodName));
@@ -123,23 +185,184 @@ public class Endpoint {
 			throw new ReflectionException("Method %s must have at least %d parameters that are neither part or body".formatted(methodName, distance));
 		}
 
+		boolean async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+		if (cachedAnnotation == null) {
+			this.cacheTtl = 0;
+			this.cacheQueries = null;
+			this.cacheHeaders = null;
+		} else {
+			if (async) {
+				throw new ReflectionException("Method %s cannot be both cached and asynchronous".formatted(methodName));
+			}
+			if (bodyParameter != null || !partMap.isEmpty()) {
+				throw new ReflectionException("Method %s cannot be cached if it has a body or parts".formatted(methodName));
+			}
+			long ttl = cachedAnnotation.value();
+			if (ttl < 1) {
+				throw new ReflectionException("Method %s must be cached for a positive duration".formatted(methodName));
+			}
+			this.cacheTtl = ttl;
+			// the bound queries and headers also distinguish responses
+			this.cacheQueries = merge(cachedAnnotation.queries(), queryList);
+			this.cacheHeaders = merge(cachedAnnotation.headers(), headerList);
+		}
+
 		this.reflector = Reflector.getInstance();
 		this.logger = LoggerFactory.getLogger(Endpoint.class);
 		this.resourceType = resourceType;
-		this.handle = reflector.unreflect(method).asFixedArity();
-		this.returnType = method.getGenericReturnType();
+		// each endpoint has its own handle, so it is not a constant the JIT can fold
+		this.invoker = toInvoker(reflector.unreflect(method).asFixedArity());
+		this.async = async;
+		if (async) {
+			this.returnType = getStageType(method.getGenericReturnType());
+		} else {
+			this.returnType = method.getGenericReturnType();
+		}
 		this.varType = varType;
 		this.itemParameters = itemList.toArray(new ItemParameter[itemList.size()]);
+		this.queryParameters = queryList.toArray(new FieldParameter[queryList.size()]);
+		this.headerParameters = headerList.toArray(new FieldParameter[headerList.size()]);
+		if (varType == null) {
+			this.varParser = null;
+		} else {
+			Function<String, ?> function = this.itemParameters[this.itemParameters.length - 1].function();
+			this.varParser = newArrayParser(factory, varType, function);
+		}
 		this.partParameters = new HashMap<>();
 		for (String name : partMap.keySet()) {
 			List<DataParameter> partList = partMap.get(name);
 			this.partParameters.put(name, partList.toArray(new DataParameter[partList.size()]));
 		}
 		this.bodyParameter = bodyParameter;
-		this.arguments = new Object[types.length + 1];
+		int length = types.length + 1;
+		this.frames = ThreadLocal.withInitial(() -> new Object[length]);
 		this.reach = itemParameters.length - varSize - distance;
 	}
 
+	private FieldParameter newFieldParameter(ParserFactory factory, int index, Type type, String kind, String name, String defaultString, boolean required, String methodName) {
+		if (name.isEmpty()) {
+			throw new ReflectionException("Parameter %d of method %s must have a %s name".formatted(index, methodName, kind));
+		}
+		Class<?> rawType = (Class<?>) type;
+		Function<String, ?> function = factory.get(rawType);
+		Object defaultValue;
+		if (defaultString.isEmpty()) {
+			defaultValue = null;
+			if (!required && rawType.isPrimitive()) {
+				throw new ReflectionException("Parameter %d of method %s must be required or have a default because it is primitive".formatted(index, methodName));
+			}
+		} else {
+			try {
+				defaultValue = function.apply(defaultString);
+			} catch (RuntimeException exception) {
+				throw new ReflectionException("Default of parameter %d of method %s is not valid".formatted(index, methodName));
+			}
+			required = false;
+		}
+		return new FieldParameter(index + 1, name, function, defaultValue, required);
+	}
+
+	private String[] merge(String[] names, List<FieldParameter> fieldList) {
+		Set<String> nameSet = new LinkedHashSet<>(List.of(names));
+		for (FieldParameter parameter : fieldList) {
+			nameSet.add(parameter.name());
+		}
+		return nameSet.toArray(new String[nameSet.size()]);
+	}
+
+	// int, long, and double varargs are filled by primitive parsers, so
+	// their items are never boxed
+	private ArrayParser newArrayParser(ParserFactory factory, Class<?> type, Function<String, ?> function) {
+		if (type.equals(int.class)) {
+			ToIntFunction<String> parser = factory.getIntParser();
+			return (items) -> parseInts(parser, items);
+		}
+		if (type.equals(long.class)) {
+			ToLongFunction<String> parser = factory.getLongParser();
+			return (items) -> parseLongs(parser, items);
+		}
+		if (type.equals(double.class)) {
+			ToDoubleFunction<String> parser = factory.getDoubleParser();
+			return (items) -> parseDoubles(parser, items);
+		}
+		if (type.isPrimitive()) {
+			return (items) -> {
+				Object array = Array.newInstance(type, items.size());
+				int index = 0;
+				for (String item : items) {
+					Array.set(array, index, apply(function, item));
+					index++;
+				}
+				return array;
+			};
+		}
+		return (items) -> {
+			Object[] array = (Object[]) Array.newInstance(type, items.size());
+			int index = 0;
+			for (String item : items) {
+				array[index] = apply(function, item);
+				index++;
+			}
+			return array;
+		};
+	}
+
+	private int[] parseInts(ToIntFunction<String> parser, List<String> items) {
+		int[] array = new int[items.size()];
+		int index = 0;
+		for (String item : items) {
+			try {
+				array[index] = parser.applyAsInt(item);
+			} catch (RuntimeException error) {
+				throw invalid(item, error);
+			}
+			index++;
+		}
+		return array;
+	}
+
+	private long[] parseLongs(ToLongFunction<String> parser, List<String> items) {
+		long[] array = new long[items.size()];
+		int index = 0;
+		for (String item : items) {
+			try {
+				array[index] = parser.applyAsLong(item);
+			} catch (RuntimeException error) {
+				throw invalid(item, error);
+			}
+			index++;
+		}
+		return array;
+	}
+
+	private double[] parseDoubles(ToDoubleFunction<String> parser, List<String> items) {
+		double[] array = new double[items.size()];
+		int index = 0;
+		for (String item : items) {
+			try {
+				array[index] = parser.applyAsDouble(item);
+			} catch (RuntimeException error) {
+				throw invalid(item, error);
+			}
+			index++;
+		}
+		return array;
+	}
+
+	private Type getStageType(Type type) {
+		if (type instanceof ParameterizedType) {
+			ParameterizedType genericType = (ParameterizedType) type;
+			Type rawType = genericType.getRawType();
+			if (rawType.equals(CompletionStage.class) || rawType.equals(CompletableFuture.class)) {
+				Type argument = genericType.getActualTypeArguments()[0];
+				if (argument instanceof Class || argument instanceof ParameterizedType) {
+					return argument;
+				}
+			}
+		}
+		return Object.class;
+	}
+
 	Class<?> getVarType() {
 		return varType;
 	}
@@ -148,6 +371,14 @@ public class Endpoint {
 		return itemParameters;
 	}
 
+	FieldParameter[] getQueryParameters() {
+		return queryParameters;
+	}
+
+	FieldParameter[] getHeaderParameters() {
+		return headerParameters;
+	}
+
 	Map<String, DataParameter[]> getPartParameters() {
 		return partParameters;
 	}
@@ -157,7 +388,7 @@ public class Endpoint {
 	}
 
 	Object[] getArguments() {
-		return arguments;
+		return frames.get();
 	}
 
 	int getReach() {
@@ -172,21 +403,68 @@ public class Endpoint {
 		return returnType;
 	}
 
+	public boolean isAsync() {
+		return async;
+	}
+
+	public boolean isCached() {
+		return cacheTtl > 0;
+	}
+
+	public long getCacheTtl() {
+		return cacheTtl;
+	}
+
+	public String[] getCacheQueries() {
+		return cacheQueries;
+	}
+
+	public String[] getCacheHeaders() {
+		return cacheHeaders;
+	}
+
+	public boolean hasBody() {
+		return bodyParameter != null;
+	}
+
+	public void checkContentLength(long contentLength) {
+		if (bodyParameter != null) {
+			long maxSize = bodyParameter.maxSize();
+			if (maxSize > 0 && contentLength > maxSize) {
+				throw new PayloadTooLargeException("Request body exceeds %d bytes".formatted(maxSize));
+			}
+		}
+	}
+
 	public Object call(RestResource resource, List<String> items, Map<String, List<Data>> partMap, Data body) throws Exception {
+		return call(resource, items, null, null, partMap, body);
+	}
+
+	public Object call(RestResource resource, List<String> items, Fields queries, Fields headers, Map<String, List<Data>> partMap, Data body) throws Exception {
+		return call(resource, items, queries, headers, partMap, body, null, null, null);
+	}
+
+	public Object call(RestResource resource, List<String> items, TransformManager manager, MultipartParser parser, Map<String, List<Fields>> headersMap) throws Exception {
+		return call(resource, items, null, null, manager, parser, headersMap);
+	}
+
+	public Object call(RestResource resource, List<String> items, Fields queries, Fields headers, TransformManager manager, MultipartParser parser, Map<String, List<Fields>> headersMap) throws Exception {
+		return call(resource, items, queries, headers, Map.of(), null, manager, parser, headersMap);
+	}
+
+	private Object call(RestResource resource, List<String> items, Fields queries, Fields headers, Map<String, List<Data>> partMap, Data body, TransformManager manager, MultipartParser parser, Map<String, List<Fields>> headersMap) throws Exception {
+		Object[] arguments = frames.get();
+		if (arguments[0] != null) {
+			// reentrant call in the same thread: the recycled frame is busy
+			arguments = new Object[arguments.length];
+		}
+		arguments[0] = resource;
 		Object result;
 		try {
 			if (varType != null) {
 				int start = itemParameters.length - 1;
-				int end = items.size();
 				ItemParameter parameter = itemParameters[start];
-				Function<String, ?> function = parameter.function();
-				Object varArgs = Array.newInstance(varType, end - start);
-				int index = 0;
-				for (String item : items.subList(start, end)) {
-					Array.set(varArgs, index, apply(function, item));
-					index++;
-				}
-				arguments[parameter.index()] = varArgs;
+				arguments[parameter.index()] = varParser.parse(items.subList(start, items.size()));
 				items = items.subList(0, start);
 			}
 			int index = 0;
@@ -196,9 +474,11 @@ public class Endpoint {
 				arguments[parameter.index()] = apply(function, item);
 				index++;
 			}
+			bind(arguments, queryParameters, queries, "query");
+			bind(arguments, headerParameters, headers, "header");
 			Set<String> names = partParameters.keySet();
 			if (names.isEmpty()) {
-				if (!partMap.isEmpty()) {
+				if (!partMap.isEmpty() || (parser != null && next(parser))) {
 					throw new BadRequestException("Endpoint does not expect a multipart body");
 				}
 				if (bodyParameter == null) {
@@ -228,6 +508,8 @@ public class Endpoint {
 					String description = "Body";
 					arguments[bodyParameter.index()] = getBody(body, type, maxSize, description);
 				}
+			} else if (parser != null) {
+				bind(arguments, manager, parser, headersMap);
 			} else {
 				if (partMap.isEmpty()) {
 					throw new BadRequestException("Endpoint expects a multipart body");
@@ -256,26 +538,114 @@ public class Endpoint {
 					}
 				}
 			}
-			arguments[0] = resource;
-			result = invoke(handle, arguments);
+			result = invoke(invoker, arguments);
 		} finally {
 			Arrays.fill(arguments, null);
 		}
 		return result;
 	}
 
+	private void bind(Object[] arguments, FieldParameter[] fieldParameters, Fields fields, String kind) {
+		for (FieldParameter parameter : fieldParameters) {
+			String name = parameter.name();
+			String valueString = fields == null ? null : fields.get(name);
+			Object argument;
+			if (valueString == null) {
+				if (parameter.required()) {
+					throw new BadRequestException("Endpoint expects %s '%s'".formatted(kind, name));
+				}
+				argument = parameter.defaultValue();
+			} else {
+				try {
+					argument = parameter.function().apply(valueString);
+				} catch (RuntimeException error) {
+					String message = "Value of %s '%s' is not valid".formatted(kind, name);
+					logger.error(message, error);
+					throw new BadRequestException(message);
+				}
+			}
+			arguments[parameter.index()] = argument;
+		}
+	}
+
+	// parts are bound in the order they arrive, so the last one can be read
+	// straight from the request while the parser keeps the previous ones
+	private void bind(Object[] arguments, TransformManager manager, MultipartParser parser, Map<String, List<Fields>> headersMap) {
+		Map<String, Integer> counts = new HashMap<>();
+		int remaining = 0;
+		for (DataParameter[] partArray : partParameters.values()) {
+			remaining += partArray.length;
+		}
+		while (remaining > 0 && next(parser)) {
+			String name = parser.getName();
+			if (name == null) {
+				name = "";
+			}
+			List<Fields> headersList = headersMap.get(name);
+			if (headersList == null) {
+				headersList = new ArrayList<>();
+				headersMap.put(name, headersList);
+			}
+			headersList.add(Headers.newInstance(parser.getHeaders()));
+			DataParameter[] partArray = partParameters.get(name);
+			if (partArray == null) {
+				continue;
+			}
+			int index = counts.getOrDefault(name, 0);
+			int length = partArray.length;
+			if (index == length) {
+				throw new BadRequestException("Endpoint expects only %d body parts with name '%s'".formatted(length, name));
+			}
+			counts.put(name, index + 1);
+			remaining--;
+			DataParameter parameter = partArray[index];
+			Data part = new Data(manager, parser.getContentType(), parser.getStream());
+			Type type = parameter.type();
+			long maxSize = parameter.maxSize();
+			String description = "Part %d with name '%s'".formatted(index, name);
+			arguments[parameter.index()] = getBody(part, type, maxSize, description);
+		}
+		if (remaining > 0) {
+			if (headersMap.isEmpty()) {
+				throw new BadRequestException("Endpoint expects a multipart body");
+			}
+			for (String name : partParameters.keySet()) {
+				int index = counts.getOrDefault(name, 0);
+				if (index == 0) {
+					throw new BadRequestException("Endpoint expects a body part with name '%s'".formatted(name));
+				}
+				int length = partParameters.get(name).length;
+				if (index < length) {
+					throw new BadRequestException("Endpoint expects %d body parts with name '%s'".formatted(length, name));
+				}
+			}
+		}
+	}
+
+	private boolean next(MultipartParser parser) {
+		try {
+			return parser.next();
+		} catch (IOException exception) {
+			throw new UncheckedIOException(exception);
+		}
+	}
+
 	private Object apply(Function<String, ?> function, String item) {
 		Object argument;
 		try {
 			argument = function.apply(item);
 		} catch (RuntimeException error) {
-			String message = "Argument '%s' is not valid".formatted(item);
-			logger.error(message, error);
-			throw new BadRequestException(message);
+			throw invalid(item, error);
 		}
 		return argument;
 	}
 
+	private BadRequestException invalid(String item, RuntimeException error) {
+		String message = "Argument '%s' is not valid".formatted(item);
+		logger.error(message, error);
+		return new BadRequestException(message);
+	}
+
 	private Object getBody(Data data, Type type, long maxSize, String description) {
 		Object argument;
 		try {
@@ -292,10 +662,10 @@ public class Endpoint {
 		return argument;
 	}
 
-	Object invoke(MethodHandle handle, Object... arguments) throws Exception {
+	Object invoke(MethodHandle invoker, Object[] arguments) throws Exception {
 		Object result;
 		try {
-			result = handle.invokeWithArguments(arguments);
+			result = (Object) invoker.invokeExact(arguments);
 		} catch (Throwable throwable) {
 			if (throwable instanceof Exception) {
 				throw (Exception) throwable;
@@ -305,9 +675,16 @@ public class Endpoint {
 		return result;
 	}
 
+	interface ArrayParser {
+		Object parse(List<String> items);
+	}
+
 	record ItemParameter(int index, Function<String, ?> function, String name) {
 	}
 
+	record FieldParameter(int index, String name, Function<String, ?> function, Object defaultValue, boolean required) {
+	}
+
 	record DataParameter(int index, Type type, long maxSize) {
 	}
 }
@@ -6,14 +6,20 @@ import java.util.Map;
 import java.util.Set;
 
 public class Node {
-	private final Map<String, Node> children;
-	private final Map<String, Endpoint> endpoints;
-	private final Set<String> varMethodNames;
+	private Map<String, Node> children;
+	private Map<String, Endpoint> endpoints;
+	private Set<String> varMethodNames;
+	private Node wildcard;
+	private String allow;
+	private String varAllow;
 
 	Node() {
 		this.children = new HashMap<>();
 		this.endpoints = new HashMap<>();
 		this.varMethodNames = new HashSet<>();
+		this.wildcard = null;
+		this.allow = null;
+		this.varAllow = null;
 	}
 
 	Map<String, Node> getChildren() {
@@ -29,11 +35,17 @@ public class Node {
 		if (child == null) {
 			child = new Node();
 			children.put(item, child);
+			if (item == null) {
+				wildcard = child;
+			}
 		}
 		return child;
 	}
 
 	Node getChild(String item) {
+		if (item == null) {
+			return wildcard;
+		}
 		return children.get(item);
 	}
 
@@ -44,6 +56,22 @@ public class Node {
 		}
 	}
 
+	void freeze() {
+		Map<String, Node> frozenChildren = new HashMap<>();
+		for (String item : children.keySet()) {
+			Node child = children.get(item);
+			child.freeze();
+			if (item != null) {
+				frozenChildren.put(item.intern(), child);
+			}
+		}
+		children = Map.copyOf(frozenChildren);
+		endpoints = Map.copyOf(endpoints);
+		varMethodNames = Set.copyOf(varMethodNames);
+		allow = String.join(", ", endpoints.keySet());
+		varAllow = String.join(", ", varMethodNames);
+	}
+
 	public Set<String> getMethodNames() {
 		return endpoints.keySet();
 	}
@@ -52,6 +80,20 @@ public class Node {
 		return varMethodNames;
 	}
 
+	public String getAllow() {
+		if (allow == null) {
+			return String.join(", ", endpoints.keySet());
+		}
+		return allow;
+	}
+
+	public String getVarAllow() {
+		if (varAllow == null) {
+			return String.join(", ", varMethodNames);
+		}
+		return varAllow;
+	}
+
 	public Endpoint getEndpoint(String methodName, int varSize) {
 		if (methodName.equals("HEAD")) {
 			methodName = "GET";
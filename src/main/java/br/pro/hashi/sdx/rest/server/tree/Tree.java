@@ -2,6 +2,8 @@ package br.pro.hashi.sdx.rest.server.tree;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -26,15 +28,19 @@ public class Tree {
 	private final ParserFactory factory;
 	private final Locale locale;
 	private final Node root;
-	private final Set<String> methodNames;
 	private final long maxBodySize;
+	private Map<String, Leaf> staticLeaves;
+	private Set<String> methodNames;
+	private boolean frozen;
 
 	Tree(ParserFactory factory, Locale locale, long maxBodySize) {
 		this.factory = factory;
 		this.locale = locale;
 		this.root = new Node();
-		this.methodNames = new HashSet<>();
 		this.maxBodySize = maxBodySize;
+		this.staticLeaves = new HashMap<>();
+		this.methodNames = new HashSet<>();
+		this.frozen = false;
 	}
 
 	public Set<String> getMethodNames() {
@@ -45,6 +51,32 @@ public class Tree {
 		return maxBodySize;
 	}
 
+	Node getRoot() {
+		return root;
+	}
+
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	public void freeze() {
+		if (frozen) {
+			return;
+		}
+		root.freeze();
+		staticLeaves = Map.copyOf(staticLeaves);
+		methodNames = Set.copyOf(methodNames);
+		frozen = true;
+	}
+
+	Map<String, Leaf> getStaticLeaves() {
+		return staticLeaves;
+	}
+
+	public Leaf getStaticLeaf(String path) {
+		return staticLeaves.get(path);
+	}
+
 	public Leaf getLeafAndAddItems(String[] items, List<String> itemList) {
 		Node node = root;
 		int index = 0;
@@ -78,14 +110,19 @@ public class Tree {
 	}
 
 	public void putNodesAndEndpoints(Class<? extends RestResource> type, String typeName, Map<Class<? extends RestResource>, String[]> itemMap) {
+		if (frozen) {
+			throw new IllegalStateException("Tree is frozen");
+		}
 		Node node = root;
 		int distance = 0;
+		List<String> path = new ArrayList<>();
 
 		Stack<Nested> stack = getAnnotationStack(type, typeName);
 		while (!stack.empty()) {
 			Nested annotation = stack.pop();
 			for (String item : itemMap.get(annotation.in())) {
 				node = node.requireChild(item);
+				path.add(item);
 			}
 			for (int i = 0; i < annotation.at(); i++) {
 				node = node.requireChild(null);
@@ -95,6 +132,7 @@ public class Tree {
 
 		for (String item : itemMap.get(type)) {
 			node = node.requireChild(item);
+			path.add(item);
 		}
 
 		Node subRoot = node;
@@ -127,6 +165,9 @@ public class Tree {
 				}
 				node.putEndpoint(methodName, endpoint);
 				methodNames.add(methodName);
+				if (distance == 0 && reach == 0) {
+					putStaticLeaf(path, node);
+				}
 			}
 		}
 
@@ -138,6 +179,26 @@ public class Tree {
 		}
 	}
 
+	private void putStaticLeaf(List<String> path, Node node) {
+		// keys are compared to raw paths without escapes, so any item
+		// that cannot appear verbatim in such a path is left to the walk
+		if (!path.isEmpty() && path.get(path.size() - 1).isEmpty()) {
+			return;
+		}
+		StringBuilder builder = new StringBuilder();
+		for (String item : path) {
+			if (item.indexOf('/') != -1 || item.indexOf('%') != -1 || item.indexOf('+') != -1) {
+				return;
+			}
+			builder.append('/');
+			builder.append(item);
+		}
+		if (builder.isEmpty()) {
+			builder.append('/');
+		}
+		staticLeaves.putIfAbsent(builder.toString(), new Leaf(node, 0));
+	}
+
 	Stack<Nested> getAnnotationStack(Class<? extends RestResource> type, String typeName) {
 		Stack<Nested> stack = new Stack<>();
 		Set<Class<? extends RestResource>> types = new HashSet<>();
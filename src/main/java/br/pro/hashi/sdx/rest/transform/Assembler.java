@@ -25,4 +25,25 @@ public interface Assembler {
 	 * @throws AssemblingException  if the object cannot be transformed
 	 */
 	<T> void write(T body, Type type, OutputStream stream);
+
+	/**
+	 * <p>
+	 * Computes the number of bytes the byte representation of the specified typed
+	 * object would have, without writing it, if possible.
+	 * </p>
+	 * <p>
+	 * Used to answer HEAD requests. The default implementation returns
+	 * {@code -1}, which means the representation must be written to be measured.
+	 * </p>
+	 *
+	 * @implNote The implementation can assume that the type is correct.
+	 *
+	 * @param <T>  the type
+	 * @param body the object
+	 * @param type a {@link Type} representing {@code T}
+	 * @return the length or {@code -1} if it is unknown
+	 */
+	default <T> long length(T body, Type type) {
+		return -1;
+	}
 }
@@ -3,6 +3,7 @@ package br.pro.hashi.sdx.rest.transform;
 import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 
 import br.pro.hashi.sdx.rest.transform.exception.SerializingException;
 
@@ -25,4 +26,27 @@ public interface Serializer {
 	 * @throws SerializingException if the object cannot be transformed
 	 */
 	<T> void write(T body, Type type, Writer writer);
+
+	/**
+	 * <p>
+	 * Computes the number of bytes the text representation of the specified typed
+	 * object would have in the specified charset, without writing it, if
+	 * possible.
+	 * </p>
+	 * <p>
+	 * Used to answer HEAD requests. The default implementation returns
+	 * {@code -1}, which means the representation must be written to be measured.
+	 * </p>
+	 *
+	 * @implNote The implementation can assume that the type is correct.
+	 *
+	 * @param <T>     the type
+	 * @param body    the object
+	 * @param type    a {@link Type} representing {@code T}
+	 * @param charset the charset
+	 * @return the length or {@code -1} if it is unknown
+	 */
+	default <T> long length(T body, Type type, Charset charset) {
+		return -1;
+	}
 }
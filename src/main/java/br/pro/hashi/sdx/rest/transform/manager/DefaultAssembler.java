@@ -45,4 +45,12 @@ class DefaultAssembler implements Assembler {
 		}
 		throw new TypeException("Body must be an instance of byte[], InputStream, or Consumer<OutputStream>");
 	}
+
+	@Override
+	public <T> long length(T body, Type type) {
+		if (body instanceof byte[]) {
+			return ((byte[]) body).length;
+		}
+		return -1;
+	}
 }
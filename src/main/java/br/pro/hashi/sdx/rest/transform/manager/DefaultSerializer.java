@@ -5,6 +5,8 @@ import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.function.Consumer;
 
 import br.pro.hashi.sdx.rest.constant.Types;
@@ -45,4 +47,38 @@ class DefaultSerializer implements Serializer {
 		}
 		throw new TypeException("Body must be a primitive, a big number, or an instance of String, Reader, or Consumer<Writer>");
 	}
+
+	@Override
+	public <T> long length(T body, Type type, Charset charset) {
+		if (Types.instanceOfSimple(body, type)) {
+			String content = body.toString();
+			if (charset.equals(StandardCharsets.UTF_8)) {
+				return lengthInUtf8(content);
+			}
+			return content.getBytes(charset).length;
+		}
+		return -1;
+	}
+
+	long lengthInUtf8(String content) {
+		long length = 0;
+		int size = content.length();
+		for (int i = 0; i < size; i++) {
+			char c = content.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(content.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				// malformed input is replaced by a single byte
+				length++;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
 }
@@ -5,8 +5,11 @@ import java.io.OutputStream;
 import java.io.Reader;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -34,18 +37,21 @@ public class TransformManager {
 	}
 
 	private final MediaCoder coder;
-	private final Map<String, Assembler> assemblers;
-	private final Map<String, Disassembler> disassemblers;
-	private final Map<String, Serializer> serializers;
-	private final Map<String, Deserializer> deserializers;
-	private final Map<String, String> extensions;
-	private final Set<Class<?>> binaryRawTypes;
-	private final Set<Type> binaryGenericTypes;
+	private final ClassValue<Boolean> binaryValues;
+	private Map<String, Assembler> assemblers;
+	private Map<String, Disassembler> disassemblers;
+	private Map<String, Serializer> serializers;
+	private Map<String, Deserializer> deserializers;
+	private Map<String, String> extensions;
+	private Set<Class<?>> binaryRawTypes;
+	private Set<Type> binaryGenericTypes;
 	private String binaryFallbackType;
 	private String fallbackType;
+	private boolean frozen;
 
 	TransformManager(MediaCoder coder) {
 		this.coder = coder;
+		this.binaryValues = newBinaryValues();
 
 		this.assemblers = new HashMap<>();
 		this.assemblers.put(OCTET_TYPE, DefaultAssembler.getInstance());
@@ -71,10 +77,12 @@ public class TransformManager {
 
 		this.binaryFallbackType = null;
 		this.fallbackType = null;
+		this.frozen = false;
 	}
 
 	TransformManager(TransformManager manager) {
 		this.coder = manager.coder;
+		this.binaryValues = newBinaryValues();
 		this.assemblers = new HashMap<>(manager.assemblers);
 		this.disassemblers = new HashMap<>(manager.disassemblers);
 		this.serializers = new HashMap<>(manager.serializers);
@@ -84,6 +92,16 @@ public class TransformManager {
 		this.binaryGenericTypes = new HashSet<>(manager.binaryGenericTypes);
 		this.binaryFallbackType = manager.binaryFallbackType;
 		this.fallbackType = manager.fallbackType;
+		this.frozen = false;
+	}
+
+	private ClassValue<Boolean> newBinaryValues() {
+		return new ClassValue<>() {
+			@Override
+			protected Boolean computeValue(Class<?> type) {
+				return scanBinary(type);
+			}
+		};
 	}
 
 	MediaCoder getCoder() {
@@ -126,6 +144,30 @@ public class TransformManager {
 		return fallbackType;
 	}
 
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	public void freeze() {
+		if (frozen) {
+			return;
+		}
+		assemblers = Map.copyOf(assemblers);
+		disassemblers = Map.copyOf(disassemblers);
+		serializers = Map.copyOf(serializers);
+		deserializers = Map.copyOf(deserializers);
+		extensions = Map.copyOf(extensions);
+		binaryRawTypes = Set.copyOf(binaryRawTypes);
+		binaryGenericTypes = Set.copyOf(binaryGenericTypes);
+		frozen = true;
+	}
+
+	private void checkFrozen() {
+		if (frozen) {
+			throw new IllegalStateException("Manager is frozen");
+		}
+	}
+
 	public Assembler getAssembler(String contentType) {
 		Assembler assembler = assemblers.get(contentType);
 		if (assembler == null) {
@@ -135,11 +177,13 @@ public class TransformManager {
 	}
 
 	public void putDefaultAssembler(String contentType) {
+		checkFrozen();
 		contentType = cleanAssemblerType(contentType);
 		assemblers.put(contentType, DefaultAssembler.getInstance());
 	}
 
 	public void putAssembler(String contentType, Assembler assembler) {
+		checkFrozen();
 		contentType = cleanAssemblerType(contentType);
 		if (assembler == null) {
 			throw new NullPointerException("Assembler cannot be null");
@@ -159,6 +203,7 @@ public class TransformManager {
 	}
 
 	public void removeAssembler(String contentType) {
+		checkFrozen();
 		if (contentType != null) {
 			contentType = coder.strip(contentType);
 		}
@@ -174,11 +219,13 @@ public class TransformManager {
 	}
 
 	public void putDefaultDisassembler(String contentType) {
+		checkFrozen();
 		contentType = cleanDisassemblerType(contentType);
 		disassemblers.put(contentType, DefaultDisassembler.getInstance());
 	}
 
 	public void putDisassembler(String contentType, Disassembler disassembler) {
+		checkFrozen();
 		contentType = cleanDisassemblerType(contentType);
 		if (disassembler == null) {
 			throw new NullPointerException("Disassembler cannot be null");
@@ -198,6 +245,7 @@ public class TransformManager {
 	}
 
 	public void removeDisassembler(String contentType) {
+		checkFrozen();
 		if (contentType != null) {
 			contentType = coder.strip(contentType);
 		}
@@ -213,11 +261,13 @@ public class TransformManager {
 	}
 
 	public void putDefaultSerializer(String contentType) {
+		checkFrozen();
 		contentType = cleanSerializerType(contentType);
 		serializers.put(contentType, DefaultSerializer.getInstance());
 	}
 
 	public void putSerializer(String contentType, Serializer serializer) {
+		checkFrozen();
 		contentType = cleanSerializerType(contentType);
 		if (serializer == null) {
 			throw new NullPointerException("Serializer cannot be null");
@@ -237,6 +287,7 @@ public class TransformManager {
 	}
 
 	public void removeSerializer(String contentType) {
+		checkFrozen();
 		if (contentType != null) {
 			contentType = coder.strip(contentType);
 		}
@@ -252,11 +303,13 @@ public class TransformManager {
 	}
 
 	public void putDefaultDeserializer(String contentType) {
+		checkFrozen();
 		contentType = cleanDeserializerType(contentType);
 		deserializers.put(contentType, DefaultDeserializer.getInstance());
 	}
 
 	public void putDeserializer(String contentType, Deserializer deserializer) {
+		checkFrozen();
 		contentType = cleanDeserializerType(contentType);
 		if (deserializer == null) {
 			throw new NullPointerException("Deserializer cannot be null");
@@ -276,6 +329,7 @@ public class TransformManager {
 	}
 
 	public void removeDeserializer(String contentType) {
+		checkFrozen();
 		if (contentType != null) {
 			contentType = coder.strip(contentType);
 		}
@@ -287,6 +341,7 @@ public class TransformManager {
 	}
 
 	public void putExtensionType(String extension, String contentType) {
+		checkFrozen();
 		if (extension == null) {
 			throw new NullPointerException("Extension cannot be null");
 		}
@@ -308,6 +363,7 @@ public class TransformManager {
 	}
 
 	public void removeExtensionType(String extension) {
+		checkFrozen();
 		if (extension != null) {
 			extension = extension.strip();
 		}
@@ -318,8 +374,15 @@ public class TransformManager {
 		if (type instanceof ParameterizedType) {
 			return binaryGenericTypes.contains(type);
 		}
+		if (frozen) {
+			return binaryValues.get((Class<?>) type);
+		}
+		return scanBinary((Class<?>) type);
+	}
+
+	private boolean scanBinary(Class<?> type) {
 		for (Class<?> rawType : binaryRawTypes) {
-			if (rawType.isAssignableFrom((Class<?>) type)) {
+			if (rawType.isAssignableFrom(type)) {
 				return true;
 			}
 		}
@@ -327,6 +390,7 @@ public class TransformManager {
 	}
 
 	public void addBinary(Type type) {
+		checkFrozen();
 		if (type instanceof ParameterizedType) {
 			binaryGenericTypes.add(type);
 		} else {
@@ -335,6 +399,7 @@ public class TransformManager {
 	}
 
 	public void removeBinary(Type type) {
+		checkFrozen();
 		if (type instanceof ParameterizedType) {
 			binaryGenericTypes.remove(type);
 		} else {
@@ -343,6 +408,7 @@ public class TransformManager {
 	}
 
 	public void setBinaryFallbackType(String binaryFallbackType) {
+		checkFrozen();
 		if (binaryFallbackType == null) {
 			throw new NullPointerException("Binary fallback type cannot be null");
 		}
@@ -354,10 +420,12 @@ public class TransformManager {
 	}
 
 	public void unsetBinaryFallbackType() {
+		checkFrozen();
 		binaryFallbackType = null;
 	}
 
 	public void setFallbackType(String fallbackType) {
+		checkFrozen();
 		if (fallbackType == null) {
 			throw new NullPointerException("Fallback type cannot be null");
 		}
@@ -369,6 +437,7 @@ public class TransformManager {
 	}
 
 	public void unsetFallbackType() {
+		checkFrozen();
 		fallbackType = null;
 	}
 
@@ -385,6 +454,41 @@ public class TransformManager {
 		return contentType;
 	}
 
+	public String getDefaultType(Type type) {
+		if (isBinary(type)) {
+			if (Types.equalsStreamConsumer(type)) {
+				return OCTET_TYPE;
+			}
+			if (!(type instanceof Class)) {
+				return null;
+			}
+			Class<?> rawType = (Class<?>) type;
+			if (rawType.equals(byte[].class) || InputStream.class.isAssignableFrom(rawType)) {
+				return OCTET_TYPE;
+			}
+			// a body of this type might still be a byte array or a stream
+			if (rawType.isAssignableFrom(byte[].class) || rawType.isAssignableFrom(InputStream.class)) {
+				return null;
+			}
+			return binaryFallbackType;
+		}
+		if (Types.equalsSimple(type) || Types.equalsWriterConsumer(type)) {
+			return PLAIN_TYPE;
+		}
+		if (!(type instanceof Class)) {
+			return null;
+		}
+		Class<?> rawType = (Class<?>) type;
+		if (Reader.class.isAssignableFrom(rawType)) {
+			return PLAIN_TYPE;
+		}
+		// a body of this type might still be a reader
+		if (rawType.isAssignableFrom(Reader.class)) {
+			return null;
+		}
+		return fallbackType;
+	}
+
 	public String getDisassemblerType(String contentType, Type type) {
 		if (contentType == null) {
 			if (type.equals(byte[].class) || type.equals(InputStream.class)) {
@@ -423,4 +527,173 @@ public class TransformManager {
 		}
 		return contentType;
 	}
+
+	public String getAcceptType(Type type, String accept) {
+		boolean binary = isBinary(type);
+		Collection<String> candidates;
+		String defaultType;
+		if (binary) {
+			candidates = assemblers.keySet();
+			defaultType = OCTET_TYPE;
+		} else {
+			candidates = serializers.keySet();
+			defaultType = PLAIN_TYPE;
+		}
+		AcceptRanges acceptRanges = parseAccept(accept);
+		Set<String> excluded = acceptRanges.excluded();
+
+		for (String range : acceptRanges.ranges()) {
+			String prefix;
+			if (range.equals("*/*")) {
+				// the type the response gets anyway is preferred, unless it was
+				// explicitly excluded
+				String responseType = getDefaultType(type);
+				if (responseType == null || !excluded.contains(responseType.toLowerCase())) {
+					return null;
+				}
+				prefix = "";
+			} else if (range.endsWith("/*")) {
+				prefix = range.substring(0, range.length() - 1);
+			} else {
+				prefix = null;
+			}
+			String choice = null;
+			if (prefix == null) {
+				for (String candidate : candidates) {
+					if (candidate.equalsIgnoreCase(range) && supports(candidate, type, binary)) {
+						choice = candidate;
+						break;
+					}
+				}
+			} else {
+				if (!prefix.isEmpty() && defaultType.startsWith(prefix) && !excluded.contains(defaultType) && supports(defaultType, type, binary)) {
+					return defaultType;
+				}
+				for (String candidate : candidates) {
+					String lowerCandidate = candidate.toLowerCase();
+					if (lowerCandidate.startsWith(prefix) && !excluded.contains(lowerCandidate) && (choice == null || candidate.compareTo(choice) < 0) && supports(candidate, type, binary)) {
+						choice = candidate;
+					}
+				}
+			}
+			if (choice != null) {
+				return choice;
+			}
+		}
+		return null;
+	}
+
+	// custom transformers are trusted with any type, like the fallbacks, but
+	// the default ones only handle the types they were written for
+	private boolean supports(String candidate, Type type, boolean binary) {
+		Object transformer;
+		if (binary) {
+			transformer = assemblers.get(candidate);
+		} else {
+			transformer = serializers.get(candidate);
+		}
+		if (transformer == null) {
+			return false;
+		}
+		if (transformer == DefaultAssembler.getInstance()) {
+			if (Types.equalsStreamConsumer(type)) {
+				return true;
+			}
+			if (!(type instanceof Class)) {
+				return false;
+			}
+			Class<?> rawType = (Class<?>) type;
+			return rawType.equals(byte[].class) || InputStream.class.isAssignableFrom(rawType) || rawType.isAssignableFrom(byte[].class) || rawType.isAssignableFrom(InputStream.class);
+		}
+		if (transformer == DefaultSerializer.getInstance()) {
+			if (Types.equalsSimple(type) || Types.equalsWriterConsumer(type)) {
+				return true;
+			}
+			if (!(type instanceof Class)) {
+				return false;
+			}
+			Class<?> rawType = (Class<?>) type;
+			return Reader.class.isAssignableFrom(rawType) || rawType.isAssignableFrom(Reader.class);
+		}
+		return true;
+	}
+
+	public boolean acceptsDefault(Type type, String accept) {
+		AcceptRanges acceptRanges = parseAccept(accept);
+		List<String> ranges = acceptRanges.ranges();
+		Set<String> excluded = acceptRanges.excluded();
+		if (ranges.isEmpty() && excluded.isEmpty()) {
+			// a header without valid ranges is ignored
+			return true;
+		}
+		String responseType = getDefaultType(type);
+		if (responseType == null) {
+			// the type depends on the body, so only a positive range can be
+			// required
+			return !ranges.isEmpty();
+		}
+		responseType = responseType.toLowerCase();
+		if (excluded.contains(responseType)) {
+			return false;
+		}
+		for (String range : ranges) {
+			if (range.equals("*/*") || range.equals(responseType) || (range.endsWith("/*") && responseType.startsWith(range.substring(0, range.length() - 1)))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private AcceptRanges parseAccept(String accept) {
+		List<String> ranges = new ArrayList<>();
+		List<Double> weights = new ArrayList<>();
+		Set<String> excluded = new HashSet<>();
+		for (String item : accept.split(",")) {
+			String[] params = item.split(";");
+			String range = params[0].strip().toLowerCase();
+			if (range.isEmpty()) {
+				continue;
+			}
+			double weight = 1;
+			for (int i = 1; i < params.length; i++) {
+				String param = params[i].strip();
+				if (param.length() > 1 && Character.toLowerCase(param.charAt(0)) == 'q' && param.charAt(1) == '=') {
+					try {
+						weight = Double.parseDouble(param.substring(2).strip());
+					} catch (NumberFormatException exception) {
+						weight = -1;
+					}
+					break;
+				}
+			}
+			if (weight < 0 || weight > 1) {
+				continue;
+			}
+			if (weight == 0) {
+				excluded.add(range);
+				continue;
+			}
+			// insertion keeps the ranges sorted by weight and then by specificity
+			int index = 0;
+			while (index < ranges.size() && (weights.get(index) > weight || (weights.get(index) == weight && specificity(ranges.get(index)) >= specificity(range)))) {
+				index++;
+			}
+			ranges.add(index, range);
+			weights.add(index, weight);
+		}
+		return new AcceptRanges(ranges, excluded);
+	}
+
+	private int specificity(String range) {
+		if (range.equals("*/*")) {
+			return 0;
+		}
+		if (range.endsWith("/*")) {
+			return 1;
+		}
+		return 2;
+	}
+
+	private record AcceptRanges(List<String> ranges, Set<String> excluded) {
+	}
 }
@@ -0,0 +1,129 @@
+package br.pro.hashi.sdx.rest.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LatencyHistogramTest {
+	private LatencyHistogram h;
+
+	@BeforeEach
+	void setUp() {
+		h = new LatencyHistogram();
+	}
+
+	@Test
+	void initializesEmpty() {
+		assertEquals(0, h.getCount());
+		assertEquals(0, h.getMin());
+		assertEquals(0, h.getMax());
+		assertEquals(0, h.getMean());
+		assertEquals(0, h.getValueAtPercentile(50));
+	}
+
+	@Test
+	void recordsSmallValuesExactly() {
+		for (long value = 0; value < 1024; value++) {
+			h.record(value);
+		}
+		assertEquals(1024, h.getCount());
+		assertEquals(0, h.getMin());
+		assertEquals(1023, h.getMax());
+		assertEquals(511.5, h.getMean());
+		assertEquals(0, h.getValueAtPercentile(0));
+		assertEquals(511, h.getValueAtPercentile(50));
+		assertEquals(1013, h.getValueAtPercentile(99));
+		assertEquals(1023, h.getValueAtPercentile(100));
+	}
+
+	@Test
+	void recordsLargeValuesApproximately() {
+		for (int i = 0; i < 99; i++) {
+			h.record(1_000_000);
+		}
+		h.record(1_000_000_000);
+		assertEquals(100, h.getCount());
+		assertEquals(1_000_000, h.getMin());
+		assertEquals(1_000_000_000, h.getMax());
+		assertWithinError(1_000_000, h.getValueAtPercentile(50));
+		assertWithinError(1_000_000, h.getValueAtPercentile(99));
+		assertEquals(1_000_000_000, h.getValueAtPercentile(99.9));
+		assertEquals(1_000_000_000, h.getValueAtPercentile(100));
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = { 0, 1, 1023, 1024, 1025, 2047, 2048, 123_456, 999_999_999, Long.MAX_VALUE / 3, Long.MAX_VALUE })
+	void indexesWithinError(long value) {
+		int index = LatencyHistogram.indexOf(value);
+		long highest = LatencyHistogram.highestOf(index);
+		assertTrue(highest >= value);
+		assertWithinError(value, highest);
+		if (index > 0) {
+			assertTrue(LatencyHistogram.highestOf(index - 1) < value);
+		}
+	}
+
+	@Test
+	void indexesMonotonically() {
+		int previous = -1;
+		for (long value = 0; value < 1 << 20; value++) {
+			int index = LatencyHistogram.indexOf(value);
+			assertTrue(index == previous || index == previous + 1);
+			previous = index;
+		}
+	}
+
+	@Test
+	void doesNotRecordNegativeValue() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			h.record(-1);
+		});
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { -1, 101, Double.NaN })
+	void doesNotGetInvalidPercentile(double percentile) {
+		assertThrows(IllegalArgumentException.class, () -> {
+			h.getValueAtPercentile(percentile);
+		});
+	}
+
+	@Test
+	void adds() {
+		LatencyHistogram other = new LatencyHistogram();
+		h.record(10);
+		other.record(5);
+		other.record(20);
+		h.add(other);
+		assertEquals(3, h.getCount());
+		assertEquals(5, h.getMin());
+		assertEquals(20, h.getMax());
+		assertEquals(35.0 / 3, h.getMean());
+		assertEquals(10, h.getValueAtPercentile(50));
+	}
+
+	@Test
+	void addsEmpty() {
+		h.record(10);
+		h.add(new LatencyHistogram());
+		assertEquals(1, h.getCount());
+		assertEquals(10, h.getMin());
+		assertEquals(10, h.getMax());
+	}
+
+	@Test
+	void doesNotAddNull() {
+		assertThrows(NullPointerException.class, () -> {
+			h.add(null);
+		});
+	}
+
+	private void assertWithinError(long expected, long actual) {
+		assertTrue(Math.abs(actual - expected) <= expected / 512.0, "%d is not within error of %d".formatted(actual, expected));
+	}
+}
@@ -296,6 +296,7 @@ class RestClientBuilderTest extends BuilderTest {
 
 	private HttpClient getJettyClient(RestClient client) {
 		assertSame(managerCopy, client.getManager());
+		verify(managerCopy).freeze();
 		HttpClient jettyClient = client.getJettyClient();
 		assertInstanceOf(HttpCookieStore.Empty.class, jettyClient.getCookieStore());
 		return jettyClient;
@@ -0,0 +1,108 @@
+package br.pro.hashi.sdx.rest.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RestLoadReportTest {
+	private LatencyHistogram latencies;
+	private LatencyHistogram serviceTimes;
+	private Map<Integer, Long> statuses;
+	private Map<String, LatencyHistogram> latencyMap;
+	private RestLoadReport r;
+
+	@BeforeEach
+	void setUp() {
+		latencies = new LatencyHistogram();
+		serviceTimes = new LatencyHistogram();
+		LatencyHistogram getLatencies = new LatencyHistogram();
+		LatencyHistogram postLatencies = new LatencyHistogram();
+		for (int i = 0; i < 3; i++) {
+			latencies.record(2_000_000);
+			serviceTimes.record(1_000_000);
+			getLatencies.record(2_000_000);
+		}
+		latencies.record(4_000_000);
+		serviceTimes.record(1_000_000);
+		postLatencies.record(4_000_000);
+		statuses = Map.of(200, 3L);
+		latencyMap = Map.of("get", getLatencies, "post", postLatencies);
+		r = new RestLoadReport(2, Duration.ofSeconds(2), Duration.ofSeconds(4), 1, statuses, latencies, serviceTimes, latencyMap);
+	}
+
+	@Test
+	void initializes() {
+		assertEquals(2, r.getRate());
+		assertEquals(Duration.ofSeconds(2), r.getDuration());
+		assertEquals(Duration.ofSeconds(4), r.getElapsed());
+		assertEquals(4, r.getCount());
+		assertEquals(1, r.getErrors());
+		assertSame(statuses, r.getStatuses());
+		assertSame(latencies, r.getLatencies());
+		assertSame(serviceTimes, r.getServiceTimes());
+		assertSame(latencyMap, r.getLatencyMap());
+	}
+
+	@Test
+	void formats() {
+		String text = r.toString();
+		assertTrue(text.contains("Target rate: 2.0 requests/s"));
+		assertTrue(text.contains("Throughput: 1.0 requests/s"));
+		assertTrue(text.contains("Duration: 2.0 s"));
+		assertTrue(text.contains("Elapsed: 4.0 s"));
+		assertTrue(text.contains("Requests: 4"));
+		assertTrue(text.contains("Errors: 1"));
+		assertTrue(text.contains("Statuses: 200=3"));
+		assertTrue(text.contains("p99.9"));
+		assertTrue(text.lines().anyMatch((line) -> line.startsWith("all") && line.contains("2.500") && line.endsWith("4.000")));
+		assertTrue(text.lines().anyMatch((line) -> line.startsWith("get") && line.endsWith("2.000")));
+		assertTrue(text.lines().anyMatch((line) -> line.startsWith("post") && line.endsWith("4.000")));
+		assertTrue(text.lines().anyMatch((line) -> line.startsWith("all") && line.endsWith("1.000")));
+	}
+
+	@Test
+	void writes() {
+		StringWriter writer = new StringWriter();
+		r.write(writer);
+		assertEquals(r.toString(), writer.toString());
+	}
+
+	@Test
+	void doesNotWriteIfWriterThrows() {
+		Writer writer = new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				throw new IOException();
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		assertThrows(UncheckedIOException.class, () -> {
+			r.write(writer);
+		});
+	}
+
+	@Test
+	void doesNotWriteToNull() {
+		assertThrows(NullPointerException.class, () -> {
+			r.write(null);
+		});
+	}
+}
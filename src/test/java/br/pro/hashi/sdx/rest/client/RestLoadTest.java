@@ -0,0 +1,284 @@
+package br.pro.hashi.sdx.rest.client;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import br.pro.hashi.sdx.rest.client.RestLoad.Entry;
+
+class RestLoadTest {
+	private AutoCloseable mocks;
+	private @Mock RestClient client;
+	private RestLoad l;
+
+	@BeforeEach
+	void setUp() {
+		mocks = MockitoAnnotations.openMocks(this);
+
+		l = RestLoad.of(client);
+	}
+
+	@AfterEach
+	void tearDown() {
+		assertDoesNotThrow(() -> {
+			mocks.close();
+		});
+	}
+
+	@Test
+	void initializesWithDefaults() {
+		assertTrue(l.getEntries().isEmpty());
+		assertEquals(1, l.getRate());
+		assertEquals(64, l.getConcurrency());
+		assertEquals(Duration.ZERO, l.getWarmup());
+		assertEquals(0, l.getSeed());
+	}
+
+	@Test
+	void doesNotInitializeWithNullClient() {
+		assertThrows(NullPointerException.class, () -> {
+			RestLoad.of(null);
+		});
+	}
+
+	@Test
+	void setsRate() {
+		assertSame(l, l.withRate(2.5));
+		assertEquals(2.5, l.getRate());
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 0, -1, Double.NaN })
+	void doesNotSetInvalidRate(double rate) {
+		assertThrows(IllegalArgumentException.class, () -> {
+			l.withRate(rate);
+		});
+	}
+
+	@Test
+	void setsConcurrency() {
+		assertSame(l, l.withConcurrency(8));
+		assertEquals(8, l.getConcurrency());
+	}
+
+	@Test
+	void doesNotSetZeroConcurrency() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			l.withConcurrency(0);
+		});
+	}
+
+	@Test
+	void setsWarmup() {
+		Duration warmup = Duration.ofSeconds(1);
+		assertSame(l, l.withWarmup(warmup));
+		assertSame(warmup, l.getWarmup());
+	}
+
+	@Test
+	void doesNotSetNullWarmup() {
+		assertThrows(NullPointerException.class, () -> {
+			l.withWarmup(null);
+		});
+	}
+
+	@Test
+	void doesNotSetNegativeWarmup() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			l.withWarmup(Duration.ofSeconds(-1));
+		});
+	}
+
+	@Test
+	void setsSeed() {
+		assertSame(l, l.withSeed(1));
+		assertEquals(1, l.getSeed());
+	}
+
+	@Test
+	void addsRequest() {
+		Function<RestClient, RestResponse> request = (c) -> null;
+		assertSame(l, l.withRequest(" name ", 2, request));
+		List<Entry> entries = l.getEntries();
+		assertEquals(1, entries.size());
+		Entry entry = entries.get(0);
+		assertEquals("name", entry.name());
+		assertEquals(2, entry.weight());
+		assertSame(request, entry.request());
+	}
+
+	@Test
+	void doesNotAddRequestWithNullName() {
+		assertThrows(NullPointerException.class, () -> {
+			l.withRequest(null, 1, (c) -> null);
+		});
+	}
+
+	@Test
+	void doesNotAddRequestWithBlankName() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			l.withRequest(" \t\n", 1, (c) -> null);
+		});
+	}
+
+	@Test
+	void doesNotAddRequestWithExistingName() {
+		l.withRequest("name", 1, (c) -> null);
+		assertThrows(IllegalArgumentException.class, () -> {
+			l.withRequest("name", 1, (c) -> null);
+		});
+	}
+
+	@Test
+	void doesNotAddRequestWithZeroWeight() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			l.withRequest("name", 0, (c) -> null);
+		});
+	}
+
+	@Test
+	void doesNotAddNullRequest() {
+		assertThrows(NullPointerException.class, () -> {
+			l.withRequest("name", 1, null);
+		});
+	}
+
+	@Test
+	void runs() {
+		AtomicInteger getCount = new AtomicInteger();
+		AtomicInteger postCount = new AtomicInteger();
+		l.withRate(1000);
+		l.withRequest("get", 3, (c) -> {
+			assertSame(client, c);
+			getCount.incrementAndGet();
+			return newResponse(200, InputStream.nullInputStream());
+		});
+		l.withRequest("post", 1, (c) -> {
+			assertSame(client, c);
+			postCount.incrementAndGet();
+			return newResponse(201, InputStream.nullInputStream());
+		});
+		RestLoadReport report = l.run(Duration.ofMillis(200));
+		verify(client).start();
+		assertEquals(1000, report.getRate());
+		assertEquals(Duration.ofMillis(200), report.getDuration());
+		assertEquals(200, report.getCount());
+		assertTrue(report.getElapsed().toMillis() >= 199);
+		assertEquals(0, report.getErrors());
+		assertEquals(Map.of(200, (long) getCount.get(), 201, (long) postCount.get()), report.getStatuses());
+		assertEquals(200, report.getServiceTimes().getCount());
+		Map<String, LatencyHistogram> latencyMap = report.getLatencyMap();
+		assertEquals(List.of("get", "post"), List.copyOf(latencyMap.keySet()));
+		assertEquals(getCount.get(), latencyMap.get("get").getCount());
+		assertEquals(postCount.get(), latencyMap.get("post").getCount());
+		assertTrue(getCount.get() > postCount.get());
+	}
+
+	@Test
+	void runsWithWarmup() {
+		AtomicInteger count = new AtomicInteger();
+		l.withRate(1000);
+		l.withWarmup(Duration.ofMillis(100));
+		l.withRequest("get", 1, (c) -> {
+			count.incrementAndGet();
+			return newResponse(200, InputStream.nullInputStream());
+		});
+		RestLoadReport report = l.run(Duration.ofMillis(100));
+		assertEquals(200, count.get());
+		assertEquals(100, report.getCount());
+		assertEquals(Map.of(200, 100L), report.getStatuses());
+	}
+
+	@Test
+	void runsWithErrors() {
+		l.withRate(1000);
+		l.withRequest("get", 1, (c) -> {
+			throw new IllegalStateException();
+		});
+		RestLoadReport report = l.run(Duration.ofMillis(100));
+		assertEquals(100, report.getCount());
+		assertEquals(100, report.getErrors());
+		assertTrue(report.getStatuses().isEmpty());
+	}
+
+	@Test
+	void runsAndDiscardsBodies() throws IOException {
+		InputStream stream = spy(InputStream.nullInputStream());
+		RestResponse response = newResponse(200, stream);
+		l.withRate(1000);
+		l.withConcurrency(1);
+		l.withRequest("get", 1, (c) -> response);
+		l.run(Duration.ofMillis(10));
+		verify(stream, times(1)).close();
+	}
+
+	@Test
+	void runsAndCorrectsForCoordinatedOmission() {
+		l.withRate(100);
+		l.withConcurrency(1);
+		l.withRequest("get", 1, (c) -> {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException exception) {
+				throw new IllegalStateException(exception);
+			}
+			return newResponse(200, InputStream.nullInputStream());
+		});
+		RestLoadReport report = l.run(Duration.ofMillis(100));
+		assertEquals(10, report.getCount());
+		assertTrue(report.getElapsed().toMillis() >= 450);
+		LatencyHistogram serviceTimes = report.getServiceTimes();
+		LatencyHistogram latencies = report.getLatencies();
+		assertTrue(serviceTimes.getMax() < 200_000_000);
+		assertTrue(latencies.getMax() > 300_000_000);
+		assertTrue(latencies.getValueAtPercentile(50) > 2 * serviceTimes.getValueAtPercentile(50));
+	}
+
+	@Test
+	void doesNotRunWithNullDuration() {
+		l.withRequest("get", 1, (c) -> null);
+		assertThrows(NullPointerException.class, () -> {
+			l.run(null);
+		});
+	}
+
+	@Test
+	void doesNotRunWithZeroDuration() {
+		l.withRequest("get", 1, (c) -> null);
+		assertThrows(IllegalArgumentException.class, () -> {
+			l.run(Duration.ZERO);
+		});
+	}
+
+	@Test
+	void doesNotRunWithoutRequests() {
+		assertThrows(IllegalStateException.class, () -> {
+			l.run(Duration.ofSeconds(1));
+		});
+	}
+
+	private RestResponse newResponse(int status, InputStream stream) {
+		return new RestResponse(null, null, status, null, null, stream);
+	}
+}
@@ -9,8 +9,14 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 
@@ -202,6 +208,38 @@ class RestResponseTest {
 		});
 	}
 
+	@Test
+	void discardsBody() throws IOException {
+		stream = spy(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+		r = newRestResponse();
+		r.discard();
+		assertEquals(-1, stream.read());
+		verify(stream).close();
+		assertThrows(IllegalStateException.class, () -> {
+			r.getBody(Object.class);
+		});
+	}
+
+	@Test
+	void discardsBodyOnlyOnce() throws IOException {
+		stream = spy(InputStream.nullInputStream());
+		r = newRestResponse();
+		r.discard();
+		r.discard();
+		verify(stream, times(1)).close();
+	}
+
+	@Test
+	void doesNotDiscardBodyAfterGettingIt() throws IOException {
+		stream = spy(InputStream.nullInputStream());
+		when(coder.decode(eq(stream), any())).thenReturn(stream);
+		Object body = mockBody(CONTENT_TYPE);
+		r = newRestResponse();
+		assertSame(body, r.getBody(Object.class));
+		r.discard();
+		verify(stream, never()).close();
+	}
+
 	private RestResponse newRestResponse() {
 		return new RestResponse(coder, manager, STATUS, headers, "%s;parameter".formatted(CONTENT_TYPE), stream);
 	}
@@ -2,10 +2,13 @@ package br.pro.hashi.sdx.rest.coding;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -43,6 +46,65 @@ class MediaCoderTest {
 		assertInstanceOf(MediaCoder.class, MediaCoder.getInstance());
 	}
 
+	@Test
+	void parses() {
+		MediaType mediaType = c.parse(" type/subtype ; charset = utf-8 ; base64 ");
+		assertEquals("type/subtype", mediaType.essence());
+		assertEquals("utf-8", mediaType.charsetName());
+		assertTrue(mediaType.base64());
+	}
+
+	@Test
+	void parsesWithoutParameters() {
+		MediaType mediaType = c.parse("type/subtype");
+		assertEquals("type/subtype", mediaType.essence());
+		assertNull(mediaType.charsetName());
+		assertFalse(mediaType.base64());
+	}
+
+	@Test
+	void parsesLastCharset() {
+		assertEquals("utf-8", c.parse(";charset=us-ascii;CHARSET=utf-8").charsetName());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"charset=utf-8",
+			";charset",
+			";charset=",
+			";charset=utf 8",
+			";charsetx=utf-8",
+			";x charset=utf-8" })
+	void doesNotParseCharset(String contentType) {
+		assertNull(c.parse(contentType).charsetName());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"base64",
+			";base64x",
+			";base 64",
+			";base64=true" })
+	void doesNotParseBase64(String contentType) {
+		assertFalse(c.parse(contentType).base64());
+	}
+
+	@Test
+	void parsesFromCache() {
+		MediaType mediaType = c.parse("type/subtype;charset=utf-8");
+		assertSame(mediaType, c.parse("type/subtype;charset=utf-8"));
+		assertEquals(1, c.getCache().size());
+	}
+
+	@Test
+	void doesNotCacheMoreThanLimit() {
+		for (int i = 0; i < 2000; i++) {
+			c.parse("type/subtype%d".formatted(i));
+		}
+		assertEquals(1024, c.getCache().size());
+		assertEquals("type/subtype1999", c.parse("type/subtype1999").essence());
+	}
+
 	@ParameterizedTest
 	@ValueSource(strings = {
 			"",
@@ -1,12 +1,20 @@
 package br.pro.hashi.sdx.rest.coding;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class QueryCoderTest {
 	private static final String UNRESERVED_CONTENT = "0123456789BCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz-._~";
@@ -227,4 +235,55 @@ class QueryCoderTest {
 	void encodesSpecialWithUTF8() {
 		assertEquals(SPECIAL_UTF8, c.encode(SPECIAL_CONTENT, StandardCharsets.UTF_8));
 	}
+
+	@Test
+	void parses() {
+		Map<String, String[]> map = c.parse("x=0&y=1&x=2", StandardCharsets.UTF_8);
+		assertEquals(List.of("x", "y"), List.copyOf(map.keySet()));
+		assertArrayEquals(new String[] { "0", "2" }, map.get("x"));
+		assertArrayEquals(new String[] { "1" }, map.get("y"));
+	}
+
+	@Test
+	void parsesWithoutValues() {
+		Map<String, String[]> map = c.parse("x&&y=&=z&", StandardCharsets.UTF_8);
+		assertEquals(3, map.size());
+		assertArrayEquals(new String[] { "" }, map.get("x"));
+		assertArrayEquals(new String[] { "" }, map.get("y"));
+		assertArrayEquals(new String[] { "z" }, map.get(""));
+	}
+
+	@Test
+	void parsesEncoded() {
+		Map<String, String[]> map = c.parse("n%C3%A3o=" + SPECIAL_UTF8 + "+a%3Db%26c", StandardCharsets.UTF_8);
+		assertArrayEquals(new String[] { SPECIAL_CONTENT + " a=b&c" }, map.get("não"));
+	}
+
+	@Test
+	void doesNotParseMalformed() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			c.parse("x=%zz", StandardCharsets.UTF_8);
+		});
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"",
+			"x=0",
+			"x=%20&y=%C3%A3",
+			"%41%42=%43" })
+	void isDecodable(String query) {
+		assertTrue(c.isDecodable(query));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"%",
+			"x=%E",
+			"x=%zz",
+			"x=%2",
+			"x=%20&y=%g0" })
+	void isNotDecodable(String query) {
+		assertFalse(c.isDecodable(query));
+	}
 }
@@ -137,6 +137,26 @@ class ParserFactoryTest {
 		assertEquals("s", f.get(String.class).apply("s"));
 	}
 
+	@Test
+	void getsAndAppliesIntPrimitiveParser() {
+		assertEquals(3, f.getIntParser().applyAsInt("3"));
+	}
+
+	@Test
+	void getsAndAppliesLongPrimitiveParser() {
+		assertEquals(4, f.getLongParser().applyAsLong("4"));
+	}
+
+	@Test
+	void getsAndAppliesDoublePrimitiveParser() {
+		assertEquals(6.6, f.getDoubleParser().applyAsDouble("6.6"));
+	}
+
+	@Test
+	void getsSameParser() {
+		assertSame(f.get(int.class), f.get(int.class));
+	}
+
 	@Test
 	void getsAndApplies() {
 		Function<String, DefaultMethod> parser = f.get(DefaultMethod.class);
@@ -151,6 +171,16 @@ class ParserFactoryTest {
 		});
 	}
 
+	@Test
+	void doesNotGetMissingParserTwice() {
+		assertThrows(ReflectionException.class, () -> {
+			f.get(MissingMethod.class);
+		});
+		assertThrows(ReflectionException.class, () -> {
+			f.get(MissingMethod.class);
+		});
+	}
+
 	@Test
 	void doesNotGetNonInstanceParser() {
 		assertThrows(ReflectionException.class, () -> {
@@ -1,9 +1,17 @@
 package br.pro.hashi.sdx.rest.reflection;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -12,6 +20,7 @@ import org.mockito.MockedStatic;
 
 import br.pro.hashi.sdx.rest.Fields;
 import br.pro.hashi.sdx.rest.FieldsTest;
+import br.pro.hashi.sdx.rest.coding.QueryCoder;
 
 class QueriesTest extends FieldsTest {
 	private Map<String, String[]> map;
@@ -43,4 +52,35 @@ class QueriesTest extends FieldsTest {
 	void getsMap() {
 		assertSame(map, q.getMap());
 	}
+
+	@Test
+	void getsLazyInstance() {
+		try (MockedStatic<ParserFactory> factoryStatic = mockStatic(ParserFactory.class)) {
+			factoryStatic.when(() -> ParserFactory.getInstance()).thenReturn(factory);
+			Queries queries = Queries.newInstance("x=0", StandardCharsets.UTF_8);
+			assertEquals("x=0", queries.getQuery());
+		}
+	}
+
+	@Test
+	void getsQuery() {
+		assertNull(q.getQuery());
+	}
+
+	@Test
+	void parsesLazily() {
+		QueryCoder coder = spy(QueryCoder.getInstance());
+		Queries queries = new Queries(factory, coder, "x=0&x=1", StandardCharsets.UTF_8);
+		verify(coder, times(0)).parse("x=0&x=1", StandardCharsets.UTF_8);
+		Map<String, String[]> lazyMap = queries.getMap();
+		assertArrayEquals(new String[] { "0", "1" }, lazyMap.get("x"));
+		assertSame(lazyMap, queries.getMap());
+		verify(coder).parse("x=0&x=1", StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void parsesNullLazily() {
+		Queries queries = new Queries(factory, QueryCoder.getInstance(), null, StandardCharsets.UTF_8);
+		assertTrue(queries.names().isEmpty());
+	}
 }
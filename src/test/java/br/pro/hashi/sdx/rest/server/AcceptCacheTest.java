@@ -0,0 +1,87 @@
+package br.pro.hashi.sdx.rest.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import br.pro.hashi.sdx.rest.server.StripedLruCache.Stripe;
+import br.pro.hashi.sdx.rest.server.exception.NotAcceptableException;
+import br.pro.hashi.sdx.rest.transform.manager.TransformManager;
+
+class AcceptCacheTest {
+	private TransformManager manager;
+	private AcceptCache c;
+
+	@BeforeEach
+	void setUp() {
+		manager = mock(TransformManager.class);
+		when(manager.getAcceptType(Object.class, "application/json")).thenReturn("application/json");
+		when(manager.getAcceptType(Object.class, "application/xml")).thenReturn("application/xml");
+		when(manager.getAcceptType(Object.class, "text/html")).thenReturn(null);
+		when(manager.acceptsDefault(Object.class, "text/html")).thenReturn(true);
+		when(manager.getAcceptType(Object.class, "image/png")).thenReturn(null);
+		when(manager.acceptsDefault(Object.class, "image/png")).thenReturn(false);
+	}
+
+	@Test
+	void initializesWithOneStripe() {
+		c = new AcceptCache(manager, 1);
+		assertEquals(1, c.getCache().getStripes().length);
+		assertEquals(1, c.getCache().getStripes()[0].getCapacity());
+	}
+
+	@Test
+	void initializesWithMaxStripes() {
+		c = new AcceptCache(manager, 1000);
+		assertEquals(16, c.getCache().getStripes().length);
+		for (Stripe<?, ?> stripe : c.getCache().getStripes()) {
+			assertEquals(62, stripe.getCapacity());
+		}
+	}
+
+	@Test
+	void gets() {
+		c = new AcceptCache(manager, 100);
+		assertEquals("application/json", c.get(Object.class, "application/json"));
+		assertEquals("application/json", c.get(Object.class, "application/json"));
+		verify(manager, times(1)).getAcceptType(Object.class, "application/json");
+	}
+
+	@Test
+	void getsNull() {
+		c = new AcceptCache(manager, 100);
+		assertNull(c.get(Object.class, "text/html"));
+		assertNull(c.get(Object.class, "text/html"));
+		verify(manager, times(1)).getAcceptType(Object.class, "text/html");
+	}
+
+	@Test
+	void doesNotGetNotAcceptable() {
+		c = new AcceptCache(manager, 100);
+		assertThrows(NotAcceptableException.class, () -> {
+			c.get(Object.class, "image/png");
+		});
+		assertThrows(NotAcceptableException.class, () -> {
+			c.get(Object.class, "image/png");
+		});
+		verify(manager, times(1)).getAcceptType(Object.class, "image/png");
+		verify(manager, times(1)).acceptsDefault(Object.class, "image/png");
+	}
+
+	@Test
+	void evictsLeastRecentlyUsed() {
+		c = new AcceptCache(manager, 1);
+		c.get(Object.class, "application/json");
+		c.get(Object.class, "application/xml");
+		c.get(Object.class, "application/json");
+		verify(manager, times(2)).getAcceptType(Object.class, "application/json");
+		verify(manager, times(1)).getAcceptType(Object.class, "application/xml");
+	}
+}
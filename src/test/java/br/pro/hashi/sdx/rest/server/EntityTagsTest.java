@@ -0,0 +1,56 @@
+package br.pro.hashi.sdx.rest.server;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class EntityTagsTest {
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"\"tag\"",
+			"W/\"tag\"",
+			"*",
+			"\"other\", \"tag\"",
+			"\"other\",W/\"tag\"",
+			" \t\"tag\" ",
+			"\"a,b\", \"tag\"" })
+	void matches(String value) {
+		assertTrue(EntityTags.matches(List.of(value), "\"tag\""));
+		assertTrue(EntityTags.matches(List.of(value), "W/\"tag\""));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"",
+			"\"other\"",
+			"W/\"other\"",
+			"\"tag",
+			"tag",
+			"\"tags\"",
+			"\"\"tag\"",
+			"\"a,\"tag\"\"" })
+	void doesNotMatch(String value) {
+		assertFalse(EntityTags.matches(List.of(value), "\"tag\""));
+		assertFalse(EntityTags.matches(List.of(value), "W/\"tag\""));
+	}
+
+	@Test
+	void matchesInSecondValue() {
+		assertTrue(EntityTags.matches(List.of("\"other\"", "\"tag\""), "\"tag\""));
+	}
+
+	@Test
+	void doesNotMatchWithoutValues() {
+		assertFalse(EntityTags.matches(List.of(), "\"tag\""));
+	}
+
+	@Test
+	void doesNotMatchWithNull() {
+		assertFalse(EntityTags.matches(null, "\"tag\""));
+	}
+}
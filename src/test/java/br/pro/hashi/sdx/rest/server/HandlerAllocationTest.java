@@ -0,0 +1,214 @@
+package br.pro.hashi.sdx.rest.server;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Drives Handler.handle through an in-memory connector and fails if the
+// median number of bytes allocated by one request exceeds a budget. Only the
+// handling thread is measured, so parsing and generation by Jetty are not
+// counted. Each budget is the median recorded in the test plus a margin. The
+// medians were measured on Temurin 17.0.9 running only this class, and the
+// margin absorbs the few hundred bytes that depend on what else the JIT has
+// seen, such as when the whole suite runs. If a change lowers a median,
+// record the new one.
+//
+// The medians also depend on the JDK and Jetty versions, so the tests only run
+// with -Dsdx.allocation=true, which the allocation profile sets.
+class HandlerAllocationTest {
+	private static final int MARGIN = 25;
+	private static final int WARMUP = 2000;
+	private static final int ITERATIONS = 200;
+	private static final String BOUNDARY = "boundary";
+
+	private static Logger logger;
+	private static Server server;
+	private static LocalConnector connector;
+	private static MeasuredHandler handler;
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		assumeTrue(Boolean.getBoolean("sdx.allocation"));
+
+		// the tests are patched into the main module, which does not read the
+		// management modules, so the read is added here and the extended bean
+		// is reached by reflection
+		Module module = HandlerAllocationTest.class.getModule();
+		ModuleLayer.boot().findModule("java.management").ifPresent(module::addReads);
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+		assumeTrue(type.isInstance(bean));
+		assumeTrue((boolean) type.getMethod("isThreadAllocatedMemorySupported").invoke(bean));
+		type.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(bean, true);
+
+		logger = LoggerFactory.getLogger(HandlerAllocationTest.class);
+		RestServer restServer = new RestServerBuilder().build("br.pro.hashi.sdx.rest.server.mock.allocation");
+		server = restServer.getJettyServer();
+		for (Connector serverConnector : server.getConnectors()) {
+			server.removeConnector(serverConnector);
+		}
+		connector = new LocalConnector(server);
+		server.addConnector(connector);
+		HandlerWrapper limitHandler = (HandlerWrapper) server.getHandler();
+		handler = new MeasuredHandler(bean, type.getMethod("getThreadAllocatedBytes", long.class));
+		handler.setHandler(limitHandler.getHandler());
+		limitHandler.setHandler(handler);
+		server.start();
+	}
+
+	@AfterAll
+	static void tearDown() throws Exception {
+		if (server != null) {
+			server.stop();
+		}
+	}
+
+	@Test
+	void allocatesForStaticGet() throws Exception {
+		String request = """
+				GET /plain HTTP/1.1\r
+				Host: localhost\r
+				Connection: close\r
+				\r
+				""";
+		assertWithinBudget("static GET", request, 200, 9976);
+	}
+
+	@Test
+	void allocatesForVariablePath() throws Exception {
+		String request = """
+				GET /item/123 HTTP/1.1\r
+				Host: localhost\r
+				Connection: close\r
+				\r
+				""";
+		assertWithinBudget("variable path", request, 200, 10464);
+	}
+
+	@Test
+	void allocatesForBody() throws Exception {
+		String body = "{\"name\": \"value\", \"items\": [0, 1, 2, 3], \"nested\": {\"flag\": true}}";
+		String request = """
+				POST /echo HTTP/1.1\r
+				Host: localhost\r
+				Connection: close\r
+				Content-Type: text/plain;charset=UTF-8\r
+				Content-Length: %d\r
+				\r
+				%s""".formatted(body.length(), body);
+		assertWithinBudget("body", request, 201, 35360);
+	}
+
+	@Test
+	void allocatesForMultipart() throws Exception {
+		String body = """
+				--%s\r
+				Content-Disposition: form-data; name="name"\r
+				\r
+				value\r
+				--%s\r
+				Content-Disposition: form-data; name="file"; filename="file.txt"\r
+				Content-Type: text/plain\r
+				\r
+				content\r
+				--%s--\r
+				""".formatted(BOUNDARY, BOUNDARY, BOUNDARY);
+		String request = """
+				POST /upload HTTP/1.1\r
+				Host: localhost\r
+				Connection: close\r
+				Content-Type: multipart/form-data; boundary=%s\r
+				Content-Length: %d\r
+				\r
+				%s""".formatted(BOUNDARY, body.length(), body);
+		assertWithinBudget("multipart", request, 201, 161392);
+	}
+
+	@Test
+	void allocatesForError() throws Exception {
+		String request = """
+				GET /fault HTTP/1.1\r
+				Host: localhost\r
+				Connection: close\r
+				\r
+				""";
+		assertWithinBudget("error", request, 400, 10616);
+	}
+
+	private void assertWithinBudget(String scenario, String request, int status, long recorded) throws Exception {
+		long budget = recorded + recorded * MARGIN / 100;
+		for (int i = 0; i < WARMUP; i++) {
+			exchange(request, status);
+		}
+		long[] samples = new long[ITERATIONS];
+		for (int i = 0; i < ITERATIONS; i++) {
+			samples[i] = exchange(request, status);
+		}
+		Arrays.sort(samples);
+		long median = samples[ITERATIONS / 2];
+		logger.info("%s: %d bytes per request (min %d, max %d, recorded %d, budget %d)".formatted(scenario, median, samples[0], samples[ITERATIONS - 1], recorded, budget));
+		assertTrue(median <= budget, "%s allocates %d bytes per request, which exceeds the budget of %d".formatted(scenario, median, budget));
+	}
+
+	private long exchange(String request, int status) throws Exception {
+		String response = connector.getResponse(request);
+		assertTrue(response.startsWith("HTTP/1.1 %d".formatted(status)), response);
+		return handler.take();
+	}
+
+	private static class MeasuredHandler extends HandlerWrapper {
+		private final ThreadMXBean bean;
+		private final Method method;
+		private final BlockingQueue<Long> samples;
+
+		private MeasuredHandler(ThreadMXBean bean, Method method) {
+			this.bean = bean;
+			this.method = method;
+			this.samples = new LinkedBlockingQueue<>();
+		}
+
+		private long take() throws InterruptedException {
+			return samples.take();
+		}
+
+		@Override
+		public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+			long id = Thread.currentThread().getId();
+			long start = allocated(id);
+			super.handle(target, baseRequest, request, response);
+			long end = allocated(id);
+			// the response may already be sent, so the sample is handed over
+			samples.add(end - start);
+		}
+
+		private long allocated(long id) {
+			try {
+				return (long) method.invoke(bean, id);
+			} catch (ReflectiveOperationException exception) {
+				throw new AssertionError(exception);
+			}
+		}
+	}
+}
@@ -1,18 +1,22 @@
 package br.pro.hashi.sdx.rest.server;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -30,6 +34,7 @@ import java.io.Writer;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Type;
@@ -37,35 +42,49 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.server.Request;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import br.pro.hashi.sdx.rest.Fields;
 import br.pro.hashi.sdx.rest.Hint;
+import br.pro.hashi.sdx.rest.constant.Defaults;
 import br.pro.hashi.sdx.rest.reflection.Headers;
 import br.pro.hashi.sdx.rest.reflection.PartHeaders;
 import br.pro.hashi.sdx.rest.reflection.Queries;
+import br.pro.hashi.sdx.rest.server.Handler.Plan;
+import br.pro.hashi.sdx.rest.server.ResponseCache.Entry;
+import br.pro.hashi.sdx.rest.server.ResponseCache.Key;
+import br.pro.hashi.sdx.rest.server.RouteCache.Route;
 import br.pro.hashi.sdx.rest.server.exception.NotAcceptableException;
 import br.pro.hashi.sdx.rest.server.exception.NotFoundException;
-import br.pro.hashi.sdx.rest.server.mock.invalid.ResourceWithException;
+import br.pro.hashi.sdx.rest.server.exception.NotModifiedException;
+import br.pro.hashi.sdx.rest.server.exception.PayloadTooLargeException;
+import br.pro.hashi.sdx.rest.server.mock.lifecycle.InitializedSingletonResource;
+import br.pro.hashi.sdx.rest.server.mock.lifecycle.SingletonResource;
 import br.pro.hashi.sdx.rest.server.mock.valid.ConcreteResource;
 import br.pro.hashi.sdx.rest.server.mock.valid.ConcreteResourceWithoutBlank;
 import br.pro.hashi.sdx.rest.server.mock.valid.ConcreteResourceWithoutEmpty;
 import br.pro.hashi.sdx.rest.server.mock.valid.ConcreteResourceWithoutPlain;
 import br.pro.hashi.sdx.rest.server.mock.valid.NullableResource;
 import br.pro.hashi.sdx.rest.server.stream.CountOutputStream;
+import br.pro.hashi.sdx.rest.server.stream.MultipartParser;
+import br.pro.hashi.sdx.rest.server.stream.TagOutputStream;
 import br.pro.hashi.sdx.rest.server.tree.Data;
 import br.pro.hashi.sdx.rest.server.tree.Endpoint;
 import br.pro.hashi.sdx.rest.server.tree.Node;
@@ -75,6 +94,8 @@ import br.pro.hashi.sdx.rest.transform.Assembler;
 import br.pro.hashi.sdx.rest.transform.Serializer;
 import br.pro.hashi.sdx.rest.transform.exception.TypeException;
 import br.pro.hashi.sdx.rest.transform.manager.TransformManager;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.MultipartConfigElement;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletInputStream;
@@ -92,11 +113,17 @@ class HandlerTest {
 	private ErrorFormatter formatter;
 	private Map<Class<? extends RestResource>, MethodHandle> handles;
 	private MultipartConfigElement element;
+	private boolean streaming;
 	private Set<Class<? extends RuntimeException>> gatewayTypes;
+	private RouteCache routeCache;
+	private ResponseCache responseCache;
+	private Inflation inflation;
+	private boolean etag;
+	private long asyncTimeout;
 	private Handler h;
 	private HttpFields fields;
 	private Request baseRequest;
-	private Map<String, String[]> map;
+	private String query;
 	private HttpServletRequest request;
 	private HttpServletResponse response;
 	private Node node;
@@ -104,6 +131,8 @@ class HandlerTest {
 	private List<Part> parts;
 	private RestResource callResource;
 	private List<String> callItemList;
+	private Fields callQueries;
+	private Fields callHeaders;
 	private Map<String, List<Data>> callPartMap;
 	private Data callBody;
 	private RestResource resource;
@@ -123,13 +152,19 @@ class HandlerTest {
 		putHandle(lookup, ConcreteResourceWithoutPlain.class);
 		putHandle(lookup, NullableResource.class);
 		element = mock(MultipartConfigElement.class);
+		streaming = false;
 		gatewayTypes = new HashSet<>();
+		routeCache = null;
+		responseCache = null;
+		inflation = new Inflation(0);
+		etag = false;
+		asyncTimeout = 30000;
 		fields = mock(HttpFields.class);
 		baseRequest = mock(Request.class);
 		when(baseRequest.getHttpFields()).thenReturn(fields);
-		map = new HashMap<>();
+		query = "a=b";
 		request = mock(HttpServletRequest.class);
-		when(request.getParameterMap()).thenReturn(map);
+		when(request.getQueryString()).thenAnswer((invocation) -> query);
 		ServletOutputStream output = mock(ServletOutputStream.class);
 		response = mock(HttpServletResponse.class);
 		when(response.getOutputStream()).thenReturn(output);
@@ -174,6 +209,859 @@ class HandlerTest {
 		assertOk();
 	}
 
+	@Test
+	void handlesWithFields() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		assertSame(fields, ((Headers) callHeaders).getFields());
+		assertEquals("b", callQueries.get("a"));
+		verify(request, times(0)).getParameterMap();
+		assertSame(callResource.headers, callHeaders);
+		assertSame(callResource.queries, callQueries);
+		assertOk();
+	}
+
+	@Test
+	void handlesWithFormFields() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		when(request.getContentType()).thenReturn("application/x-www-form-urlencoded;charset=UTF-8");
+		when(request.getParameterMap()).thenReturn(Map.of("a", new String[] { "b" }, "c", new String[] { "d" }));
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		assertEquals("b", callQueries.get("a"));
+		assertEquals("d", callQueries.get("c"));
+		verify(request, times(0)).getQueryString();
+		assertSame(callResource.queries, callQueries);
+		verify(response).setStatus(200);
+		verifyNoError();
+	}
+
+	@Test
+	void handlesWithMalformedQuery() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		query = "a=%zz";
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		assertBadRequest("Query could not be decoded");
+	}
+
+	@Test
+	void handlesWithContentEncoding() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		when(endpoint.hasBody()).thenReturn(true);
+		mockContentType();
+		when(request.getHeader("Content-Encoding")).thenReturn("GZIP");
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		assertItemList();
+		assertBody(stream);
+		assertSame(inflation, callBody.getInflation());
+		assertEquals("gzip", callBody.getEncoding());
+		assertOk();
+	}
+
+	@Test
+	void handlesWithIdentityContentEncoding() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		when(endpoint.hasBody()).thenReturn(true);
+		mockContentType();
+		when(request.getHeader("Content-Encoding")).thenReturn("identity");
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		assertItemList();
+		assertBody(stream);
+		assertNull(callBody.getEncoding());
+		assertOk();
+	}
+
+	@Test
+	void handlesWithUnsupportedContentEncoding() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		when(endpoint.hasBody()).thenReturn(true);
+		mockContentType();
+		when(request.getHeader("Content-Encoding")).thenReturn("br");
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		assertMessageResponse(415, "Content encoding br is not supported");
+	}
+
+	@Test
+	void handlesWithUnsupportedContentEncodingWithoutBody() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		when(request.getHeader("Content-Encoding")).thenReturn("br");
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		assertItemList();
+		assertBody(stream);
+		assertNull(callBody.getEncoding());
+		assertOk();
+	}
+
+	@Test
+	void handlesWithStaticLeaf() {
+		mockMethod();
+		mockRequestUri();
+		when(tree.getStaticLeaf("/b")).thenReturn(new Leaf(node, 0));
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		assertDoesNotThrow(() -> {
+			when(endpoint.call(any(), eq(List.of()), any(), any(), any(), any())).thenAnswer((invocation) -> {
+				saveCall(invocation);
+				return new Object();
+			});
+		});
+		mockReturnType();
+		handle();
+		verify(tree, times(0)).getLeafAndAddItems(any(), any());
+		assertEquals(List.of(), callItemList);
+		assertBody(stream);
+		assertOk();
+	}
+
+	@Test
+	void handlesWithoutStaticLeaf() {
+		mockMethod();
+		when(request.getRequestURI()).thenReturn("/%62");
+		when(tree.getStaticLeaf("/%62")).thenReturn(new Leaf(node, 0));
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		verify(tree, times(0)).getStaticLeaf(any());
+		assertItemList();
+		assertBody(stream);
+		assertOk();
+	}
+
+	@Test
+	void handlesWithRouteCacheMiss() {
+		routeCache = new RouteCache(8);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		assertEquals(0, routeCache.getHits());
+		assertEquals(1, routeCache.getMisses());
+		assertEquals(1, routeCache.getSize());
+		List<String> routeItemList = routeCache.get("/b///").itemList();
+		assertThrows(UnsupportedOperationException.class, () -> {
+			routeItemList.add("2");
+		});
+		assertItemList();
+		assertBody(stream);
+		assertOk();
+	}
+
+	@Test
+	void handlesWithRouteCacheHit() {
+		routeCache = new RouteCache(8);
+		routeCache.put("/b///", new Route("", null, new Leaf(node, 0), List.of("0", "1")));
+		mockMethod();
+		mockRequestUri();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		verify(tree, times(0)).getLeafAndAddItems(any(), any());
+		assertEquals(1, routeCache.getHits());
+		assertEquals(0, routeCache.getMisses());
+		assertItemList();
+		assertBody(stream);
+		assertOk();
+	}
+
+	@Test
+	void handlesWithResponseCacheMiss() {
+		responseCache = new ResponseCache(1000, 30000);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockCachedEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		when(response.getStatus()).thenReturn(200);
+		when(response.getContentType()).thenReturn("type/subtype");
+		handle(mockCacheAnswer());
+		assertItemList();
+		assertBody(stream);
+		verify(h).write(eq(response), any(), any(), eq(Object.class), eq(null), any(ByteArrayOutputStream.class));
+		verifyCacheWrite();
+		assertEquals(0, responseCache.getHits());
+		assertEquals(1, responseCache.getMisses());
+		assertEquals(REGULAR_CONTENT.length(), responseCache.getSize());
+		assertTrue(responseCache.getFills().isEmpty());
+		Entry entry = responseCache.get(newKey());
+		assertEquals(200, entry.status());
+		assertEquals("type/subtype", entry.contentType());
+		assertTrue(entry.headers().isEmpty());
+		assertArrayEquals(REGULAR_CONTENT.getBytes(StandardCharsets.UTF_8), entry.body());
+	}
+
+	@Test
+	void handlesWithResponseCacheMissAndHeaders() {
+		responseCache = new ResponseCache(1000, 30000);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockCachedEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		when(response.getStatus()).thenReturn(200);
+		when(response.getContentType()).thenReturn("type/subtype");
+		when(response.getHeaderNames()).thenReturn(List.of("Vary"), List.of("Vary", "Content-Type", "Cache-Control", "Link"));
+		when(response.getHeaders("Cache-Control")).thenReturn(List.of("max-age=60"));
+		when(response.getHeaders("Link")).thenReturn(List.of("</a>", "</b>"));
+		handle(mockCacheAnswer());
+		verifyCacheWrite();
+		Entry entry = responseCache.get(newKey());
+		assertEquals(Map.of("Cache-Control", List.of("max-age=60"), "Link", List.of("</a>", "</b>")), entry.headers());
+	}
+
+	@Test
+	void handlesWithResponseCacheMissWithoutOk() {
+		responseCache = new ResponseCache(1000, 30000);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockCachedEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		when(response.getStatus()).thenReturn(201);
+		handle(mockCacheAnswer());
+		verifyCacheWrite();
+		assertEquals(0, responseCache.getSize());
+		assertTrue(responseCache.getFills().isEmpty());
+	}
+
+	@Test
+	void handlesWithResponseCachePendingFill() {
+		responseCache = new ResponseCache(1000, 30000);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockCachedEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		Key key = newKey();
+		CompletableFuture<Entry> fill = new CompletableFuture<>();
+		responseCache.getFills().put(key, fill);
+		Entry entry = new Entry(200, "type/subtype", null, Map.of(), REGULAR_CONTENT.getBytes(StandardCharsets.UTF_8), System.nanoTime() + 60000000000L);
+		fill.complete(entry);
+		handle(mockCacheAnswer());
+		assertDoesNotThrow(() -> {
+			verify(endpoint, times(0)).call(any(), any(), any(), any(), any(), any());
+		});
+		verify(response).setStatus(200);
+		verifyCacheWrite();
+		assertSame(fill, responseCache.getFills().get(key));
+	}
+
+	@Test
+	void handlesWithResponseCacheStuckFill() {
+		responseCache = new ResponseCache(1000, 1);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockCachedEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		Key key = newKey();
+		CompletableFuture<Entry> fill = new CompletableFuture<>();
+		responseCache.getFills().put(key, fill);
+		handle();
+		assertItemList();
+		assertBody(stream);
+		assertOk();
+		assertEquals(0, responseCache.getSize());
+		assertSame(fill, responseCache.getFills().get(key));
+		assertFalse(fill.isDone());
+	}
+
+	@Test
+	void handlesWithResponseCacheHit() {
+		responseCache = new ResponseCache(1000, 30000);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockReturnType();
+		mockCachedEndpoint();
+		putCacheEntry();
+		handle(mockCacheAnswer());
+		assertDoesNotThrow(() -> {
+			verify(endpoint, times(0)).call(any(), any(), any(), any(), any(), any());
+		});
+		verify(response).setStatus(200);
+		verify(response).setContentType("type/subtype");
+		verifyCacheWrite();
+		assertEquals(1, responseCache.getHits());
+		assertEquals(0, responseCache.getMisses());
+	}
+
+	@Test
+	void handlesWithResponseCacheHitAndHeaders() {
+		responseCache = new ResponseCache(1000, 30000);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockReturnType();
+		mockCachedEndpoint();
+		Key key = newKey();
+		byte[] body = REGULAR_CONTENT.getBytes(StandardCharsets.UTF_8);
+		responseCache.claim(key);
+		responseCache.release(key, new Entry(200, "type/subtype", null, Map.of("Link", List.of("</a>", "</b>")), body, System.nanoTime() + 60000000000L));
+		handle(mockCacheAnswer());
+		verify(response).addHeader("Link", "</a>");
+		verify(response).addHeader("Link", "</b>");
+		verify(response).setStatus(200);
+		verifyCacheWrite();
+	}
+
+	@Test
+	void handlesWithResponseCacheHitAndHead() {
+		responseCache = new ResponseCache(1000, 30000);
+		mockHeadMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockHeadEndpoint();
+		mockReturnType();
+		mockCachedEndpoint();
+		putCacheEntry();
+		handle(mockCacheAnswer());
+		verify(response).setStatus(200);
+		verify(response).setContentLength(REGULAR_CONTENT.length());
+		assertDoesNotThrow(() -> {
+			verify(response.getOutputStream(), times(0)).write(any(byte[].class));
+		});
+		verifyResponseClose();
+		assertEquals(1, responseCache.getHits());
+	}
+
+	@Test
+	void handlesWithResponseCacheAndWithoutCachedEndpoint() {
+		responseCache = new ResponseCache(1000, 30000);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		assertItemList();
+		assertBody(stream);
+		assertOk();
+		assertEquals(0, responseCache.getMisses());
+	}
+
+	@Test
+	void handlesWithResponseCacheHitAndTag() {
+		responseCache = new ResponseCache(1000, 30000);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockReturnType();
+		mockCachedEndpoint();
+		putCacheEntry("\"tag\"");
+		when(fields.getValuesList("If-None-Match")).thenReturn(List.of("\"other\""));
+		handle(mockCacheAnswer());
+		verify(response).setHeader("ETag", "\"tag\"");
+		verify(response).setStatus(200);
+		verifyCacheWrite();
+	}
+
+	@Test
+	void handlesWithResponseCacheHitAndMatchingTag() {
+		responseCache = new ResponseCache(1000, 30000);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockReturnType();
+		mockCachedEndpoint();
+		putCacheEntry("\"tag\"");
+		when(fields.getValuesList("If-None-Match")).thenReturn(List.of("\"tag\""));
+		handle(mockCacheAnswer());
+		verify(response).setHeader("ETag", "\"tag\"");
+		verify(response).setStatus(304);
+		verify(response, times(0)).setContentLength(any(int.class));
+		verifyResponseClose();
+	}
+
+	private void mockCachedEndpoint() {
+		when(endpoint.isCached()).thenReturn(true);
+		when(endpoint.getCacheTtl()).thenReturn(60000L);
+		when(endpoint.getCacheQueries()).thenReturn(new String[] { "q" });
+		when(endpoint.getCacheHeaders()).thenReturn(new String[] { "h" });
+		query = "q=v";
+		when(fields.getValuesList("h")).thenReturn(List.of("w"));
+	}
+
+	private Key newKey() {
+		return new Key(endpoint, "", null, List.of("0", "1"), List.of(List.of("v"), List.of("w")));
+	}
+
+	private void putCacheEntry() {
+		putCacheEntry(null);
+	}
+
+	private void putCacheEntry(String tag) {
+		Key key = newKey();
+		byte[] body = REGULAR_CONTENT.getBytes(StandardCharsets.UTF_8);
+		responseCache.claim(key);
+		responseCache.release(key, new Entry(200, "type/subtype", tag, Map.of(), body, System.nanoTime() + 60000000000L));
+	}
+
+	private Answer<Boolean> mockCacheAnswer() {
+		return (invocation) -> {
+			OutputStream output = invocation.getArgument(5);
+			output.write(REGULAR_CONTENT.getBytes(StandardCharsets.UTF_8));
+			output.close();
+			return true;
+		};
+	}
+
+	private void verifyCacheWrite() {
+		verify(response).setContentLength(REGULAR_CONTENT.length());
+		assertDoesNotThrow(() -> {
+			verify(response.getOutputStream()).write(REGULAR_CONTENT.getBytes(StandardCharsets.UTF_8));
+		});
+		verifyResponseClose();
+	}
+
+	@Test
+	void handlesWithNotModified() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockReturnType();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockNotModifiedCall();
+		handle();
+		assertHeaders();
+		verify(response).setStatus(304);
+		verifyNoServletWrite();
+		verifyResponseClose();
+		verifyNoError();
+	}
+
+	@Test
+	void handlesWithNotModifiedAndPost() {
+		mockMethod("POST");
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint("POST");
+		mockReturnType();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockNotModifiedCall();
+		handle();
+		assertMessageResponse(412, "Precondition failed");
+	}
+
+	private void mockNotModifiedCall() {
+		assertDoesNotThrow(() -> {
+			when(endpoint.call(any(), eq(List.of("0", "1")), any(), any(), eq(Map.of()), any())).thenThrow(new NotModifiedException());
+		});
+	}
+
+	@Test
+	void handlesWithETag() {
+		etag = true;
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle(mockCacheAnswer());
+		assertDoesNotThrow(() -> {
+			verify(h).writeWithTag(eq(response), any(), any(), eq(Object.class), eq(null), any(ServletOutputStream.class));
+		});
+		verify(response).setHeader(eq("ETag"), any());
+		verify(response).setContentLength(REGULAR_CONTENT.length());
+		verifyNoError();
+	}
+
+	@Test
+	void handlesWithETagAndPost() {
+		etag = true;
+		mockMethod("POST");
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint("POST");
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle(mockCacheAnswer());
+		verify(response).setStatus(201);
+		assertDoesNotThrow(() -> {
+			verify(h, times(0)).writeWithTag(any(), any(), any(), any(), any(), any());
+		});
+		verify(response, times(0)).setHeader(eq("ETag"), any());
+	}
+
+	@Test
+	void writesWithTag() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		mockTagWrite(REGULAR_CONTENT.getBytes(StandardCharsets.UTF_8));
+		mockIfNoneMatch(List.of());
+		assertTrue(writeWithTag(output));
+		verify(response).setHeader("ETag", tag(REGULAR_CONTENT));
+		verify(response).setContentLength(REGULAR_CONTENT.length());
+		verify(response, times(0)).setStatus(any(int.class));
+		assertEquals(REGULAR_CONTENT, output.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void writesWithMatchingTag() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		mockTagWrite(REGULAR_CONTENT.getBytes(StandardCharsets.UTF_8));
+		mockIfNoneMatch(List.of("\"other\", %s".formatted(tag(REGULAR_CONTENT))));
+		assertFalse(writeWithTag(output));
+		verify(response).setHeader("ETag", tag(REGULAR_CONTENT));
+		verify(response).setStatus(304);
+		verify(response, times(0)).setContentLength(any(int.class));
+		assertEquals(0, output.size());
+	}
+
+	@Test
+	void writesWithoutTagIfLarge() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		mockTagWrite(new byte[65537]);
+		assertTrue(writeWithTag(output));
+		verify(response, times(0)).setHeader(any(), any());
+		verify(response, times(0)).setContentLength(any(int.class));
+		assertEquals(65537, output.size());
+	}
+
+	private void mockTagWrite(byte[] body) {
+		h = spy(newHandler());
+		doAnswer((invocation) -> {
+			OutputStream output = invocation.getArgument(5);
+			output.write(body);
+			output.close();
+			return true;
+		}).when(h).write(eq(response), eq(resource), any(), eq(Object.class), eq(null), any(TagOutputStream.class));
+	}
+
+	private void mockIfNoneMatch(List<String> values) {
+		Headers headers = mock(Headers.class);
+		when(headers.getList("If-None-Match")).thenReturn(values);
+		when(resource.getHeaders()).thenReturn(headers);
+	}
+
+	private boolean writeWithTag(OutputStream output) {
+		boolean withLength;
+		try {
+			withLength = h.writeWithTag(response, resource, new Object(), Object.class, null, output);
+		} catch (IOException exception) {
+			throw new AssertionError(exception);
+		}
+		return withLength;
+	}
+
+	private String tag(String content) {
+		TagOutputStream tagStream = new TagOutputStream(new ByteArrayOutputStream(), 64);
+		try {
+			tagStream.write(content.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException exception) {
+			throw new AssertionError(exception);
+		}
+		return tagStream.getTag();
+	}
+
+	@Test
+	void handlesWithAcceptType() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		mockAccept("application/json");
+		when(manager.getAcceptType(Object.class, "application/json")).thenReturn("application/json");
+		List<String> contentTypes = new ArrayList<>();
+		handle(mockContentTypeAnswer(contentTypes));
+		verify(response).addHeader("Vary", "Accept");
+		assertEquals(List.of("application/json"), contentTypes);
+		verifyNoError();
+	}
+
+	@Test
+	void handlesWithCachedAcceptType() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		mockAccept("application/json");
+		when(manager.getAcceptType(Object.class, "application/json")).thenReturn("application/json");
+		List<String> contentTypes = new ArrayList<>();
+		h = spy(newHandler());
+		doAnswer(mockContentTypeAnswer(contentTypes)).when(h).write(eq(response), any(), any(), eq(Object.class), any(), any());
+		h.handle("target", baseRequest, request, response);
+		h.handle("target", baseRequest, request, response);
+		verify(manager, times(1)).getAcceptType(Object.class, "application/json");
+		assertEquals(List.of("application/json", "application/json"), contentTypes);
+	}
+
+	@Test
+	void handlesWithAcceptTypeAndMessageRestException() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockRestExceptionCall(550, "message");
+		when(formatter.format(550, "message")).thenReturn(new Object());
+		when(formatter.getReturnType()).thenReturn(Object.class);
+		mockReturnType(byte[].class);
+		mockAccept("application/octet-stream");
+		when(manager.getAcceptType(byte[].class, "application/octet-stream")).thenReturn("application/octet-stream");
+		List<String> contentTypes = new ArrayList<>();
+		handle(mockContentTypeAnswer(contentTypes));
+		verify(response).setStatus(550);
+		assertEquals(Collections.singletonList(null), contentTypes);
+	}
+
+	@Test
+	void handlesWithoutAcceptType() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		mockAccept("text/html");
+		when(manager.acceptsDefault(Object.class, "text/html")).thenReturn(true);
+		List<String> contentTypes = new ArrayList<>();
+		handle(mockContentTypeAnswer(contentTypes));
+		verify(response).addHeader("Vary", "Accept");
+		assertEquals(Collections.singletonList(null), contentTypes);
+		verifyNoError();
+	}
+
+	@Test
+	void handlesWithoutAccept() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		List<String> contentTypes = new ArrayList<>();
+		handle(mockContentTypeAnswer(contentTypes));
+		verify(manager, times(0)).getAcceptType(any(), any());
+		verify(response).addHeader("Vary", "Accept");
+		assertEquals(Collections.singletonList(null), contentTypes);
+		verifyNoError();
+	}
+
+	@Test
+	void handlesWithNotAcceptableType() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockReturnType();
+		mockAccept("text/html");
+		when(manager.acceptsDefault(Object.class, "text/html")).thenReturn(false);
+		handle();
+		verify(response).addHeader("Vary", "Accept");
+		assertNotAcceptable("No acceptable response type");
+	}
+
+	@Test
+	void handlesWithAcceptAndVoid() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType(void.class);
+		mockAccept("application/json");
+		handle();
+		verify(manager, times(0)).getAcceptType(any(), any());
+		verify(response, times(0)).addHeader("Vary", "Accept");
+		assertNoContent();
+	}
+
+	@Test
+	void handlesWithAcceptAndExtension() {
+		mockMethod();
+		mockRequestUriWithExtension();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		mockAccept("application/json");
+		handle();
+		verify(manager, times(0)).getAcceptType(any(), any());
+		verify(response, times(0)).addHeader("Vary", "Accept");
+		verifyNoError();
+	}
+
+	private void mockAccept(String accept) {
+		when(fields.getValuesList("Accept")).thenReturn(List.of(accept));
+	}
+
+	private Answer<Boolean> mockContentTypeAnswer(List<String> contentTypes) {
+		return (invocation) -> {
+			RestResource resource = invocation.getArgument(1);
+			contentTypes.add(resource.getContentType());
+			return true;
+		};
+	}
+
 	@Test
 	void handlesWithoutCors() {
 		mockMethod();
@@ -599,6 +1487,78 @@ class HandlerTest {
 		assertOk();
 	}
 
+	@Test
+	void handlesWithStreamingMultipart() throws ServletException, IOException {
+		streaming = true;
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		when(request.getContentType()).thenReturn("multipart/form-data; boundary=boundary");
+		mockInputStream();
+		mockResourceType();
+		MultipartParser[] parser = new MultipartParser[1];
+		assertDoesNotThrow(() -> {
+			when(endpoint.call(any(), eq(List.of("0", "1")), any(), any(), eq(manager), any(MultipartParser.class), any())).thenAnswer((invocation) -> {
+				callResource = invocation.getArgument(0);
+				parser[0] = invocation.getArgument(5);
+				return new Object();
+			});
+		});
+		mockReturnType();
+		handle();
+		assertNotNull(parser[0]);
+		verify(request, times(0)).getParts();
+		assertOk();
+	}
+
+	@Test
+	void handlesWithStreamingMultipartAndPendingAsync() throws IOException {
+		streaming = true;
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		when(request.getContentType()).thenReturn("multipart/form-data; boundary=boundary");
+		mockInputStream();
+		mockResourceType();
+		AsyncContext asyncContext = mockAsyncContext();
+		when(endpoint.isAsync()).thenReturn(true);
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		assertDoesNotThrow(() -> {
+			when(endpoint.call(any(), eq(List.of("0", "1")), any(), any(), eq(manager), any(MultipartParser.class), any())).thenReturn(future);
+		});
+		mockReturnType();
+		try (MockedConstruction<MultipartParser> construction = mockConstruction(MultipartParser.class)) {
+			handle();
+			MultipartParser parser = construction.constructed().get(0);
+			verify(parser, times(0)).close();
+			future.complete(new Object());
+			verify(parser).close();
+		}
+		verify(asyncContext).complete();
+	}
+
+	@Test
+	void handlesWithStreamingMultipartWithoutBoundary() throws ServletException, IOException {
+		streaming = true;
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockMultipartContentType();
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		verify(request, times(0)).getParts();
+		assertBadRequest("Parts could not be parsed");
+	}
+
 	@Test
 	void handlesWithOnePart() {
 		mockMethod();
@@ -943,6 +1903,43 @@ class HandlerTest {
 		assertPayloadTooLarge("Multipart request is too large or one of the parts is too large");
 	}
 
+	@Test
+	void handlesWithLargeMultipartContentLength() throws ServletException, IOException {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockMultipartContentType();
+		when(request.getContentLengthLong()).thenReturn(2000001L);
+		when(element.getMaxRequestSize()).thenReturn(2000000L);
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		verify(request, times(0)).getParts();
+		assertPayloadTooLarge("Multipart request exceeds 2000000 bytes");
+	}
+
+	@Test
+	void handlesWithLargeContentLength() throws IOException {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		when(request.getContentLengthLong()).thenReturn(200001L);
+		doThrow(new PayloadTooLargeException("Request body exceeds 200000 bytes")).when(endpoint).checkContentLength(200001);
+		mockInputStream();
+		mockResourceType();
+		mockCall();
+		mockReturnType();
+		handle();
+		verify(request, times(0)).getInputStream();
+		assertPayloadTooLarge("Request body exceeds 200000 bytes");
+	}
+
 	private void mockMultipartContentType() {
 		when(request.getContentType()).thenReturn("multipart/form-data");
 	}
@@ -1004,6 +2001,7 @@ class HandlerTest {
 		mockNode();
 		mockMethodNames();
 		mockEndpoint();
+		mockReturnType();
 		mockContentType();
 		ServletInputStream stream = mockInputStream();
 		mockResourceType();
@@ -1018,7 +2016,7 @@ class HandlerTest {
 
 	private void mockRestExceptionCall(int status, Object body) {
 		assertDoesNotThrow(() -> {
-			when(endpoint.call(any(), eq(List.of("0", "1")), eq(Map.of()), any())).thenAnswer((invocation) -> {
+			when(endpoint.call(any(), eq(List.of("0", "1")), any(), any(), eq(Map.of()), any())).thenAnswer((invocation) -> {
 				saveCall(invocation);
 				throw new RestException(status, body);
 			});
@@ -1161,7 +2159,7 @@ class HandlerTest {
 
 	private void mockNullCall() {
 		assertDoesNotThrow(() -> {
-			when(endpoint.call(any(), eq(List.of("0", "1")), eq(Map.of()), any())).thenAnswer((invocation) -> {
+			when(endpoint.call(any(), eq(List.of("0", "1")), any(), any(), eq(Map.of()), any())).thenAnswer((invocation) -> {
 				saveCall(invocation);
 				return null;
 			});
@@ -1244,6 +2242,167 @@ class HandlerTest {
 		assertException(502);
 	}
 
+	@Test
+	void handlesWithAsync() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		AsyncContext asyncContext = mockAsyncContext();
+		mockAsyncCall(CompletableFuture.completedFuture(new Object()));
+		mockReturnType();
+		handle();
+		assertItemList();
+		assertBody(stream);
+		verify(asyncContext).setTimeout(30000);
+		verify(asyncContext).complete();
+		assertOk();
+	}
+
+	@Test
+	void handlesWithPendingAsync() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		AsyncContext asyncContext = mockAsyncContext();
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		mockAsyncCall(future);
+		mockReturnType();
+		handle();
+		assertItemList();
+		assertBody(stream);
+		assertNoStatus();
+		verify(asyncContext, times(0)).complete();
+		future.complete(new Object());
+		verify(asyncContext).complete();
+		assertOk();
+	}
+
+	@Test
+	void handlesWithPendingAsyncInsideAnotherSingleton() throws NoSuchMethodException, IllegalAccessException {
+		putHandle(MethodHandles.lookup(), SingletonResource.class);
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		mockInputStream();
+		mockResourceType(SingletonResource.class);
+		AsyncContext asyncContext = mockAsyncContext();
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		mockAsyncCall(future);
+		mockReturnType();
+		handle();
+		MethodHandle handle = MethodHandles.lookup().findConstructor(InitializedSingletonResource.class, MethodType.methodType(void.class));
+		Lifecycle other = Lifecycle.newInstance(InitializedSingletonResource.class, handle.asType(MethodType.methodType(RestResource.class)));
+		RestResource otherResource = other.acquire();
+		otherResource.setFields(new HashMap<>(), mock(Headers.class), mock(Queries.class), mock(HttpServletResponse.class));
+		future.complete(new Object());
+		verify(asyncContext).complete();
+		verify(response).setStatus(200);
+		assertEquals(201, otherResource.getStatus());
+		other.release(otherResource);
+	}
+
+	@Test
+	void handlesWithAsyncRestException() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		AsyncContext asyncContext = mockAsyncContext();
+		mockAsyncCall(CompletableFuture.failedFuture(new CompletionException(new RestException(450, new Object()))));
+		mockReturnType();
+		handle();
+		assertItemList();
+		assertBody(stream);
+		verify(asyncContext).complete();
+		assertResponseWithoutHeaders(450);
+	}
+
+	@Test
+	void handlesWithAsyncGatewayException() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		AsyncContext asyncContext = mockAsyncContext();
+		gatewayTypes.add(NullPointerException.class);
+		mockAsyncCall(CompletableFuture.failedFuture(new NullPointerException()));
+		mockReturnType();
+		handle();
+		assertItemList();
+		assertBody(stream);
+		verify(asyncContext).complete();
+		assertException(502);
+	}
+
+	@Test
+	void handlesWithAsyncTimeout() {
+		mockMethod();
+		mockRequestUri();
+		mockNode();
+		mockMethodNames();
+		mockEndpoint();
+		mockContentType();
+		ServletInputStream stream = mockInputStream();
+		mockResourceType();
+		AsyncContext asyncContext = mockAsyncContext();
+		List<AsyncListener> listeners = new ArrayList<>();
+		doAnswer((invocation) -> {
+			listeners.add(invocation.getArgument(0));
+			return null;
+		}).when(asyncContext).addListener(any());
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		mockAsyncCall(future);
+		mockReturnType();
+		handle();
+		assertItemList();
+		assertBody(stream);
+		assertDoesNotThrow(() -> {
+			listeners.get(0).onTimeout(null);
+		});
+		future.complete(new Object());
+		verify(asyncContext).complete();
+		assertNoStatus();
+		verifyNoServletWrite();
+		verifyError(503, "Response timed out");
+	}
+
+	private AsyncContext mockAsyncContext() {
+		AsyncContext asyncContext = mock(AsyncContext.class);
+		when(request.startAsync()).thenReturn(asyncContext);
+		return asyncContext;
+	}
+
+	private void mockAsyncCall(CompletableFuture<Object> future) {
+		when(endpoint.isAsync()).thenReturn(true);
+		assertDoesNotThrow(() -> {
+			when(endpoint.call(any(), eq(List.of("0", "1")), any(), any(), eq(Map.of()), any())).thenAnswer((invocation) -> {
+				saveCall(invocation);
+				return future;
+			});
+		});
+	}
+
 	@Test
 	void handlesWithSingleException() {
 		mockMethod();
@@ -1294,7 +2453,7 @@ class HandlerTest {
 			throw new AssertionError(error);
 		}
 		assertDoesNotThrow(() -> {
-			when(endpoint.call(any(), eq(List.of("0", "1")), eq(Map.of()), any())).thenAnswer((invocation) -> {
+			when(endpoint.call(any(), eq(List.of("0", "1")), any(), any(), eq(Map.of()), any())).thenAnswer((invocation) -> {
 				saveCall(invocation);
 				throw exception;
 			});
@@ -1359,10 +2518,12 @@ class HandlerTest {
 
 	private void mockMethodNames() {
 		when(node.getMethodNames()).thenReturn(new LinkedHashSet<>(List.of("GET", "POST")));
+		when(node.getAllow()).thenReturn("GET, POST");
 	}
 
 	private void mockVarMethodNames() {
 		when(node.getVarMethodNames()).thenReturn(new LinkedHashSet<>(List.of("PUT", "PATCH")));
+		when(node.getVarAllow()).thenReturn("PUT, PATCH");
 	}
 
 	private void mockEndpoint() {
@@ -1415,7 +2576,7 @@ class HandlerTest {
 			itemList.add(item);
 		}
 		assertDoesNotThrow(() -> {
-			when(endpoint.call(any(), eq(itemList), any(), any())).thenAnswer((invocation) -> {
+			when(endpoint.call(any(), eq(itemList), any(), any(), any(), any())).thenAnswer((invocation) -> {
 				saveCall(invocation);
 				return new Object();
 			});
@@ -1425,8 +2586,10 @@ class HandlerTest {
 	private void saveCall(InvocationOnMock invocation) {
 		callResource = invocation.getArgument(0);
 		callItemList = invocation.getArgument(1);
-		callPartMap = invocation.getArgument(2);
-		callBody = invocation.getArgument(3);
+		callQueries = invocation.getArgument(2);
+		callHeaders = invocation.getArgument(3);
+		callPartMap = invocation.getArgument(4);
+		callBody = invocation.getArgument(5);
 	}
 
 	private void mockReturnType() {
@@ -1461,14 +2624,14 @@ class HandlerTest {
 	}
 
 	private void assertHeaders() {
-		verify(response, times(0)).addHeader(any(), any());
+		verify(response, times(0)).addHeader(argThat((name) -> !name.equals("Vary")), any());
 	}
 
 	private void assertFields() {
 		Headers headers = (Headers) callResource.headers;
 		assertSame(fields, headers.getFields());
 		Queries queries = (Queries) callResource.queries;
-		assertSame(map, queries.getMap());
+		assertSame(query, queries.getQuery());
 	}
 
 	private void assertNoStatus() {
@@ -1528,27 +2691,6 @@ class HandlerTest {
 		};
 	}
 
-	@Test
-	void doesNotInvoke() {
-		h = newHandler();
-		Lookup lookup = MethodHandles.lookup();
-		Constructor<? extends RestResource> constructor;
-		try {
-			constructor = ResourceWithException.class.getDeclaredConstructor();
-		} catch (NoSuchMethodException exception) {
-			throw new AssertionError();
-		}
-		MethodHandle handle;
-		try {
-			handle = lookup.unreflectConstructor(constructor);
-		} catch (IllegalAccessException exception) {
-			throw new AssertionError();
-		}
-		assertThrows(AssertionError.class, () -> {
-			h.invoke(handle);
-		});
-	}
-
 	@Test
 	void writes() {
 		mockCharset();
@@ -1560,6 +2702,161 @@ class HandlerTest {
 		verifyNoFlush();
 	}
 
+	@Test
+	void writesWithPlan() {
+		when(resource.getCharset()).thenReturn(Defaults.CHARSET);
+		mockWithoutBase64();
+		mockWithoutCommitted();
+		mockPlanSerializer();
+		assertTrue(writeDirectly(REGULAR_CONTENT, String.class, null));
+		verify(response).setContentType("type/subtype;charset=%s".formatted(Defaults.CHARSET.name()));
+		verify(manager, times(0)).getSerializerType(any(), any(), any());
+		verify(manager, times(0)).getSerializer("other/subtype");
+		assertEqualsBytes(REGULAR_CONTENT, Defaults.CHARSET, false);
+		verifyNoFlush();
+	}
+
+	@Test
+	void writesWithPlanTwice() {
+		when(resource.getCharset()).thenReturn(Defaults.CHARSET);
+		mockWithoutBase64();
+		mockWithoutCommitted();
+		mockPlanSerializer();
+		h = newHandler();
+		h.write(response, resource, REGULAR_CONTENT, String.class, null, new ByteArrayOutputStream());
+		h.write(response, resource, REGULAR_CONTENT, String.class, null, new ByteArrayOutputStream());
+		verify(manager, times(1)).getDefaultType(String.class);
+		verify(manager, times(1)).getSerializer("type/subtype");
+	}
+
+	@Test
+	void writesWithoutPlanIfCharsetIsDifferent() {
+		Charset charset;
+		if (Defaults.CHARSET.equals(StandardCharsets.UTF_8)) {
+			charset = StandardCharsets.ISO_8859_1;
+		} else {
+			charset = StandardCharsets.UTF_8;
+		}
+		when(resource.getCharset()).thenReturn(charset);
+		mockWithoutBase64();
+		mockWithoutCommitted();
+		mockPlanSerializer();
+		assertTrue(writeDirectly(REGULAR_CONTENT, String.class, null));
+		verify(response).setContentType("other/subtype;charset=%s".formatted(charset.name()));
+		assertEqualsBytes(REGULAR_CONTENT, charset, false);
+	}
+
+	@Test
+	void writesWithoutPlanIfBase64() {
+		when(resource.getCharset()).thenReturn(Defaults.CHARSET);
+		mockWithBase64();
+		mockWithoutCommitted();
+		mockPlanSerializer();
+		assertTrue(writeDirectly(REGULAR_CONTENT, String.class, null));
+		verify(response).setContentType("other/subtype;charset=%s;base64".formatted(Defaults.CHARSET.name()));
+		verify(manager, times(0)).getDefaultType(any());
+	}
+
+	@Test
+	void writesWithoutPlanIfExtension() {
+		when(resource.getCharset()).thenReturn(Defaults.CHARSET);
+		mockWithoutBase64();
+		mockWithoutCommitted();
+		mockPlanSerializer();
+		when(manager.getSerializerType("text/plain", REGULAR_CONTENT, String.class)).thenReturn("other/subtype");
+		assertTrue(writeDirectly(REGULAR_CONTENT, String.class, "text/plain"));
+		verify(response).setContentType("other/subtype;charset=%s".formatted(Defaults.CHARSET.name()));
+		verify(manager, times(0)).getDefaultType(any());
+	}
+
+	@Test
+	void writesWithoutPlanIfDefaultTypeIsMissing() {
+		when(resource.getCharset()).thenReturn(Defaults.CHARSET);
+		mockWithoutBase64();
+		mockWithoutCommitted();
+		mockPlanSerializer();
+		when(manager.getDefaultType(String.class)).thenReturn(null);
+		assertTrue(writeDirectly(REGULAR_CONTENT, String.class, null));
+		verify(response).setContentType("other/subtype;charset=%s".formatted(Defaults.CHARSET.name()));
+		assertSame(h.getPlan(String.class), h.getPlan(String.class));
+		assertNull(h.getPlan(String.class).contentType());
+	}
+
+	@Test
+	void writesWithoutPlanIfSerializerIsMissing() {
+		when(resource.getCharset()).thenReturn(Defaults.CHARSET);
+		mockWithoutBase64();
+		mockWithoutCommitted();
+		mockPlanSerializer();
+		when(manager.getSerializer("type/subtype")).thenThrow(TypeException.class);
+		assertTrue(writeDirectly(REGULAR_CONTENT, String.class, null));
+		verify(response).setContentType("other/subtype;charset=%s".formatted(Defaults.CHARSET.name()));
+	}
+
+	@Test
+	void writesBinaryWithPlan() {
+		mockWithoutBase64();
+		mockWithoutCommitted();
+		byte[] actual = REGULAR_CONTENT.getBytes(StandardCharsets.US_ASCII);
+		Assembler assembler = mock(Assembler.class);
+		doAnswer((invocation) -> {
+			OutputStream output = invocation.getArgument(2);
+			output.write(actual);
+			return null;
+		}).when(assembler).write(eq(actual), eq(byte[].class), any());
+		when(resource.getContentType()).thenReturn(null);
+		when(manager.isBinary(byte[].class)).thenReturn(true);
+		when(manager.getDefaultType(byte[].class)).thenReturn("type/subtype");
+		when(manager.getAssembler("type/subtype")).thenReturn(assembler);
+		assertTrue(writeDirectly(actual, byte[].class, null));
+		verify(response).setContentType("type/subtype");
+		verify(manager, times(0)).getAssemblerType(any(), any(), any());
+		assertEqualsBytes(REGULAR_CONTENT, StandardCharsets.US_ASCII, false);
+		assertFalse(h.getPlan(byte[].class).withoutLength());
+	}
+
+	@Test
+	void getsStreamPlan() {
+		when(manager.isBinary(InputStream.class)).thenReturn(true);
+		when(manager.getDefaultType(InputStream.class)).thenReturn("type/subtype");
+		when(manager.getAssembler("type/subtype")).thenReturn(mock(Assembler.class));
+		h = newHandler();
+		Plan plan = h.getPlan(InputStream.class);
+		assertEquals("type/subtype", plan.contentType());
+		assertNull(plan.serializer());
+		assertNull(plan.charset());
+		assertTrue(plan.withoutLength());
+	}
+
+	@Test
+	void getsReaderPlan() {
+		when(manager.isBinary(Reader.class)).thenReturn(false);
+		when(manager.getDefaultType(Reader.class)).thenReturn("type/subtype");
+		when(manager.getSerializer("type/subtype")).thenReturn(mock(Serializer.class));
+		h = newHandler();
+		Plan plan = h.getPlan(Reader.class);
+		assertEquals("type/subtype;charset=%s".formatted(Defaults.CHARSET.name()), plan.contentType());
+		assertNull(plan.assembler());
+		assertEquals(Defaults.CHARSET, plan.charset());
+		assertTrue(plan.withoutLength());
+	}
+
+	private void mockPlanSerializer() {
+		Serializer serializer = mock(Serializer.class);
+		doAnswer((invocation) -> {
+			String str = invocation.getArgument(0);
+			Writer writer = invocation.getArgument(2);
+			writer.write(str);
+			return null;
+		}).when(serializer).write(eq(REGULAR_CONTENT), eq(String.class), any());
+		when(resource.getContentType()).thenReturn(null);
+		when(manager.isBinary(String.class)).thenReturn(false);
+		when(manager.getDefaultType(String.class)).thenReturn("type/subtype");
+		when(manager.getSerializer("type/subtype")).thenReturn(serializer);
+		when(manager.getSerializerType(null, REGULAR_CONTENT, String.class)).thenReturn("other/subtype");
+		when(manager.getSerializer("other/subtype")).thenReturn(serializer);
+	}
+
 	@Test
 	void writesWithISO88591() {
 		when(resource.getCharset()).thenReturn(StandardCharsets.ISO_8859_1);
@@ -1739,6 +3036,64 @@ class HandlerTest {
 		return write(actual, type);
 	}
 
+	@Test
+	void writesLength() {
+		mockCharset();
+		mockWithoutBase64();
+		mockWithoutCommitted();
+		Serializer serializer = mockSerializer(SPECIAL_CONTENT);
+		when(serializer.length(SPECIAL_CONTENT, String.class, StandardCharsets.UTF_8)).thenReturn(10L);
+		CountOutputStream countStream = new CountOutputStream();
+		assertTrue(write(SPECIAL_CONTENT, String.class, null, countStream));
+		verify(response).setContentType("type/subtype;charset=UTF-8");
+		verify(serializer, times(0)).write(any(), any(), any());
+		assertEquals(10, countStream.getCount());
+	}
+
+	@Test
+	void writesLengthWithBase64() {
+		mockCharset();
+		mockWithBase64();
+		mockWithoutCommitted();
+		Serializer serializer = mockSerializer(SPECIAL_CONTENT);
+		when(serializer.length(SPECIAL_CONTENT, String.class, StandardCharsets.UTF_8)).thenReturn(10L);
+		CountOutputStream countStream = new CountOutputStream();
+		assertTrue(write(SPECIAL_CONTENT, String.class, null, countStream));
+		verify(response).setContentType("type/subtype;charset=UTF-8;base64");
+		verify(serializer, times(0)).write(any(), any(), any());
+		assertEquals(16, countStream.getCount());
+	}
+
+	@Test
+	void writesLengthWithoutHook() {
+		mockCharset();
+		mockWithoutBase64();
+		mockWithoutCommitted();
+		mockSerializerWithoutException(SPECIAL_CONTENT);
+		when(manager.getSerializer("type/subtype").length(SPECIAL_CONTENT, String.class, StandardCharsets.UTF_8)).thenReturn(-1L);
+		CountOutputStream countStream = new CountOutputStream();
+		assertTrue(write(SPECIAL_CONTENT, String.class, null, countStream));
+		assertEquals(SPECIAL_CONTENT.getBytes(StandardCharsets.UTF_8).length, countStream.getCount());
+	}
+
+	@Test
+	void writesBinaryLength() {
+		mockWithoutBase64();
+		mockWithoutCommitted();
+		byte[] actual = REGULAR_CONTENT.getBytes(StandardCharsets.US_ASCII);
+		Assembler assembler = mock(Assembler.class);
+		when(resource.getContentType()).thenReturn(null);
+		when(manager.isBinary(byte[].class)).thenReturn(true);
+		when(manager.getAssemblerType(null, actual, byte[].class)).thenReturn("type/subtype");
+		when(manager.getAssembler("type/subtype")).thenReturn(assembler);
+		when(assembler.length(actual, byte[].class)).thenReturn((long) actual.length);
+		CountOutputStream countStream = new CountOutputStream();
+		assertTrue(write(actual, byte[].class, null, countStream));
+		verify(response).setContentType("type/subtype");
+		verify(assembler, times(0)).write(any(), any(), any());
+		assertEquals(actual.length, countStream.getCount());
+	}
+
 	@Test
 	void writesDirectly() {
 		mockCharset();
@@ -2258,6 +3613,6 @@ class HandlerTest {
 	}
 
 	private Handler newHandler(boolean cors) {
-		return new Handler(manager, tree, formatter, handles, element, gatewayTypes, StandardCharsets.UTF_8, cors);
+		return new Handler(manager, tree, formatter, handles, element, streaming, gatewayTypes, StandardCharsets.UTF_8, cors, routeCache, responseCache, inflation, etag, asyncTimeout);
 	}
 }
@@ -0,0 +1,155 @@
+package br.pro.hashi.sdx.rest.server;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import br.pro.hashi.sdx.rest.server.exception.MessageRestException;
+import br.pro.hashi.sdx.rest.server.exception.PayloadTooLargeException;
+
+class InflationTest {
+	private static final double DELTA = 0.000001;
+
+	private Inflation i;
+
+	@Test
+	void initializesWithoutBodies() {
+		i = new Inflation(1000);
+		assertEquals(1000, i.getMaxSize());
+		assertEquals(0, i.getCount());
+		assertEquals(0, i.getCompressedSize());
+		assertEquals(0, i.getSize());
+		assertEquals(0, i.getRatio(), DELTA);
+		assertEquals(0, i.getRejections());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "identity", " Identity ", "" })
+	void getsIdentityEncoding(String contentEncoding) {
+		i = new Inflation(1000);
+		assertNull(i.getEncoding(contentEncoding));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "gzip", "GZIP", " gzip ", "x-gzip" })
+	void getsGzipEncoding(String contentEncoding) {
+		i = new Inflation(1000);
+		assertEquals("gzip", i.getEncoding(contentEncoding));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "deflate", "Deflate", " deflate " })
+	void getsDeflateEncoding(String contentEncoding) {
+		i = new Inflation(1000);
+		assertEquals("deflate", i.getEncoding(contentEncoding));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "br", "compress", "gzip, br" })
+	void doesNotGetEncoding(String contentEncoding) {
+		i = new Inflation(1000);
+		MessageRestException exception = assertThrows(MessageRestException.class, () -> {
+			i.getEncoding(contentEncoding);
+		});
+		assertEquals(415, exception.getStatus());
+		assertEquals("Content encoding %s is not supported".formatted(contentEncoding), exception.getBody());
+	}
+
+	@Test
+	void inflates() throws IOException {
+		i = new Inflation(1000);
+		byte[] bytes = newByteArray(1000);
+		byte[] compressed = compress(bytes);
+		InputStream stream = i.inflate(new ByteArrayInputStream(compressed), "gzip", 0);
+		assertArrayEquals(bytes, stream.readAllBytes());
+		stream = i.inflate(new ByteArrayInputStream(compressed), "gzip", 0);
+		assertArrayEquals(bytes, stream.readAllBytes());
+		assertEquals(2, i.getCount());
+		assertEquals(2 * compressed.length, i.getCompressedSize());
+		assertEquals(2000, i.getSize());
+		assertEquals(1000.0 / compressed.length, i.getRatio(), DELTA);
+		assertEquals(0, i.getRejections());
+	}
+
+	@Test
+	void rejects() {
+		i = new Inflation(999);
+		InputStream stream = i.inflate(new ByteArrayInputStream(compress(newByteArray(1000))), "gzip", 0);
+		assertThrows(PayloadTooLargeException.class, () -> {
+			stream.readAllBytes();
+		});
+		assertEquals(0, i.getCount());
+		assertEquals(0, i.getCompressedSize());
+		assertEquals(0, i.getSize());
+		assertEquals(1, i.getRejections());
+	}
+
+	@Test
+	void rejectsAboveBodySize() {
+		i = new Inflation(1000);
+		InputStream stream = i.inflate(new ByteArrayInputStream(compress(newByteArray(1000))), "gzip", 999);
+		PayloadTooLargeException exception = assertThrows(PayloadTooLargeException.class, () -> {
+			stream.readAllBytes();
+		});
+		assertEquals("Decompressed request body exceeds 999 bytes", exception.getBody());
+		assertEquals(1, i.getRejections());
+	}
+
+	@Test
+	void rejectsAboveMaxSize() {
+		i = new Inflation(999);
+		InputStream stream = i.inflate(new ByteArrayInputStream(compress(newByteArray(1000))), "gzip", 2000);
+		PayloadTooLargeException exception = assertThrows(PayloadTooLargeException.class, () -> {
+			stream.readAllBytes();
+		});
+		assertEquals("Decompressed request body exceeds 999 bytes", exception.getBody());
+		assertEquals(1, i.getRejections());
+	}
+
+	@Test
+	void inflatesWithinBodySizeWithoutMaxSize() throws IOException {
+		i = new Inflation(0);
+		InputStream stream = i.inflate(new ByteArrayInputStream(compress(newByteArray(1000))), "gzip", 1000);
+		assertEquals(1000, stream.readAllBytes().length);
+		assertEquals(1, i.getCount());
+	}
+
+	@Test
+	void recordsOnClose() throws IOException {
+		i = new Inflation(1000);
+		InputStream stream = i.inflate(new ByteArrayInputStream(compress(newByteArray(1000))), "gzip", 0);
+		stream.readNBytes(10);
+		stream.close();
+		assertEquals(1, i.getCount());
+		assertEquals(10, i.getSize());
+		assertEquals(0, i.getRejections());
+	}
+
+	private byte[] newByteArray(int length) {
+		byte[] bytes = new byte[length];
+		Arrays.fill(bytes, (byte) 97);
+		return bytes;
+	}
+
+	private byte[] compress(byte[] bytes) {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		try (GZIPOutputStream output = new GZIPOutputStream(stream)) {
+			output.write(bytes);
+		} catch (IOException exception) {
+			throw new AssertionError(exception);
+		}
+		return stream.toByteArray();
+	}
+}
@@ -0,0 +1,219 @@
+package br.pro.hashi.sdx.rest.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import br.pro.hashi.sdx.rest.reflection.Headers;
+import br.pro.hashi.sdx.rest.reflection.Queries;
+import br.pro.hashi.sdx.rest.server.exception.ResourceException;
+import br.pro.hashi.sdx.rest.server.mock.invalid.ResourceWithException;
+import br.pro.hashi.sdx.rest.server.mock.lifecycle.InitializedPooledResource;
+import br.pro.hashi.sdx.rest.server.mock.lifecycle.InitializedSingletonResource;
+import br.pro.hashi.sdx.rest.server.mock.lifecycle.PooledResource;
+import br.pro.hashi.sdx.rest.server.mock.lifecycle.PooledResourceWithResetException;
+import br.pro.hashi.sdx.rest.server.mock.lifecycle.ResourceWithBothLifecycles;
+import br.pro.hashi.sdx.rest.server.mock.lifecycle.ResettablePooledResource;
+import br.pro.hashi.sdx.rest.server.mock.lifecycle.ResourceWithEmptyPool;
+import br.pro.hashi.sdx.rest.server.mock.lifecycle.SingletonResource;
+import br.pro.hashi.sdx.rest.server.mock.valid.ConcreteResource;
+import jakarta.servlet.http.HttpServletResponse;
+
+class LifecycleTest {
+	private Lifecycle l;
+
+	@Test
+	void createsPerRequest() {
+		l = newLifecycle(ConcreteResource.class);
+		assertInstanceOf(Lifecycle.PerRequest.class, l);
+		RestResource resource = l.acquire();
+		assertInstanceOf(ConcreteResource.class, resource);
+		assertFalse(resource.isShared());
+		l.release(resource);
+		assertNotSame(resource, l.acquire());
+	}
+
+	@Test
+	void createsSingleton() {
+		l = newLifecycle(SingletonResource.class);
+		assertInstanceOf(Lifecycle.Shared.class, l);
+		RestResource resource = l.acquire();
+		assertInstanceOf(SingletonResource.class, resource);
+		assertTrue(resource.isShared());
+		l.release(resource);
+		assertSame(resource, l.acquire());
+	}
+
+	@Test
+	void createsPool() {
+		l = newLifecycle(PooledResource.class);
+		assertInstanceOf(Lifecycle.Pool.class, l);
+		RestResource resource = l.acquire();
+		assertInstanceOf(PooledResource.class, resource);
+		assertFalse(resource.isShared());
+		RestResource extra = l.acquire();
+		assertNotSame(resource, extra);
+		l.release(resource);
+		l.release(extra);
+		assertEquals(1, ((Lifecycle.Pool) l).getIdle().size());
+		assertSame(resource, l.acquire());
+	}
+
+	@Test
+	void resetsPooled() {
+		l = newLifecycle(PooledResource.class);
+		RestResource resource = l.acquire();
+		setFields(resource);
+		resource.status(201);
+		resource.inBase64();
+		assertEquals(201, resource.getStatus());
+		l.release(resource);
+		assertNull(resource.headers);
+		assertNull(resource.queries);
+		assertNull(resource.headersMap);
+		resource = l.acquire();
+		setFields(resource);
+		assertEquals(-1, resource.getStatus());
+		assertFalse(resource.isBase64());
+	}
+
+	@Test
+	void isolatesSingleton() throws InterruptedException {
+		l = newLifecycle(SingletonResource.class);
+		RestResource resource = l.acquire();
+		setFields(resource);
+		resource.status(201);
+		assertNull(resource.headers);
+		AtomicInteger status = new AtomicInteger();
+		Thread thread = new Thread(() -> {
+			setFields(resource);
+			status.set(resource.getStatus());
+			resource.clearFields();
+		});
+		thread.start();
+		thread.join();
+		assertEquals(-1, status.get());
+		assertEquals(201, resource.getStatus());
+		l.release(resource);
+	}
+
+	@Test
+	void resetsPooledState() {
+		l = newLifecycle(ResettablePooledResource.class);
+		ResettablePooledResource resource = (ResettablePooledResource) l.acquire();
+		setFields(resource);
+		resource.value = "value";
+		l.release(resource);
+		assertSame(resource, l.acquire());
+		assertNull(resource.value);
+	}
+
+	@Test
+	void discardsPooledIfResetThrows() {
+		l = newLifecycle(PooledResourceWithResetException.class);
+		RestResource resource = l.acquire();
+		setFields(resource);
+		l.release(resource);
+		assertTrue(((Lifecycle.Pool) l).getIdle().isEmpty());
+		assertNotSame(resource, l.acquire());
+	}
+
+	@Test
+	void resetsPooledToInitialState() {
+		l = newLifecycle(InitializedPooledResource.class);
+		RestResource resource = l.acquire();
+		setFields(resource);
+		assertEquals(201, resource.getStatus());
+		resource.status(202);
+		l.release(resource);
+		resource = l.acquire();
+		setFields(resource);
+		assertEquals(201, resource.getStatus());
+	}
+
+	@Test
+	void isolatesSingletonWithInitialState() {
+		l = newLifecycle(InitializedSingletonResource.class);
+		RestResource resource = l.acquire();
+		setFields(resource);
+		assertEquals(201, resource.getStatus());
+		resource.status(202);
+		l.release(resource);
+		setFields(resource);
+		assertEquals(201, resource.getStatus());
+		l.release(resource);
+	}
+
+	@Test
+	void doesNotAccessSingletonOutsideRequest() throws InterruptedException {
+		l = newLifecycle(SingletonResource.class);
+		RestResource resource = l.acquire();
+		setFields(resource);
+		AtomicReference<IllegalStateException> exception = new AtomicReference<>();
+		Thread thread = new Thread(() -> {
+			exception.set(assertThrows(IllegalStateException.class, () -> {
+				resource.getHeaders();
+			}));
+		});
+		thread.start();
+		thread.join();
+		assertNotNull(exception.get());
+		l.release(resource);
+		assertThrows(IllegalStateException.class, () -> {
+			resource.getQueries();
+		});
+	}
+
+	@Test
+	void doesNotCreateWithBothLifecycles() {
+		assertThrows(ResourceException.class, () -> {
+			newLifecycle(ResourceWithBothLifecycles.class);
+		});
+	}
+
+	@Test
+	void doesNotCreateWithEmptyPool() {
+		assertThrows(ResourceException.class, () -> {
+			newLifecycle(ResourceWithEmptyPool.class);
+		});
+	}
+
+	@Test
+	void doesNotCreateWithException() {
+		l = newLifecycle(ResourceWithException.class);
+		assertThrows(AssertionError.class, () -> {
+			l.acquire();
+		});
+	}
+
+	private void setFields(RestResource resource) {
+		HttpServletResponse response = mock(HttpServletResponse.class);
+		resource.setFields(new HashMap<>(), mock(Headers.class), mock(Queries.class), response);
+	}
+
+	private Lifecycle newLifecycle(Class<? extends RestResource> type) {
+		MethodHandle handle;
+		try {
+			handle = MethodHandles.lookup().findConstructor(type, MethodType.methodType(void.class));
+		} catch (NoSuchMethodException | IllegalAccessException exception) {
+			throw new AssertionError(exception);
+		}
+		return Lifecycle.newInstance(type, handle.asType(MethodType.methodType(RestResource.class)));
+	}
+}
@@ -0,0 +1,181 @@
+package br.pro.hashi.sdx.rest.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import br.pro.hashi.sdx.rest.server.ResponseCache.Entry;
+import br.pro.hashi.sdx.rest.server.ResponseCache.Key;
+import br.pro.hashi.sdx.rest.server.StripedLruCache.Stripe;
+
+class ResponseCacheTest {
+	private static final double DELTA = 0.000001;
+
+	private ResponseCache c;
+
+	@Test
+	void initializesWithOneStripe() {
+		c = new ResponseCache(1000, 30000);
+		assertEquals(1000, c.getMaxSize());
+		assertEquals(1, c.getCache().getStripes().length);
+		assertEquals(1000, c.getCache().getStripes()[0].getCapacity());
+	}
+
+	@Test
+	void initializesWithSomeStripes() {
+		c = new ResponseCache(400000, 30000);
+		assertEquals(400000, c.getMaxSize());
+		assertEquals(4, c.getCache().getStripes().length);
+		for (Stripe<?, ?> stripe : c.getCache().getStripes()) {
+			assertEquals(100000, stripe.getCapacity());
+		}
+	}
+
+	@Test
+	void initializesWithMaxStripes() {
+		c = new ResponseCache(10000000, 30000);
+		assertEquals(10000000, c.getMaxSize());
+		assertEquals(16, c.getCache().getStripes().length);
+		for (Stripe<?, ?> stripe : c.getCache().getStripes()) {
+			assertEquals(625000, stripe.getCapacity());
+		}
+	}
+
+	@Test
+	void initializesWithWaitTimeout() {
+		c = new ResponseCache(1000, 500);
+		assertEquals(500, c.getWaitTimeout());
+	}
+
+	@Test
+	void initializesWithoutResponses() {
+		c = new ResponseCache(1000, 30000);
+		assertEquals(0, c.getSize());
+		assertEquals(0, c.getHits());
+		assertEquals(0, c.getMisses());
+		assertEquals(0, c.getHitRate(), DELTA);
+		assertTrue(c.getFills().isEmpty());
+	}
+
+	@Test
+	void claimsAndReleases() {
+		c = new ResponseCache(1000, 30000);
+		Key key = newKey("a");
+		Entry entry = newEntry(10, 60000);
+		assertNull(c.get(key));
+		assertNull(c.claim(key));
+		assertFalse(c.getFills().isEmpty());
+		c.release(key, entry);
+		assertTrue(c.getFills().isEmpty());
+		assertSame(entry, c.get(key));
+		assertSame(entry, c.get(key));
+		assertEquals(10, c.getSize());
+		assertEquals(2, c.getHits());
+		assertEquals(1, c.getMisses());
+		assertEquals(2.0 / 3, c.getHitRate(), DELTA);
+	}
+
+	@Test
+	void claimsPending() {
+		c = new ResponseCache(1000, 30000);
+		Key key = newKey("a");
+		Entry entry = newEntry(10, 60000);
+		assertNull(c.claim(key));
+		CompletableFuture<Entry> pending = c.claim(key);
+		assertFalse(pending.isDone());
+		c.release(key, entry);
+		assertSame(entry, pending.join());
+	}
+
+	@Test
+	void claimsReleased() {
+		c = new ResponseCache(1000, 30000);
+		Key key = newKey("a");
+		Entry entry = newEntry(10, 60000);
+		assertNull(c.claim(key));
+		c.release(key, entry);
+		assertSame(entry, c.claim(key).join());
+		assertTrue(c.getFills().isEmpty());
+	}
+
+	@Test
+	void releasesWithoutEntry() {
+		c = new ResponseCache(1000, 30000);
+		Key key = newKey("a");
+		assertNull(c.claim(key));
+		CompletableFuture<Entry> pending = c.claim(key);
+		c.release(key, null);
+		assertNull(pending.join());
+		assertTrue(c.getFills().isEmpty());
+		assertEquals(0, c.getSize());
+		assertNull(c.claim(key));
+	}
+
+	@Test
+	void expires() {
+		c = new ResponseCache(1000, 30000);
+		Key key = newKey("a");
+		c.claim(key);
+		c.release(key, newEntry(10, 0));
+		assertNull(c.get(key));
+		assertEquals(0, c.getSize());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsed() {
+		c = new ResponseCache(25, 30000);
+		Key key0 = newKey("a");
+		Key key1 = newKey("b");
+		Key key2 = newKey("c");
+		Entry entry = newEntry(10, 60000);
+		c.claim(key0);
+		c.release(key0, entry);
+		c.claim(key1);
+		c.release(key1, entry);
+		c.get(key0);
+		c.claim(key2);
+		c.release(key2, entry);
+		assertEquals(20, c.getSize());
+		assertSame(entry, c.get(key0));
+		assertNull(c.get(key1));
+		assertSame(entry, c.get(key2));
+	}
+
+	@Test
+	void doesNotStoreLargerThanStripe() {
+		c = new ResponseCache(5, 30000);
+		Key key = newKey("a");
+		c.claim(key);
+		c.release(key, newEntry(10, 60000));
+		assertNull(c.get(key));
+		assertEquals(0, c.getSize());
+	}
+
+	@Test
+	void doesNotExceedMaxSize() {
+		c = new ResponseCache(1000000, 30000);
+		Entry entry = newEntry(1000, 60000);
+		for (int i = 0; i < 10000; i++) {
+			Key key = newKey("%d".formatted(i));
+			c.claim(key);
+			c.release(key, entry);
+		}
+		assertTrue(c.getSize() <= 1000000);
+	}
+
+	private Key newKey(String item) {
+		return new Key(null, "", null, List.of(item), List.of());
+	}
+
+	private Entry newEntry(int length, long ttl) {
+		return new Entry(200, "type/subtype", null, Map.of(), new byte[length], System.nanoTime() + ttl * 1000000);
+	}
+}
@@ -13,21 +13,25 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.nio.charset.CharsetEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.MockedStatic;
 
 import br.pro.hashi.sdx.rest.coding.MediaCoder;
 import br.pro.hashi.sdx.rest.constant.Defaults;
 import br.pro.hashi.sdx.rest.reflection.Headers;
 import br.pro.hashi.sdx.rest.reflection.Queries;
+import br.pro.hashi.sdx.rest.server.exception.NotModifiedException;
 import jakarta.servlet.http.HttpServletResponse;
 
 class RestResourceTest {
 	private MediaCoder coder;
+	private Headers headers;
 	private HttpServletResponse response;
 	private RestResource r;
 
@@ -222,6 +226,65 @@ class RestResourceTest {
 		verify(response, times(0)).addHeader(any(), any());
 	}
 
+	@Test
+	void setsVersion() {
+		r = newRestResource();
+		r.version(1);
+		verify(response).setHeader("ETag", "W/\"1\"");
+	}
+
+	@Test
+	void setsVersionWithoutMatch() {
+		r = newRestResource();
+		when(headers.getList("If-None-Match")).thenReturn(List.of("\"0\", W/\"2\""));
+		r.version(1);
+		verify(response).setHeader("ETag", "W/\"1\"");
+	}
+
+	@Test
+	void setsVersionWithMatch() {
+		r = newRestResource();
+		when(headers.getList("If-None-Match")).thenReturn(List.of("\"0\", \"1\""));
+		assertThrows(NotModifiedException.class, () -> {
+			r.version(1);
+		});
+		verify(response).setHeader("ETag", "W/\"1\"");
+	}
+
+	@Test
+	void doesNotSetVersionIfItIsNull() {
+		r = newRestResource();
+		assertThrows(NullPointerException.class, () -> {
+			r.version(null);
+		});
+		verify(response, times(0)).setHeader(any(), any());
+	}
+
+	@Test
+	void doesNotSetVersionIfStringIsNull() {
+		r = newRestResource();
+		Object version = new Object() {
+			@Override
+			public String toString() {
+				return null;
+			}
+		};
+		assertThrows(NullPointerException.class, () -> {
+			r.version(version);
+		});
+		verify(response, times(0)).setHeader(any(), any());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "", " ", "a b", "a\"b", "spéçìal" })
+	void doesNotSetVersionIfStringIsInvalid(String version) {
+		r = newRestResource();
+		assertThrows(IllegalArgumentException.class, () -> {
+			r.version(version);
+		});
+		verify(response, times(0)).setHeader(any(), any());
+	}
+
 	@Test
 	void returnsBody() {
 		r = newRestResource();
@@ -309,9 +372,9 @@ class RestResourceTest {
 	private RestResource newRestResource() {
 		coder = mock(MediaCoder.class);
 		RestResourceMock concreteResource = new RestResourceMock();
-		CharsetEncoder encoder = StandardCharsets.US_ASCII.newEncoder();
+		headers = mock(Headers.class);
 		response = mock(HttpServletResponse.class);
-		concreteResource.setFields(new HashMap<>(), mock(Headers.class), mock(Queries.class), encoder, response);
+		concreteResource.setFields(new HashMap<>(), headers, mock(Queries.class), response);
 		return concreteResource;
 	}
 }
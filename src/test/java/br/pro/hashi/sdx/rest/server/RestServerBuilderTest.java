@@ -8,6 +8,8 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockConstruction;
@@ -41,6 +43,7 @@ import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.server.handler.SecuredRedirectHandler;
 import org.eclipse.jetty.server.handler.ThreadLimitHandler;
 import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.util.thread.ThreadPool;
@@ -106,6 +109,11 @@ class RestServerBuilderTest extends BuilderTest {
 		assertNull(b.getRequestPool());
 	}
 
+	@Test
+	void initializesWithoutVirtualThreads() {
+		assertFalse(b.isVirtualThreads());
+	}
+
 	@Test
 	void initializesWithDefaultConfig() {
 		MultipartConfigElement element = b.getElement();
@@ -115,6 +123,11 @@ class RestServerBuilderTest extends BuilderTest {
 		assertEquals(200000, element.getFileSizeThreshold());
 	}
 
+	@Test
+	void initializesWithoutStreaming() {
+		assertFalse(b.isStreaming());
+	}
+
 	@Test
 	void initializesWithUnambiguousCompliance() {
 		assertEquals(UriCompliance.RFC3986_UNAMBIGUOUS, b.getCompliance());
@@ -125,6 +138,11 @@ class RestServerBuilderTest extends BuilderTest {
 		assertEquals(200000, b.getMaxBodySize());
 	}
 
+	@Test
+	void initializesWithDefaultMaxInflatedSize() {
+		assertEquals(2000000, b.getMaxInflatedSize());
+	}
+
 	@Test
 	void initializesWithDefaultClearPort() {
 		assertEquals(8080, b.getClearPort());
@@ -160,6 +178,31 @@ class RestServerBuilderTest extends BuilderTest {
 		assertTrue(b.isCors());
 	}
 
+	@Test
+	void initializesWithoutRouteCache() {
+		assertEquals(0, b.getRouteCacheSize());
+	}
+
+	@Test
+	void initializesWithoutResponseCache() {
+		assertEquals(0, b.getResponseCacheSize());
+	}
+
+	@Test
+	void initializesWithoutETag() {
+		assertFalse(b.isEtag());
+	}
+
+	@Test
+	void initializesWithCacheWaitTimeout() {
+		assertEquals(30000, b.getCacheWaitTimeout());
+	}
+
+	@Test
+	void initializesWithAsyncTimeout() {
+		assertEquals(30000, b.getAsyncTimeout());
+	}
+
 	@Test
 	void addsExtensionType() {
 		assertSame(b, b.withExtensionType("ext", "type/subtype"));
@@ -324,6 +367,22 @@ class RestServerBuilderTest extends BuilderTest {
 		});
 	}
 
+	@Test
+	void setsVirtualThreads() {
+		assumeTrue(VirtualThreads.areSupported());
+		assertSame(b, b.withVirtualThreads());
+		assertTrue(b.isVirtualThreads());
+	}
+
+	@Test
+	void doesNotSetVirtualThreadsIfNotSupported() {
+		assumeFalse(VirtualThreads.areSupported());
+		assertThrows(UnsupportedOperationException.class, () -> {
+			b.withVirtualThreads();
+		});
+		assertFalse(b.isVirtualThreads());
+	}
+
 	@Test
 	void setsMultipartConfig() {
 		assertSame(b, b.withMultipartConfig("location", -1, -1, 0));
@@ -334,6 +393,12 @@ class RestServerBuilderTest extends BuilderTest {
 		assertEquals(0, element.getFileSizeThreshold());
 	}
 
+	@Test
+	void setsStreamingMultipart() {
+		assertSame(b, b.withStreamingMultipart());
+		assertTrue(b.isStreaming());
+	}
+
 	@Test
 	void setsUriCompliance() {
 		assertSame(b, b.withUriCompliance(UriCompliance.UNSAFE));
@@ -408,6 +473,52 @@ class RestServerBuilderTest extends BuilderTest {
 		assertFalse(b.isCors());
 	}
 
+	@Test
+	void setsRouteCache() {
+		assertSame(b, b.withRouteCache(100));
+		assertEquals(100, b.getRouteCacheSize());
+	}
+
+	@Test
+	void doesNotSetRouteCache() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			b.withRouteCache(0);
+		});
+		assertEquals(0, b.getRouteCacheSize());
+	}
+
+	@Test
+	void setsResponseCache() {
+		assertSame(b, b.withResponseCache(1000));
+		assertEquals(1000, b.getResponseCacheSize());
+	}
+
+	@Test
+	void doesNotSetResponseCache() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			b.withResponseCache(0);
+		});
+		assertEquals(0, b.getResponseCacheSize());
+	}
+
+	@Test
+	void setsETag() {
+		assertSame(b, b.withETag());
+		assertTrue(b.isEtag());
+	}
+
+	@Test
+	void setsCacheWaitTimeout() {
+		assertSame(b, b.withCacheWaitTimeout(1000));
+		assertEquals(1000, b.getCacheWaitTimeout());
+	}
+
+	@Test
+	void setsAsyncTimeout() {
+		assertSame(b, b.withAsyncTimeout(1000));
+		assertEquals(1000, b.getAsyncTimeout());
+	}
+
 	@Test
 	void builds() {
 		RestServer server = b.build(VALID_PACKAGE);
@@ -440,14 +551,26 @@ class RestServerBuilderTest extends BuilderTest {
 		ThreadLimitHandler limitHandler = (ThreadLimitHandler) jettyServer.getHandler();
 		GzipHandler gzipHandler = (GzipHandler) limitHandler.getHandler();
 		Handler handler = (Handler) gzipHandler.getHandler();
-		assertSame(managerBase, handler.getManager());
+		assertSame(managerCopy, handler.getManager());
+		verify(managerCopy).freeze();
 		assertEquals(StandardCharsets.UTF_8, handler.getUrlCharset());
 		assertSame(b.getGatewayTypes(), handler.getGatewayTypes());
 		assertSame(b.getFormatter(), handler.getFormatter());
 		assertSame(b.getElement(), handler.getElement());
+		assertFalse(handler.isStreaming());
 		assertTrue(handler.isCors());
+		assertNull(handler.getRouteCache());
+		assertNull(server.getRouteCache());
+		assertNull(handler.getResponseCache());
+		assertNull(server.getResponseCache());
+		Inflation inflation = handler.getInflation();
+		assertEquals(2000000, inflation.getMaxSize());
+		assertSame(inflation, server.getInflation());
+		assertFalse(handler.isEtag());
+		assertEquals(30000, handler.getAsyncTimeout());
 		Tree tree = handler.getTree();
 		assertEquals(200000, tree.getMaxBodySize());
+		assertTrue(tree.isFrozen());
 		List<String> itemList = new ArrayList<>();
 		assertNotNull(tree.getLeafAndAddItems(new String[] { "pd(one)" }, itemList));
 		assertNotNull(tree.getLeafAndAddItems(new String[] { "pd(one-two)" }, itemList));
@@ -464,6 +587,35 @@ class RestServerBuilderTest extends BuilderTest {
 		assertSame(requestPool, server.getJettyServer().getThreadPool());
 	}
 
+	@Test
+	void buildsWithVirtualThreads() {
+		assumeTrue(VirtualThreads.areSupported());
+		QueuedThreadPool requestPool = new QueuedThreadPool();
+		b.withRequestPool(requestPool);
+		b.withVirtualThreads();
+		b.build(VALID_PACKAGE);
+		assertSame(VirtualThreads.getDefaultVirtualThreadsExecutor(), requestPool.getVirtualThreadsExecutor());
+	}
+
+	@Test
+	void doesNotBuildWithVirtualThreadsIfPoolIsNotConfigurable() {
+		assumeTrue(VirtualThreads.areSupported());
+		ThreadPool requestPool = mock(ThreadPool.class);
+		b.withRequestPool(requestPool);
+		b.withVirtualThreads();
+		assertThrows(IllegalStateException.class, () -> {
+			b.build(VALID_PACKAGE);
+		});
+	}
+
+	@Test
+	void buildsWithoutVirtualThreads() {
+		QueuedThreadPool requestPool = new QueuedThreadPool();
+		b.withRequestPool(requestPool);
+		b.build(VALID_PACKAGE);
+		assertNull(requestPool.getVirtualThreadsExecutor());
+	}
+
 	@Test
 	void buildsWithUrlCharset() {
 		b.withUrlCharset(StandardCharsets.ISO_8859_1);
@@ -526,6 +678,69 @@ class RestServerBuilderTest extends BuilderTest {
 		assertEquals(0, tree.getMaxBodySize());
 	}
 
+	@Test
+	void buildsWithStreamingMultipart() {
+		b.withStreamingMultipart();
+		RestServer server = b.build(VALID_PACKAGE);
+		ThreadLimitHandler limitHandler = (ThreadLimitHandler) server.getJettyServer().getHandler();
+		GzipHandler gzipHandler = (GzipHandler) limitHandler.getHandler();
+		Handler handler = (Handler) gzipHandler.getHandler();
+		assertTrue(handler.isStreaming());
+	}
+
+	@Test
+	void buildsWithMaxInflatedSize() {
+		assertSame(b, b.withMaxInflatedSize(0));
+		RestServer server = b.build(VALID_PACKAGE);
+		ThreadLimitHandler limitHandler = (ThreadLimitHandler) server.getJettyServer().getHandler();
+		GzipHandler gzipHandler = (GzipHandler) limitHandler.getHandler();
+		Handler handler = (Handler) gzipHandler.getHandler();
+		assertEquals(0, handler.getInflation().getMaxSize());
+	}
+
+	@Test
+	void buildsWithRouteCache() {
+		b.withRouteCache(100);
+		RestServer server = b.build(VALID_PACKAGE);
+		ThreadLimitHandler limitHandler = (ThreadLimitHandler) server.getJettyServer().getHandler();
+		GzipHandler gzipHandler = (GzipHandler) limitHandler.getHandler();
+		Handler handler = (Handler) gzipHandler.getHandler();
+		RouteCache routeCache = handler.getRouteCache();
+		assertEquals(100, routeCache.getMaxSize());
+		assertSame(routeCache, server.getRouteCache());
+	}
+
+	@Test
+	void buildsWithResponseCache() {
+		b.withResponseCache(1000);
+		RestServer server = b.build(VALID_PACKAGE);
+		ThreadLimitHandler limitHandler = (ThreadLimitHandler) server.getJettyServer().getHandler();
+		GzipHandler gzipHandler = (GzipHandler) limitHandler.getHandler();
+		Handler handler = (Handler) gzipHandler.getHandler();
+		ResponseCache responseCache = handler.getResponseCache();
+		assertEquals(1000, responseCache.getMaxSize());
+		assertEquals(30000, responseCache.getWaitTimeout());
+		assertSame(responseCache, server.getResponseCache());
+	}
+
+	@Test
+	void buildsWithCacheWaitTimeout() {
+		b.withResponseCache(1000);
+		b.withCacheWaitTimeout(1000);
+		RestServer server = b.build(VALID_PACKAGE);
+		assertEquals(1000, server.getResponseCache().getWaitTimeout());
+	}
+
+	@Test
+	void buildsWithETag() {
+		b.withETag();
+		RestServer server = b.build(VALID_PACKAGE);
+		ThreadLimitHandler limitHandler = (ThreadLimitHandler) server.getJettyServer().getHandler();
+		GzipHandler gzipHandler = (GzipHandler) limitHandler.getHandler();
+		Handler handler = (Handler) gzipHandler.getHandler();
+		assertTrue(handler.isEtag());
+	}
+
 	@Test
 	void buildsWithoutCors() {
 		b.withoutCors();
@@ -428,6 +428,6 @@ class RestServerTest {
 	}
 
 	private RestServer newRestServer(String scheme, int clearPort, int mainPort, int altPort) {
-		return new RestServer(jettyServer, scheme, clearPort, mainPort, altPort);
+		return new RestServer(jettyServer, scheme, clearPort, mainPort, altPort, null, null, null);
 	}
 }
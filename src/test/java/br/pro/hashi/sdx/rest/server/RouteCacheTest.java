@@ -0,0 +1,94 @@
+package br.pro.hashi.sdx.rest.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import br.pro.hashi.sdx.rest.server.RouteCache.Route;
+import br.pro.hashi.sdx.rest.server.StripedLruCache.Stripe;
+
+class RouteCacheTest {
+	private RouteCache c;
+
+	@Test
+	void initializesWithOneStripe() {
+		c = new RouteCache(1);
+		assertEquals(1, c.getMaxSize());
+		assertEquals(1, c.getCache().getStripes().length);
+		assertEquals(1, c.getCache().getStripes()[0].getCapacity());
+	}
+
+	@Test
+	void initializesWithSomeStripes() {
+		c = new RouteCache(100);
+		assertEquals(100, c.getMaxSize());
+		assertEquals(4, c.getCache().getStripes().length);
+		for (Stripe<?, ?> stripe : c.getCache().getStripes()) {
+			assertEquals(25, stripe.getCapacity());
+		}
+	}
+
+	@Test
+	void initializesWithMaxStripes() {
+		c = new RouteCache(1000);
+		assertEquals(1000, c.getMaxSize());
+		assertEquals(16, c.getCache().getStripes().length);
+		for (Stripe<?, ?> stripe : c.getCache().getStripes()) {
+			assertEquals(62, stripe.getCapacity());
+		}
+	}
+
+	@Test
+	void initializesWithoutRoutes() {
+		c = new RouteCache(100);
+		assertEquals(0, c.getSize());
+		assertEquals(0, c.getHits());
+		assertEquals(0, c.getMisses());
+	}
+
+	@Test
+	void getsAndPuts() {
+		c = new RouteCache(100);
+		Route route = newRoute();
+		assertNull(c.get("/a"));
+		c.put("/a", route);
+		assertSame(route, c.get("/a"));
+		assertSame(route, c.get("/a"));
+		assertEquals(1, c.getSize());
+		assertEquals(2, c.getHits());
+		assertEquals(1, c.getMisses());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsed() {
+		c = new RouteCache(2);
+		Route route = newRoute();
+		c.put("/a", route);
+		c.put("/b", route);
+		c.get("/a");
+		c.put("/c", route);
+		assertEquals(2, c.getSize());
+		assertSame(route, c.get("/a"));
+		assertNull(c.get("/b"));
+		assertSame(route, c.get("/c"));
+	}
+
+	@Test
+	void doesNotExceedMaxSize() {
+		c = new RouteCache(100);
+		Route route = newRoute();
+		for (int i = 0; i < 1000; i++) {
+			c.put("/%d".formatted(i), route);
+		}
+		assertTrue(c.getSize() <= 100);
+	}
+
+	private Route newRoute() {
+		return new Route("", null, null, List.of());
+	}
+}
@@ -0,0 +1,122 @@
+package br.pro.hashi.sdx.rest.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import br.pro.hashi.sdx.rest.server.StripedLruCache.Stripe;
+
+class StripedLruCacheTest {
+	private StripedLruCache<Integer, String> c;
+
+	@Test
+	void initializesWithOneStripe() {
+		c = new StripedLruCache<>(10, 16);
+		assertEquals(10, c.getMaxSize());
+		assertEquals(1, c.getStripes().length);
+		assertEquals(10, c.getStripes()[0].getCapacity());
+	}
+
+	@Test
+	void initializesWithSomeStripes() {
+		c = new StripedLruCache<>(64, 16);
+		assertEquals(64, c.getMaxSize());
+		assertEquals(4, c.getStripes().length);
+		for (Stripe<Integer, String> stripe : c.getStripes()) {
+			assertEquals(16, stripe.getCapacity());
+		}
+	}
+
+	@Test
+	void initializesWithMaxStripes() {
+		c = new StripedLruCache<>(1000, 1);
+		assertEquals(16, c.getStripes().length);
+		for (Stripe<Integer, String> stripe : c.getStripes()) {
+			assertEquals(62, stripe.getCapacity());
+		}
+	}
+
+	@Test
+	void initializesEmpty() {
+		c = new StripedLruCache<>(10, 16);
+		assertEquals(0, c.getSize());
+		assertEquals(0, c.getHits());
+		assertEquals(0, c.getMisses());
+	}
+
+	@Test
+	void getsAndPuts() {
+		c = new StripedLruCache<>(10, 16);
+		assertNull(c.get(0));
+		c.put(0, "a");
+		assertEquals("a", c.get(0));
+		assertEquals(1, c.getSize());
+		assertEquals(1, c.getHits());
+		assertEquals(1, c.getMisses());
+	}
+
+	@Test
+	void replaces() {
+		c = new StripedLruCache<>(10, 16, String::length, null);
+		c.put(0, "ab");
+		c.put(0, "abc");
+		assertEquals("abc", c.get(0));
+		assertEquals(3, c.getSize());
+	}
+
+	@Test
+	void peeksWithoutCounting() {
+		c = new StripedLruCache<>(10, 16);
+		assertNull(c.peek(0));
+		c.put(0, "a");
+		assertEquals("a", c.peek(0));
+		assertEquals(0, c.getHits());
+		assertEquals(0, c.getMisses());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsed() {
+		c = new StripedLruCache<>(2, 16);
+		c.put(0, "a");
+		c.put(1, "b");
+		c.get(0);
+		c.put(2, "c");
+		assertEquals("a", c.get(0));
+		assertNull(c.get(1));
+		assertEquals("c", c.get(2));
+		assertEquals(2, c.getSize());
+	}
+
+	@Test
+	void evictsByWeight() {
+		c = new StripedLruCache<>(5, 16, String::length, null);
+		c.put(0, "ab");
+		c.put(1, "cd");
+		c.put(2, "ef");
+		assertNull(c.get(0));
+		assertEquals("cd", c.get(1));
+		assertEquals("ef", c.get(2));
+		assertEquals(4, c.getSize());
+	}
+
+	@Test
+	void doesNotPutHeavierThanStripe() {
+		c = new StripedLruCache<>(5, 16, String::length, null);
+		c.put(0, "ab");
+		c.put(1, "abcdef");
+		assertEquals("ab", c.get(0));
+		assertNull(c.get(1));
+		assertEquals(2, c.getSize());
+	}
+
+	@Test
+	void removesExpired() {
+		c = new StripedLruCache<>(10, 16, String::length, "expired"::equals);
+		c.put(0, "expired");
+		c.put(1, "a");
+		assertNull(c.get(0));
+		assertEquals("a", c.get(1));
+		assertEquals(1, c.getSize());
+	}
+}
@@ -0,0 +1,10 @@
+package br.pro.hashi.sdx.rest.server.mock.allocation;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Body;
+
+public class Echo extends RestResource {
+	public String post(@Body String body) {
+		return body;
+	}
+}
@@ -0,0 +1,10 @@
+package br.pro.hashi.sdx.rest.server.mock.allocation;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.exception.BadRequestException;
+
+public class Fault extends RestResource {
+	public String get() {
+		throw new BadRequestException("fault");
+	}
+}
@@ -0,0 +1,9 @@
+package br.pro.hashi.sdx.rest.server.mock.allocation;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+
+public class Item extends RestResource {
+	public String get(int id) {
+		return Integer.toString(id);
+	}
+}
@@ -0,0 +1,9 @@
+package br.pro.hashi.sdx.rest.server.mock.allocation;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+
+public class Plain extends RestResource {
+	public String get() {
+		return "plain";
+	}
+}
@@ -0,0 +1,10 @@
+package br.pro.hashi.sdx.rest.server.mock.allocation;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Part;
+
+public class Upload extends RestResource {
+	public String post(@Part("name") String name, @Part("file") String file) {
+		return name;
+	}
+}
@@ -0,0 +1,11 @@
+package br.pro.hashi.sdx.rest.server.mock.lifecycle;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Pooled;
+
+@Pooled(1)
+public class InitializedPooledResource extends RestResource {
+	public InitializedPooledResource() {
+		status(201);
+	}
+}
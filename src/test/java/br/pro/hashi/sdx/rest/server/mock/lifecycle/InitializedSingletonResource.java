@@ -0,0 +1,11 @@
+package br.pro.hashi.sdx.rest.server.mock.lifecycle;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Singleton;
+
+@Singleton
+public class InitializedSingletonResource extends RestResource {
+	public InitializedSingletonResource() {
+		status(201);
+	}
+}
@@ -0,0 +1,8 @@
+package br.pro.hashi.sdx.rest.server.mock.lifecycle;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Pooled;
+
+@Pooled(1)
+public class PooledResource extends RestResource {
+}
@@ -0,0 +1,12 @@
+package br.pro.hashi.sdx.rest.server.mock.lifecycle;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Pooled;
+
+@Pooled(1)
+public class PooledResourceWithResetException extends RestResource {
+	@Override
+	protected void reset() {
+		throw new RuntimeException();
+	}
+}
@@ -0,0 +1,14 @@
+package br.pro.hashi.sdx.rest.server.mock.lifecycle;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Pooled;
+
+@Pooled(1)
+public class ResettablePooledResource extends RestResource {
+	public String value;
+
+	@Override
+	protected void reset() {
+		value = null;
+	}
+}
@@ -0,0 +1,10 @@
+package br.pro.hashi.sdx.rest.server.mock.lifecycle;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Pooled;
+import br.pro.hashi.sdx.rest.server.annotation.Singleton;
+
+@Singleton
+@Pooled
+public class ResourceWithBothLifecycles extends RestResource {
+}
@@ -0,0 +1,8 @@
+package br.pro.hashi.sdx.rest.server.mock.lifecycle;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Singleton;
+
+@Singleton
+public class SingletonResource extends RestResource {
+}
@@ -19,6 +19,23 @@ class CountOutputStreamTest {
 		assertEquals(0, s.getCount());
 	}
 
+	@Test
+	void adds() {
+		s.add(0);
+		s.add(2);
+		s.write(0);
+		s.add(3);
+		assertEquals(6, s.getCount());
+	}
+
+	@Test
+	void doesNotAddNegative() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			s.add(-1);
+		});
+		assertEquals(0, s.getCount());
+	}
+
 	@Test
 	void writes() {
 		byte[] b = newBytes();
@@ -0,0 +1,194 @@
+package br.pro.hashi.sdx.rest.server.stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import br.pro.hashi.sdx.rest.server.RestException;
+import br.pro.hashi.sdx.rest.server.exception.BadRequestException;
+import br.pro.hashi.sdx.rest.server.exception.PayloadTooLargeException;
+
+class InflateInputStreamTest {
+	private byte[] bytes;
+	private List<long[]> reports;
+	private InflateInputStream s;
+
+	@BeforeEach
+	void setUp() {
+		bytes = new byte[1000];
+		Arrays.fill(bytes, (byte) 97);
+		reports = new ArrayList<>();
+	}
+
+	@Test
+	void initializesWithZero() throws IOException {
+		s = newInflateInputStream(compress(true), true, 0);
+		assertEquals(0, s.getCompressedSize());
+		assertEquals(0, s.getSize());
+		assertEquals(0, s.available());
+	}
+
+	@Test
+	void readsGzip() throws IOException {
+		byte[] compressed = compress(true);
+		s = newInflateInputStream(compressed, true, 0);
+		assertArrayEquals(bytes, s.readAllBytes());
+		assertEquals(compressed.length, s.getCompressedSize());
+		assertEquals(1000, s.getSize());
+		assertReport(compressed.length, 1000, false);
+	}
+
+	@Test
+	void readsDeflate() throws IOException {
+		byte[] compressed = compress(false);
+		s = newInflateInputStream(compressed, false, 0);
+		assertArrayEquals(bytes, s.readAllBytes());
+		assertEquals(compressed.length, s.getCompressedSize());
+		assertEquals(1000, s.getSize());
+		assertReport(compressed.length, 1000, false);
+	}
+
+	@Test
+	void readsByte() throws IOException {
+		s = newInflateInputStream(compress(true), true, 0);
+		assertEquals(97, s.read());
+		assertEquals(1, s.getSize());
+		assertTrue(reports.isEmpty());
+	}
+
+	@Test
+	void readsWithinLimit() throws IOException {
+		s = newInflateInputStream(compress(true), true, 1000);
+		assertArrayEquals(bytes, s.readAllBytes());
+		assertReport(-1, 1000, false);
+	}
+
+	@Test
+	void reportsOnce() throws IOException {
+		s = newInflateInputStream(compress(true), true, 0);
+		s.readAllBytes();
+		assertEquals(-1, s.read());
+		assertEquals(1, reports.size());
+	}
+
+	@Test
+	void doesNotReadAboveLimit() {
+		s = newInflateInputStream(compress(true), true, 999);
+		RestException exception = assertThrows(PayloadTooLargeException.class, () -> {
+			s.readAllBytes();
+		});
+		assertEquals("Decompressed request body exceeds 999 bytes", exception.getBody());
+		assertReport(-1, -1, true);
+	}
+
+	@Test
+	void doesNotReadInvalidGzip() {
+		s = newInflateInputStream(bytes, true, 0);
+		RestException exception = assertThrows(BadRequestException.class, () -> {
+			s.read();
+		});
+		assertEquals("Request body is not valid gzip data", exception.getBody());
+		assertTrue(reports.isEmpty());
+	}
+
+	@Test
+	void doesNotReadInvalidDeflate() {
+		s = newInflateInputStream(bytes, false, 0);
+		RestException exception = assertThrows(BadRequestException.class, () -> {
+			s.read();
+		});
+		assertEquals("Request body is not valid deflate data", exception.getBody());
+	}
+
+	@Test
+	void doesNotReadTruncatedGzip() {
+		byte[] compressed = compress(true);
+		s = newInflateInputStream(Arrays.copyOf(compressed, compressed.length / 2), true, 0);
+		assertThrows(BadRequestException.class, () -> {
+			s.readAllBytes();
+		});
+	}
+
+	@Test
+	void closes() throws IOException {
+		boolean[] closed = new boolean[] { false };
+		ByteArrayInputStream stream = new ByteArrayInputStream(compress(true)) {
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		s = new InflateInputStream(stream, true, 0);
+		s.close();
+		assertTrue(closed[0]);
+	}
+
+	@Test
+	void reportsOnClose() throws IOException {
+		s = newInflateInputStream(compress(true), true, 0);
+		byte[] b = new byte[10];
+		assertEquals(10, s.read(b, 0, 10));
+		s.close();
+		assertReport(-1, 10, false);
+	}
+
+	@Test
+	void reportsOnceOnClose() throws IOException {
+		s = newInflateInputStream(compress(true), true, 0);
+		s.readAllBytes();
+		s.close();
+		assertEquals(1, reports.size());
+	}
+
+	@Test
+	void doesNotReportOnCloseWithoutRead() throws IOException {
+		s = newInflateInputStream(compress(true), true, 0);
+		s.close();
+		assertTrue(reports.isEmpty());
+	}
+
+	private void assertReport(long compressedSize, long size, boolean exceeded) {
+		assertEquals(1, reports.size());
+		long[] report = reports.get(0);
+		if (compressedSize != -1) {
+			assertEquals(compressedSize, report[0]);
+		}
+		if (size != -1) {
+			assertEquals(size, report[1]);
+		}
+		assertEquals(exceeded, report[2] == 1);
+	}
+
+	private byte[] compress(boolean gzip) {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		try (OutputStream output = gzip ? new GZIPOutputStream(stream) : new DeflaterOutputStream(stream)) {
+			output.write(bytes);
+		} catch (IOException exception) {
+			throw new AssertionError(exception);
+		}
+		return stream.toByteArray();
+	}
+
+	private InflateInputStream newInflateInputStream(byte[] compressed, boolean gzip, long maxSize) {
+		return new InflateInputStream(new ByteArrayInputStream(compressed), gzip, maxSize) {
+			@Override
+			protected void report(long compressedSize, long size, boolean exceeded) {
+				reports.add(new long[] { compressedSize, size, exceeded ? 1 : 0 });
+			}
+		};
+	}
+}
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
@@ -125,9 +126,83 @@ class LimitInputStreamTest {
 			s.readAllBytes();
 		});
 		assertEquals("Request body exceeds 5 bytes", exception.getBody());
+		assertEquals(6, s.getSize());
+		assertEquals(4, stream.available());
+	}
+
+	@Test
+	void doesNotReadToBytes() {
+		s = newLimitInputStream(5);
+		byte[] bytes = newByteArray(0);
+		assertThrows(PayloadTooLargeException.class, () -> {
+			s.read(bytes);
+		});
+		assertEquals(6, s.getSize());
+		assertEquals(4, stream.available());
+	}
+
+	@Test
+	void doesNotReadOfAllBytes() {
+		s = newLimitInputStream(5);
+		assertThrows(PayloadTooLargeException.class, () -> {
+			s.readNBytes(10);
+		});
+		assertEquals(6, s.getSize());
+		assertEquals(4, stream.available());
+	}
+
+	@Test
+	void doesNotReadOfBytes() {
+		s = newLimitInputStream(5);
+		byte[] bytes = newByteArray(0);
+		assertThrows(PayloadTooLargeException.class, () -> {
+			s.readNBytes(bytes, 0, 10);
+		});
+		assertEquals(6, s.getSize());
+		assertEquals(4, stream.available());
+	}
+
+	@Test
+	void doesNotSkip() {
+		s = newLimitInputStream(5);
+		assertThrows(PayloadTooLargeException.class, () -> {
+			s.skip(10);
+		});
+		assertEquals(6, s.getSize());
+		assertEquals(4, stream.available());
+	}
+
+	@Test
+	void doesNotSkipOfAllBytes() {
+		s = newLimitInputStream(5);
+		assertThrows(PayloadTooLargeException.class, () -> {
+			s.skipNBytes(10);
+		});
+		assertEquals(6, s.getSize());
+		assertEquals(4, stream.available());
+	}
+
+	@Test
+	void transfers() throws IOException {
+		s = newLimitInputStream();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertEquals(10, s.transferTo(output));
+		assertArrayEquals(newByteArray(255), output.toByteArray());
 		assertEquals(10, s.getSize());
 	}
 
+	@Test
+	void doesNotTransfer() {
+		s = newLimitInputStream(5);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertThrows(PayloadTooLargeException.class, () -> {
+			s.transferTo(output);
+		});
+		assertEquals(6, s.getSize());
+		assertEquals(4, stream.available());
+		assertEquals(0, output.size());
+	}
+
 	@Test
 	void forwards() throws IOException {
 		s = newLimitInputStream();
@@ -0,0 +1,252 @@
+package br.pro.hashi.sdx.rest.server.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import br.pro.hashi.sdx.rest.server.RestException;
+import br.pro.hashi.sdx.rest.server.exception.BadRequestException;
+import br.pro.hashi.sdx.rest.server.exception.PayloadTooLargeException;
+
+class MultipartParserTest {
+	private static final String BODY = """
+			preamble\r
+			--boundary\r
+			Content-Disposition: form-data; name="name0"\r
+			\r
+			value0\r
+			--boundary  \r
+			Content-Disposition: form-data; name="name1"; filename="file.txt"\r
+			Content-Type: text/plain\r
+			\r
+			value1\r
+			--\r
+			boundary\r
+			--boundary--\r
+			epilogue""";
+
+	private MultipartParser p;
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"multipart/form-data; boundary=boundary",
+			"multipart/form-data;boundary=\"boundary\"",
+			"multipart/form-data; charset=utf-8; BOUNDARY = boundary " })
+	void getsBoundary(String contentType) {
+		assertEquals("boundary", MultipartParser.getBoundary(contentType));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"multipart/form-data",
+			"multipart/form-data; boundary=",
+			"multipart/form-data; boundary=\"\"" })
+	void doesNotGetBoundary(String contentType) {
+		assertNull(MultipartParser.getBoundary(contentType));
+	}
+
+	@Test
+	void getsName() {
+		assertEquals("name", MultipartParser.getName("form-data; name=\"name\""));
+		assertEquals("name", MultipartParser.getName("form-data;name=name"));
+		assertEquals("na;me", MultipartParser.getName("form-data; filename=\"a;b\"; name=\"na;me\""));
+		assertEquals("na\"me", MultipartParser.getName("form-data; name=\"na\\\"me\""));
+		assertEquals("", MultipartParser.getName("form-data; name=\"\""));
+		assertNull(MultipartParser.getName("form-data; filename=\"name\""));
+	}
+
+	@Test
+	void parses() throws IOException {
+		p = newParser(BODY);
+		assertTrue(p.next());
+		assertEquals("name0", p.getName());
+		assertNull(p.getContentType());
+		assertEquals("form-data; name=\"name0\"", p.getHeaders().get("content-disposition"));
+		assertEquals("value0", read(p.getStream()));
+		assertTrue(p.next());
+		assertEquals("name1", p.getName());
+		assertEquals("text/plain", p.getContentType());
+		assertEquals("value1\r\n--\r\nboundary", read(p.getStream()));
+		assertFalse(p.next());
+		assertFalse(p.next());
+	}
+
+	@Test
+	void parsesOneByteAtATime() throws IOException {
+		p = new MultipartParser(newSlowStream(BODY), "boundary", 0, 0, "", 8192);
+		assertTrue(p.next());
+		assertEquals("value0", read(p.getStream()));
+		assertTrue(p.next());
+		assertEquals("value1\r\n--\r\nboundary", read(p.getStream()));
+		assertFalse(p.next());
+	}
+
+	@Test
+	void parsesWithoutParts() throws IOException {
+		p = newParser("--boundary--");
+		assertFalse(p.next());
+	}
+
+	@Test
+	void keepsUnreadStream() throws IOException {
+		p = newParser(BODY);
+		assertTrue(p.next());
+		InputStream stream = p.getStream();
+		assertEquals('v', stream.read());
+		assertTrue(p.next());
+		assertEquals(5, stream.available());
+		assertEquals("alue0", read(stream));
+		assertEquals("value1\r\n--\r\nboundary", read(p.getStream()));
+	}
+
+	@Test
+	void keepsUnreadStreamInFile(@TempDir Path location) throws IOException {
+		p = new MultipartParser(newStream(BODY), "boundary", 0, 0, location.toString(), 4);
+		assertTrue(p.next());
+		InputStream stream = p.getStream();
+		assertEquals('v', stream.read());
+		assertTrue(p.next());
+		assertEquals(5, stream.available());
+		assertEquals("alue0", read(stream));
+		assertEquals(0, count(location));
+		assertEquals("value1\r\n--\r\nboundary", read(p.getStream()));
+	}
+
+	@Test
+	void doesNotKeepUnreadStreamInMissingLocation(@TempDir Path location) throws IOException {
+		p = new MultipartParser(newStream(BODY), "boundary", 0, 0, location.resolve("missing").toString(), 4);
+		assertTrue(p.next());
+		InputStream stream = p.getStream();
+		assertEquals('v', stream.read());
+		assertThrows(NoSuchFileException.class, () -> {
+			p.next();
+		});
+		assertEquals(0, count(location));
+	}
+
+	@Test
+	void keepsUnreadStreamInMemory(@TempDir Path location) throws IOException {
+		p = new MultipartParser(newStream(BODY), "boundary", 0, 0, location.resolve("missing").toString(), 5);
+		assertTrue(p.next());
+		InputStream stream = p.getStream();
+		assertEquals('v', stream.read());
+		assertTrue(p.next());
+		assertEquals("alue0", read(stream));
+	}
+
+	@Test
+	void deletesUnreadFileWhenClosed(@TempDir Path location) throws IOException {
+		p = new MultipartParser(newStream(BODY), "boundary", 0, 0, location.toString(), 0);
+		assertTrue(p.next());
+		InputStream stream = p.getStream();
+		assertTrue(p.next());
+		stream.close();
+		assertEquals(0, count(location));
+		assertEquals(-1, stream.read());
+	}
+
+	@Test
+	void deletesUnreadFileWhenParserClosed(@TempDir Path location) throws IOException {
+		p = new MultipartParser(newStream(BODY), "boundary", 0, 0, location.toString(), 0);
+		assertTrue(p.next());
+		p.getStream();
+		assertTrue(p.next());
+		p.close();
+		assertEquals(0, count(location));
+	}
+
+	@Test
+	void skipsUnusedStream() throws IOException {
+		p = newParser(BODY);
+		assertTrue(p.next());
+		assertTrue(p.next());
+		assertEquals("name1", p.getName());
+		assertEquals("value1\r\n--\r\nboundary", read(p.getStream()));
+	}
+
+	@Test
+	void doesNotReadLargePart() throws IOException {
+		p = new MultipartParser(newStream(BODY), "boundary", 6, 0, "", 8192);
+		assertTrue(p.next());
+		assertEquals("value0", read(p.getStream()));
+		assertTrue(p.next());
+		InputStream stream = p.getStream();
+		RestException exception = assertThrows(PayloadTooLargeException.class, () -> {
+			read(stream);
+		});
+		assertEquals("One of the parts exceeds 6 bytes", exception.getBody());
+	}
+
+	@Test
+	void doesNotReadLargeRequest() {
+		p = new MultipartParser(newSlowStream(BODY), "boundary", 0, 100, "", 8192);
+		RestException exception = assertThrows(PayloadTooLargeException.class, () -> {
+			while (p.next()) {
+				read(p.getStream());
+			}
+		});
+		assertEquals("Multipart request exceeds 100 bytes", exception.getBody());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+			"",
+			"--boundary",
+			"--boundary\r\n",
+			"--boundary\r\nContent-Disposition: form-data; name=\"name\"\r\n",
+			"--boundary\r\nContent-Disposition: form-data; name=\"name\"\r\n\r\nvalue",
+			"--boundary x\r\n\r\nvalue\r\n--boundary--",
+			"--boundary\r\ninvalid\r\n\r\nvalue\r\n--boundary--" })
+	void doesNotParse(String body) {
+		p = newParser(body);
+		RestException exception = assertThrows(BadRequestException.class, () -> {
+			while (p.next()) {
+				read(p.getStream());
+			}
+		});
+		assertEquals("Parts could not be parsed", exception.getBody());
+	}
+
+	private String read(InputStream stream) throws IOException {
+		return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+	}
+
+	private long count(Path location) throws IOException {
+		try (Stream<Path> paths = Files.list(location)) {
+			return paths.count();
+		}
+	}
+
+	private MultipartParser newParser(String body) {
+		return new MultipartParser(newStream(body), "boundary", 0, 0, "", 8192);
+	}
+
+	private InputStream newStream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private InputStream newSlowStream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)) {
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				return super.read(b, off, Math.min(len, 1));
+			}
+		};
+	}
+}
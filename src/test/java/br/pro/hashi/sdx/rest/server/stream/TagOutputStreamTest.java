@@ -0,0 +1,119 @@
+package br.pro.hashi.sdx.rest.server.stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TagOutputStreamTest {
+	private ByteArrayOutputStream stream;
+	private TagOutputStream s;
+
+	@BeforeEach
+	void setUp() {
+		stream = new ByteArrayOutputStream();
+	}
+
+	@Test
+	void initializes() {
+		s = new TagOutputStream(stream, 4);
+		assertEquals(0, s.getSize());
+		assertFalse(s.isOverflowed());
+	}
+
+	@Test
+	void holds() throws IOException {
+		s = new TagOutputStream(stream, 4);
+		s.write(new byte[] { 0, 1 });
+		s.write(2);
+		s.close();
+		assertEquals(3, s.getSize());
+		assertFalse(s.isOverflowed());
+		assertEquals(0, stream.size());
+	}
+
+	@Test
+	void holdsUntilCapacity() throws IOException {
+		s = new TagOutputStream(stream, 1024);
+		byte[] b = new byte[1024];
+		s.write(b, 0, 600);
+		s.write(b, 600, 424);
+		assertEquals(1024, s.getSize());
+		assertFalse(s.isOverflowed());
+		assertEquals(0, stream.size());
+	}
+
+	@Test
+	void releasesWithBody() throws IOException {
+		s = new TagOutputStream(stream, 4);
+		s.write(new byte[] { 0, 1, 2 });
+		s.close();
+		s.release(true);
+		assertArrayEquals(new byte[] { 0, 1, 2 }, stream.toByteArray());
+	}
+
+	@Test
+	void releasesWithoutBody() throws IOException {
+		s = new TagOutputStream(stream, 4);
+		s.write(new byte[] { 0, 1, 2 });
+		s.close();
+		s.release(false);
+		assertEquals(0, stream.size());
+	}
+
+	@Test
+	void overflows() throws IOException {
+		s = new TagOutputStream(stream, 4);
+		s.write(new byte[] { 0, 1, 2 });
+		s.write(new byte[] { 3, 4 });
+		s.write(5);
+		s.close();
+		assertTrue(s.isOverflowed());
+		assertArrayEquals(new byte[] { 0, 1, 2, 3, 4, 5 }, stream.toByteArray());
+		assertThrows(IllegalStateException.class, () -> {
+			s.getTag();
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			s.release(true);
+		});
+	}
+
+	@Test
+	void tags() throws IOException {
+		assertEquals(tag("body"), tag("body"));
+		assertNotEquals(tag("body"), tag("other"));
+		assertTrue(tag("body").matches("\"[A-Za-z0-9_-]{22}\""));
+	}
+
+	@Test
+	void doesNotWriteOutOfBounds() {
+		s = new TagOutputStream(stream, 4);
+		byte[] b = new byte[2];
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			s.write(b, -1, 1);
+		});
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			s.write(b, 0, -1);
+		});
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			s.write(b, 1, 2);
+		});
+		assertEquals(0, s.getSize());
+	}
+
+	private String tag(String content) throws IOException {
+		TagOutputStream tagStream = new TagOutputStream(new ByteArrayOutputStream(), 64);
+		tagStream.write(content.getBytes(StandardCharsets.UTF_8));
+		tagStream.close();
+		return tagStream.getTag();
+	}
+}
@@ -20,6 +20,7 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.MockedStatic;
 
 import br.pro.hashi.sdx.rest.coding.MediaCoder;
+import br.pro.hashi.sdx.rest.server.Inflation;
 import br.pro.hashi.sdx.rest.server.stream.LimitInputStream;
 import br.pro.hashi.sdx.rest.transform.Deserializer;
 import br.pro.hashi.sdx.rest.transform.Disassembler;
@@ -87,6 +88,28 @@ class DataTest {
 		verify(coder).decode(stream, contentType);
 	}
 
+	@ParameterizedTest
+	@NullSource
+	@ValueSource(strings = { CONTENT_TYPE })
+	void getsInflatedBody(String contentType) {
+		InputStream inflated = InputStream.nullInputStream();
+		Inflation inflation = mock(Inflation.class);
+		when(inflation.inflate(any(LimitInputStream.class), eq("gzip"), eq(200000L))).thenReturn(inflated);
+		when(coder.decode(inflated, contentType)).thenReturn(stream);
+		when(coder.strip(contentType)).thenReturn(null);
+		media.when(() -> MediaCoder.getInstance()).thenReturn(coder);
+		d = new Data(manager, contentType, stream, inflation, "gzip");
+		Object body = new Object();
+		Disassembler disassembler = mock(Disassembler.class);
+		when(disassembler.read(stream, Object.class)).thenReturn(body);
+		when(manager.isBinary(Object.class)).thenReturn(true);
+		when(manager.getDisassemblerType(null, Object.class)).thenReturn(CONTENT_TYPE);
+		when(manager.getDisassembler(CONTENT_TYPE)).thenReturn(disassembler);
+		assertSame(body, d.getBody(Object.class, 200000));
+		verify(inflation).inflate(any(LimitInputStream.class), eq("gzip"), eq(200000L));
+		verify(coder).decode(inflated, contentType);
+	}
+
 	private Data newData(String contentType) {
 		return new Data(manager, contentType, stream);
 	}
@@ -3,6 +3,7 @@ package br.pro.hashi.sdx.rest.server.tree;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -10,6 +11,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.AdditionalMatchers.eq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -24,27 +26,45 @@ import java.io.UncheckedIOException;
 import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
+import org.eclipse.jetty.http.HttpFields;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import br.pro.hashi.sdx.rest.Fields;
 import br.pro.hashi.sdx.rest.Hint;
+import br.pro.hashi.sdx.rest.reflection.Headers;
 import br.pro.hashi.sdx.rest.reflection.ParserFactory;
+import br.pro.hashi.sdx.rest.reflection.Queries;
 import br.pro.hashi.sdx.rest.reflection.Reflector;
 import br.pro.hashi.sdx.rest.reflection.exception.ReflectionException;
 import br.pro.hashi.sdx.rest.server.RestException;
 import br.pro.hashi.sdx.rest.server.RestResource;
 import br.pro.hashi.sdx.rest.server.exception.BadRequestException;
+import br.pro.hashi.sdx.rest.server.exception.PayloadTooLargeException;
+import br.pro.hashi.sdx.rest.server.stream.MultipartParser;
 import br.pro.hashi.sdx.rest.server.tree.Endpoint.DataParameter;
+import br.pro.hashi.sdx.rest.server.tree.Endpoint.FieldParameter;
 import br.pro.hashi.sdx.rest.server.tree.Endpoint.ItemParameter;
+import br.pro.hashi.sdx.rest.server.tree.mock.endpoint.CachedMethods;
+import br.pro.hashi.sdx.rest.server.tree.mock.endpoint.CachedResource;
 import br.pro.hashi.sdx.rest.server.tree.mock.endpoint.Signatures;
 import br.pro.hashi.sdx.rest.transform.exception.DisassemblingException;
 import br.pro.hashi.sdx.rest.transform.exception.TypeException;
+import br.pro.hashi.sdx.rest.transform.manager.TransformManager;
 
 class EndpointTest {
 	private static final double DELTA = 0.000001;
@@ -62,6 +82,8 @@ class EndpointTest {
 		factory = mock(ParserFactory.class);
 		when(factory.get(int.class)).thenReturn(intFunction);
 		when(factory.get(double.class)).thenReturn(doubleFunction);
+		when(factory.getIntParser()).thenReturn(Integer::parseInt);
+		when(factory.getDoubleParser()).thenReturn(Double::parseDouble);
 		resource = spy(new Signatures());
 	}
 
@@ -70,6 +92,7 @@ class EndpointTest {
 		e = newEndpoint(0, "withReturn");
 		assertEquals(Signatures.class, e.getResourceType());
 		assertEquals(boolean.class, e.getReturnType());
+		assertFalse(e.isAsync());
 		assertNull(e.getVarType());
 		assertEquals(0, e.getItemParameters().length);
 		assertTrue(e.getPartParameters().isEmpty());
@@ -78,6 +101,96 @@ class EndpointTest {
 		assertEquals(0, e.getReach());
 	}
 
+	@Test
+	void constructsWithFuture() {
+		e = newEndpoint(0, "withFuture");
+		assertEquals(String.class, e.getReturnType());
+		assertTrue(e.isAsync());
+	}
+
+	@Test
+	void constructsWithStage() {
+		e = newEndpoint(0, "withStage");
+		assertEquals(new Hint<List<String>>() {}.getType(), e.getReturnType());
+		assertTrue(e.isAsync());
+	}
+
+	@Test
+	void constructsWithWildcardFuture() {
+		e = newEndpoint(0, "withWildcardFuture");
+		assertEquals(Object.class, e.getReturnType());
+		assertTrue(e.isAsync());
+	}
+
+	@Test
+	void constructsWithoutCache() {
+		e = newEndpoint(0, "withReturn");
+		assertFalse(e.isCached());
+		assertEquals(0, e.getCacheTtl());
+		assertNull(e.getCacheQueries());
+		assertNull(e.getCacheHeaders());
+	}
+
+	@Test
+	void constructsWithCachedMethod() {
+		e = newEndpoint(CachedMethods.class, "get", int.class);
+		assertTrue(e.isCached());
+		assertEquals(1000, e.getCacheTtl());
+		assertArrayEquals(new String[] { "q" }, e.getCacheQueries());
+		assertArrayEquals(new String[] { "h0", "h1" }, e.getCacheHeaders());
+	}
+
+	@Test
+	void constructsWithCachedMethodAndFields() {
+		when(factory.get(String.class)).thenReturn((valueString) -> valueString);
+		e = newEndpoint(CachedMethods.class, "get", String.class, String.class, String.class);
+		assertArrayEquals(new String[] { "q", "p" }, e.getCacheQueries());
+		assertArrayEquals(new String[] { "h" }, e.getCacheHeaders());
+	}
+
+	@Test
+	void constructsWithCachedResource() {
+		e = newEndpoint(CachedResource.class, "get");
+		assertTrue(e.isCached());
+		assertEquals(2000, e.getCacheTtl());
+		assertArrayEquals(new String[] {}, e.getCacheQueries());
+		assertArrayEquals(new String[] {}, e.getCacheHeaders());
+	}
+
+	@Test
+	void constructsWithCachedResourceAndPost() {
+		e = newEndpoint(CachedResource.class, "post");
+		assertFalse(e.isCached());
+	}
+
+	@Test
+	void doesNotConstructWithCachedAsync() {
+		assertThrows(ReflectionException.class, () -> {
+			newEndpoint(CachedMethods.class, "get");
+		});
+	}
+
+	@Test
+	void doesNotConstructWithCachedBody() {
+		assertThrows(ReflectionException.class, () -> {
+			newEndpoint(CachedMethods.class, "get", String.class);
+		});
+	}
+
+	@Test
+	void doesNotConstructWithCachedZero() {
+		assertThrows(ReflectionException.class, () -> {
+			newEndpoint(CachedMethods.class, "get", double.class);
+		});
+	}
+
+	@Test
+	void doesNotConstructWithCachedPost() {
+		assertThrows(ReflectionException.class, () -> {
+			newEndpoint(CachedMethods.class, "post");
+		});
+	}
+
 	@ParameterizedTest
 	@ValueSource(ints = { 1, 2 })
 	void doesNotConstructWithReturn(int distance) {
@@ -750,6 +863,14 @@ class EndpointTest {
 		assertEquals(name, parameter.name());
 	}
 
+	private void assertField(int index, String name, Function<String, ?> function, Object defaultValue, boolean required, FieldParameter parameter) {
+		assertEquals(index, parameter.index() - 1);
+		assertEquals(name, parameter.name());
+		assertSame(function, parameter.function());
+		assertEquals(defaultValue, parameter.defaultValue());
+		assertEquals(required, parameter.required());
+	}
+
 	private void assertData(int index, Type type, long maxSize, DataParameter parameter) {
 		assertEquals(index, parameter.index() - 1);
 		assertEquals(type, parameter.type());
@@ -847,6 +968,207 @@ class EndpointTest {
 		verify(resource).withVarArgs(1, 2);
 	}
 
+	@Test
+	void constructsWithQuery() {
+		e = newEndpoint(0, "withQuery", int.class);
+		assertEquals(0, e.getItemParameters().length);
+		FieldParameter[] queryParameters = e.getQueryParameters();
+		assertEquals(1, queryParameters.length);
+		assertField(0, "page", intFunction, null, true, queryParameters[0]);
+		assertEquals(0, e.getHeaderParameters().length);
+	}
+
+	@Test
+	void constructsWithDefaultQuery() {
+		e = newEndpoint(0, "withDefaultQuery", int.class);
+		assertField(0, "page", intFunction, 1, false, e.getQueryParameters()[0]);
+	}
+
+	@Test
+	void constructsWithOneItemAndQueryAndHeader() {
+		when(factory.get(String.class)).thenReturn((valueString) -> valueString);
+		e = newEndpoint(1, "withOneItemAndQueryAndHeader", int.class, double.class, String.class);
+		ItemParameter[] itemParameters = e.getItemParameters();
+		assertEquals(1, itemParameters.length);
+		assertItem(0, intFunction, "arg0", itemParameters[0]);
+		assertField(1, "q", doubleFunction, null, true, e.getQueryParameters()[0]);
+		assertEquals("X-Token", e.getHeaderParameters()[0].name());
+		assertArrayEquals(new Object[] { null, null, null, null }, e.getArguments());
+		assertEquals(0, e.getReach());
+	}
+
+	@Test
+	void doesNotConstructWithOptionalPrimitiveQuery() {
+		assertThrows(ReflectionException.class, () -> {
+			newEndpoint(0, "withOptionalPrimitiveQuery", int.class);
+		});
+	}
+
+	@Test
+	void doesNotConstructWithInvalidDefaultQuery() {
+		assertThrows(ReflectionException.class, () -> {
+			newEndpoint(0, "withInvalidDefaultQuery", int.class);
+		});
+	}
+
+	@Test
+	void doesNotConstructWithBlankHeader() {
+		assertThrows(ReflectionException.class, () -> {
+			newEndpoint(0, "withBlankHeader", String.class);
+		});
+	}
+
+	@Test
+	void doesNotConstructWithQueryAndHeader() {
+		assertThrows(ReflectionException.class, () -> {
+			newEndpoint(0, "withQueryAndHeader", String.class);
+		});
+	}
+
+	@Test
+	void doesNotConstructWithPartAndQuery() {
+		assertThrows(ReflectionException.class, () -> {
+			newEndpoint(0, "withPartAndQuery", String.class);
+		});
+	}
+
+	@Test
+	void doesNotConstructWithVarQuery() {
+		assertThrows(ReflectionException.class, () -> {
+			newEndpoint(0, "withVarQuery", int[].class);
+		});
+	}
+
+	@Test
+	void doesNotConstructWithGenericHeader() {
+		assertThrows(ReflectionException.class, () -> {
+			newEndpoint(0, "withGenericHeader", List.class);
+		});
+	}
+
+	@Test
+	void callsWithQuery() {
+		e = newEndpoint(0, "withQuery", int.class);
+		Fields queries = Queries.newInstance(Map.of("page", new String[] { "2", "3" }));
+		assertDoesNotThrow(() -> {
+			assertNull(e.call(resource, List.of(), queries, null, Map.of(), null));
+		});
+		assertArrayEquals(new Object[] { null, null }, e.getArguments());
+		verify(resource).withQuery(2);
+	}
+
+	@Test
+	void doesNotCallWithoutQuery() {
+		e = newEndpoint(0, "withQuery", int.class);
+		Fields queries = Queries.newInstance(Map.of());
+		RestException exception = assertThrows(BadRequestException.class, () -> {
+			e.call(resource, List.of(), queries, null, Map.of(), null);
+		});
+		assertEquals("Endpoint expects query 'page'", exception.getBody());
+		assertArrayEquals(new Object[] { null, null }, e.getArguments());
+	}
+
+	@Test
+	void doesNotCallWithInvalidQuery() {
+		e = newEndpoint(0, "withQuery", int.class);
+		Fields queries = Queries.newInstance(Map.of("page", new String[] { "s" }));
+		RestException exception = assertThrows(BadRequestException.class, () -> {
+			e.call(resource, List.of(), queries, null, Map.of(), null);
+		});
+		assertEquals("Value of query 'page' is not valid", exception.getBody());
+	}
+
+	@Test
+	void callsWithOptionalQuery() {
+		when(factory.get(String.class)).thenReturn((valueString) -> valueString);
+		e = newEndpoint(0, "withOptionalQuery", String.class);
+		assertDoesNotThrow(() -> {
+			assertNull(e.call(resource, List.of(), Map.of(), null));
+		});
+		verify(resource).withOptionalQuery(null);
+	}
+
+	@Test
+	void callsWithDefaultQuery() {
+		e = newEndpoint(0, "withDefaultQuery", int.class);
+		Fields queries = Queries.newInstance(Map.of());
+		assertDoesNotThrow(() -> {
+			assertNull(e.call(resource, List.of(), queries, null, Map.of(), null));
+		});
+		verify(resource).withDefaultQuery(1);
+	}
+
+	@Test
+	void callsWithOneItemAndQueryAndHeader() {
+		when(factory.get(String.class)).thenReturn((valueString) -> valueString);
+		e = newEndpoint(1, "withOneItemAndQueryAndHeader", int.class, double.class, String.class);
+		Fields queries = Queries.newInstance(Map.of("q", new String[] { "2.3" }));
+		Fields headers = Headers.newInstance(HttpFields.build().add("X-Token", "token"));
+		assertDoesNotThrow(() -> {
+			assertNull(e.call(resource, List.of("1"), queries, headers, Map.of(), null));
+		});
+		assertArrayEquals(new Object[] { null, null, null, null }, e.getArguments());
+		verify(resource).withOneItemAndQueryAndHeader(eq(1), eq(2.3, DELTA), eq("token"));
+	}
+
+	@Test
+	void doesNotCallWithoutHeader() {
+		when(factory.get(String.class)).thenReturn((valueString) -> valueString);
+		e = newEndpoint(1, "withOneItemAndQueryAndHeader", int.class, double.class, String.class);
+		Fields queries = Queries.newInstance(Map.of("q", new String[] { "2.3" }));
+		Fields headers = Headers.newInstance(HttpFields.build());
+		RestException exception = assertThrows(BadRequestException.class, () -> {
+			e.call(resource, List.of("1"), queries, headers, Map.of(), null);
+		});
+		assertEquals("Endpoint expects header 'X-Token'", exception.getBody());
+	}
+
+	@Test
+	void callsWithLongVarArgs() {
+		when(factory.get(long.class)).thenReturn(Long::parseLong);
+		when(factory.getLongParser()).thenReturn(Long::parseLong);
+		e = newEndpoint(0, "withLongVarArgs", long[].class);
+		assertDoesNotThrow(() -> {
+			assertNull(e.call(resource, List.of("1", "2"), Map.of(), null));
+		});
+		assertArrayEquals(new Object[] { null, null }, e.getArguments());
+		verify(resource).withLongVarArgs(1, 2);
+	}
+
+	@Test
+	void doesNotCallWithInvalidLongVarArgs() {
+		when(factory.get(long.class)).thenReturn(Long::parseLong);
+		when(factory.getLongParser()).thenReturn(Long::parseLong);
+		e = newEndpoint(0, "withLongVarArgs", long[].class);
+		RestException exception = assertThrows(BadRequestException.class, () -> {
+			e.call(resource, List.of("1", "s"), Map.of(), null);
+		});
+		assertEquals("Argument 's' is not valid", exception.getBody());
+		assertArrayEquals(new Object[] { null, null }, e.getArguments());
+	}
+
+	@Test
+	void callsWithCharVarArgs() {
+		when(factory.get(char.class)).thenReturn((valueString) -> valueString.charAt(0));
+		e = newEndpoint(0, "withCharVarArgs", char[].class);
+		assertDoesNotThrow(() -> {
+			assertNull(e.call(resource, List.of("a", "b"), Map.of(), null));
+		});
+		assertArrayEquals(new Object[] { null, null }, e.getArguments());
+		verify(resource).withCharVarArgs('a', 'b');
+	}
+
+	@Test
+	void callsWithStringVarArgs() {
+		when(factory.get(String.class)).thenReturn((valueString) -> valueString);
+		e = newEndpoint(0, "withStringVarArgs", String[].class);
+		assertDoesNotThrow(() -> {
+			assertNull(e.call(resource, List.of("a", "b"), Map.of(), null));
+		});
+		assertArrayEquals(new Object[] { null, null }, e.getArguments());
+		verify(resource).withStringVarArgs("a", "b");
+	}
+
 	@Test
 	void doesNotCallWithVarArgsAndOneExtraBody() {
 		e = newEndpoint(0, "withVarArgs", int[].class);
@@ -1473,6 +1795,72 @@ class EndpointTest {
 		verify(data, times(0)).getBody(eq(Object.class), any(long.class));
 	}
 
+	@Test
+	void callsWithStreamingParts() {
+		e = newEndpoint(0, "withStringAndStreamParts", String.class, InputStream.class);
+		String[] values = new String[1];
+		doAnswer((invocation) -> {
+			InputStream stream = invocation.getArgument(1);
+			values[0] = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+			return null;
+		}).when(resource).withStringAndStreamParts(any(), any());
+		Map<String, List<Fields>> headersMap = new HashMap<>();
+		assertDoesNotThrow(() -> {
+			assertNull(e.call(resource, List.of(), TransformManager.newInstance(), newParser("name0", "name1"), headersMap));
+		});
+		assertArrayEquals(new Object[] { null, null, null }, e.getArguments());
+		verify(resource).withStringAndStreamParts(eq("value0"), any());
+		assertEquals("value1", values[0]);
+		assertEquals(Set.of("name0", "name1"), headersMap.keySet());
+	}
+
+	@Test
+	void doesNotCallWithoutStreamingPart() {
+		e = newEndpoint(0, "withStringAndStreamParts", String.class, InputStream.class);
+		RestException exception = assertThrows(BadRequestException.class, () -> {
+			e.call(resource, List.of(), TransformManager.newInstance(), newParser("name0", "name"), new HashMap<>());
+		});
+		assertEquals("Endpoint expects a body part with name 'name1'", exception.getBody());
+		assertArrayEquals(new Object[] { null, null, null }, e.getArguments());
+	}
+
+	@Test
+	void doesNotCallWithExtraStreamingPart() {
+		e = newEndpoint(0, "withStringAndStreamParts", String.class, InputStream.class);
+		RestException exception = assertThrows(BadRequestException.class, () -> {
+			e.call(resource, List.of(), TransformManager.newInstance(), newParser("name0", "name0"), new HashMap<>());
+		});
+		assertEquals("Endpoint expects only 1 body parts with name 'name0'", exception.getBody());
+	}
+
+	@Test
+	void doesNotCallWithoutStreamingParts() {
+		e = newEndpoint(0, "withStringAndStreamParts", String.class, InputStream.class);
+		RestException exception = assertThrows(BadRequestException.class, () -> {
+			e.call(resource, List.of(), TransformManager.newInstance(), newParser(), new HashMap<>());
+		});
+		assertEquals("Endpoint expects a multipart body", exception.getBody());
+	}
+
+	@Test
+	void doesNotCallWithUnexpectedStreamingPart() {
+		e = newEndpoint(0, "withNothing");
+		RestException exception = assertThrows(BadRequestException.class, () -> {
+			e.call(resource, List.of(), TransformManager.newInstance(), newParser("name0"), new HashMap<>());
+		});
+		assertEquals("Endpoint does not expect a multipart body", exception.getBody());
+	}
+
+	private MultipartParser newParser(String... names) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < names.length; i++) {
+			builder.append("--boundary\r\nContent-Disposition: form-data; name=\"%s\"\r\n\r\nvalue%d\r\n".formatted(names[i], i));
+		}
+		builder.append("--boundary--");
+		InputStream stream = new ByteArrayInputStream(builder.toString().getBytes(StandardCharsets.UTF_8));
+		return new MultipartParser(stream, "boundary", 0, 0, "", 8192);
+	}
+
 	@Test
 	void callsWithOneBody() {
 		e = newEndpoint(0, "withOneBody", Object.class);
@@ -1872,6 +2260,84 @@ class EndpointTest {
 		assertArrayEquals(new Object[] { null }, e.getArguments());
 	}
 
+	@Test
+	void callsConcurrently() {
+		e = newEndpoint(0, "withEverythingAndVarArgsAndBody", int.class, Object.class, double[].class);
+		Signatures resource = new Signatures();
+		int numThreads = 16;
+		int numCalls = 2000;
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		CountDownLatch latch = new CountDownLatch(1);
+		List<Future<Integer>> futures = new ArrayList<>();
+		for (int t = 0; t < numThreads; t++) {
+			int i = t;
+			futures.add(executor.submit(() -> {
+				latch.await();
+				int mismatches = 0;
+				for (int j = 0; j < numCalls; j++) {
+					String body = "body%d-%d".formatted(i, j);
+					Data data = new Data(null, null, null) {
+						@Override
+						Object getBody(Type type, long maxSize) {
+							return body;
+						}
+					};
+					Object result = e.call(resource, List.of(Integer.toString(i), Integer.toString(j), Integer.toString(i + j)), Map.of(), data);
+					if (!"%d %s [%s, %s]".formatted(i, body, (double) j, (double) (i + j)).equals(result)) {
+						mismatches++;
+					}
+				}
+				return mismatches;
+			}));
+		}
+		latch.countDown();
+		assertDoesNotThrow(() -> {
+			for (Future<Integer> future : futures) {
+				assertEquals(0, future.get());
+			}
+		});
+		executor.shutdown();
+		assertArrayEquals(new Object[] { null, null, null, null }, e.getArguments());
+	}
+
+	@Test
+	void hasBody() {
+		e = newEndpoint(0, "withLargeBody", Object.class);
+		assertTrue(e.hasBody());
+	}
+
+	@Test
+	void doesNotHaveBody() {
+		e = newEndpoint(0, "withNothing");
+		assertFalse(e.hasBody());
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = { -1, 0, 100000 })
+	void checksContentLength(long contentLength) {
+		e = newEndpoint(0, "withLargeBody", Object.class);
+		assertDoesNotThrow(() -> {
+			e.checkContentLength(contentLength);
+		});
+	}
+
+	@Test
+	void doesNotCheckContentLength() {
+		e = newEndpoint(0, "withLargeBody", Object.class);
+		RestException exception = assertThrows(PayloadTooLargeException.class, () -> {
+			e.checkContentLength(100001);
+		});
+		assertEquals("Request body exceeds 100000 bytes", exception.getBody());
+	}
+
+	@Test
+	void checksContentLengthWithoutBody() {
+		e = newEndpoint(0, "withNothing");
+		assertDoesNotThrow(() -> {
+			e.checkContentLength(Long.MAX_VALUE);
+		});
+	}
+
 	@Test
 	void doesNotUnreflectWithoutPublic() {
 		e = newEndpoint(0, "withNothing");
@@ -1885,7 +2351,7 @@ class EndpointTest {
 	void doesNotInvokeWithError() {
 		e = newEndpoint(0, "withNothing");
 		Method method = getDeclaredMethod(Signatures.class, "withError");
-		MethodHandle handle = Reflector.getInstance().unreflect(method);
+		MethodHandle handle = Endpoint.toInvoker(Reflector.getInstance().unreflect(method));
 		Object[] arguments = new Object[] { resource };
 		assertThrows(AssertionError.class, () -> {
 			e.invoke(handle, arguments);
@@ -1899,6 +2365,11 @@ class EndpointTest {
 		return new Endpoint(factory, 200000, distance, subType, subType.getName(), method, methodName);
 	}
 
+	private Endpoint newEndpoint(Class<? extends RestResource> subType, String methodName, Class<?>... types) {
+		Method method = getDeclaredMethod(subType, methodName, types);
+		return new Endpoint(factory, 200000, 0, subType, subType.getName(), method, methodName);
+	}
+
 	private Method getDeclaredMethod(Class<?> subType, String methodName, Class<?>... types) {
 		Method method;
 		try {
@@ -3,6 +3,7 @@ package br.pro.hashi.sdx.rest.server.tree;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -90,4 +91,37 @@ class NodeTest {
 		assertEquals(Set.of("GET", "POST"), n.getMethodNames());
 		assertEquals(Set.of("POST"), n.getVarMethodNames());
 	}
+
+	@Test
+	void freezes() {
+		Node nullChild = n.requireChild(null);
+		Node itemChild = n.requireChild(new String("item"));
+		Endpoint getEndpoint = mock(Endpoint.class);
+		doReturn(null).when(getEndpoint).getVarType();
+		n.putEndpoint("GET", getEndpoint);
+		Endpoint postEndpoint = mock(Endpoint.class);
+		doReturn(Object.class).when(postEndpoint).getVarType();
+		n.putEndpoint("POST", postEndpoint);
+		n.freeze();
+		assertEquals(Set.of("item"), n.getChildren().keySet());
+		assertSame("item", n.getChildren().keySet().iterator().next());
+		assertSame(nullChild, n.getChild(null));
+		assertSame(itemChild, n.getChild("item"));
+		assertSame(getEndpoint, n.getEndpoint("HEAD", 0));
+		assertSame(postEndpoint, n.getEndpoint("POST", 1));
+		assertEquals(Set.of("GET", "POST"), Set.of(n.getAllow().split(", ")));
+		assertEquals("POST", n.getVarAllow());
+		assertThrows(UnsupportedOperationException.class, () -> {
+			n.requireChild("other");
+		});
+	}
+
+	@Test
+	void getsAllowWithoutFreezing() {
+		Endpoint postEndpoint = mock(Endpoint.class);
+		doReturn(Object.class).when(postEndpoint).getVarType();
+		n.putEndpoint("POST", postEndpoint);
+		assertEquals("POST", n.getAllow());
+		assertEquals("POST", n.getVarAllow());
+	}
 }
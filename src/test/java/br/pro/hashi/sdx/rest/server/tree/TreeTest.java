@@ -1,6 +1,7 @@
 package br.pro.hashi.sdx.rest.server.tree;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -187,6 +188,76 @@ class TreeTest {
 		assertEquals(Set.of("PUT", "PATCH", "OPTIONS"), t.getMethodNames());
 	}
 
+	@Test
+	void freezes() {
+		putNodesAndEndpoints(GetPost.class);
+		putNodesAndEndpoints(PutPatch.class);
+		assertFalse(t.isFrozen());
+		t.freeze();
+		assertTrue(t.isFrozen());
+		assertEquals(Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "OPTIONS"), t.getMethodNames());
+		assertStaticLeaf("/a", new String[] { "a" });
+		assertStaticLeaf("/a/b", new String[] { "a", "b" });
+		assertThrows(UnsupportedOperationException.class, () -> {
+			t.getMethodNames().add("DELETE");
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			putNodesAndEndpoints(PostPut.class);
+		});
+	}
+
+	@Test
+	void putsStaticLeaves() {
+		putNodesAndEndpoints(GetPost.class);
+		putNodesAndEndpoints(PutPatch.class);
+		assertEquals(Set.of("/a", "/a/b"), t.getStaticLeaves().keySet());
+		assertStaticLeaf("/a", new String[] { "a" });
+		assertStaticLeaf("/a/b", new String[] { "a", "b" });
+	}
+
+	@Test
+	void putsStaticLeafFromReaches() {
+		putNodesAndEndpoints(Reaches.class);
+		assertEquals(Set.of("/"), t.getStaticLeaves().keySet());
+		assertStaticLeaf("/", new String[] {});
+	}
+
+	@Test
+	void putsStaticLeafFromZero() {
+		putNodesAndEndpoints(Zero.class);
+		assertEquals(Set.of("/a/b/a0/b0"), t.getStaticLeaves().keySet());
+		assertStaticLeaf("/a/b/a0/b0", new String[] { "a", "b", "a0", "b0" });
+	}
+
+	@Test
+	void doesNotPutStaticLeafFromOne() {
+		try (MockedConstruction<Endpoint> construction = mockEndpointConstruction()) {
+			putNodesAndEndpoints(One.class);
+			assertTrue(t.getStaticLeaves().isEmpty());
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "a/b", "a%b", "a+b" })
+	void doesNotPutStaticLeafWithEscapable(String item) {
+		itemMap.put(GetPost.class, new String[] { item });
+		putNodesAndEndpoints(GetPost.class);
+		assertTrue(t.getStaticLeaves().isEmpty());
+	}
+
+	@Test
+	void doesNotPutStaticLeafWithEndingEmpty() {
+		itemMap.put(GetPost.class, new String[] { "a", "" });
+		putNodesAndEndpoints(GetPost.class);
+		assertTrue(t.getStaticLeaves().isEmpty());
+	}
+
+	private void assertStaticLeaf(String path, String[] items) {
+		Leaf leaf = t.getStaticLeaf(path);
+		assertSame(getNodeAndAddItems(items), leaf.node());
+		assertEquals(0, leaf.varSize());
+	}
+
 	@Test
 	void putsEndpointsFromReaches() {
 		putNodesAndEndpoints(Reaches.class);
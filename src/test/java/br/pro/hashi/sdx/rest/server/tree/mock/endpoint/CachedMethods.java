@@ -0,0 +1,39 @@
+package br.pro.hashi.sdx.rest.server.tree.mock.endpoint;
+
+import java.util.concurrent.CompletableFuture;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Body;
+import br.pro.hashi.sdx.rest.server.annotation.Cached;
+import br.pro.hashi.sdx.rest.server.annotation.Header;
+import br.pro.hashi.sdx.rest.server.annotation.Query;
+
+public class CachedMethods extends RestResource {
+	@Cached(value = 1000, queries = "q", headers = { "h0", "h1" })
+	public String get(int i) {
+		return "get";
+	}
+
+	@Cached
+	public CompletableFuture<String> get() {
+		return CompletableFuture.completedFuture("get");
+	}
+
+	@Cached
+	public void get(@Body String body) {
+	}
+
+	@Cached(queries = "q", headers = "h")
+	public String get(@Query("q") String q, @Query("p") String p, @Header("h") String h) {
+		return "get";
+	}
+
+	@Cached(0)
+	public String get(double d) {
+		return "get";
+	}
+
+	@Cached
+	public void post() {
+	}
+}
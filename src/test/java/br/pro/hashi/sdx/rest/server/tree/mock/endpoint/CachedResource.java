@@ -0,0 +1,14 @@
+package br.pro.hashi.sdx.rest.server.tree.mock.endpoint;
+
+import br.pro.hashi.sdx.rest.server.RestResource;
+import br.pro.hashi.sdx.rest.server.annotation.Cached;
+
+@Cached(2000)
+public class CachedResource extends RestResource {
+	public String get() {
+		return "get";
+	}
+
+	public void post() {
+	}
+}
@@ -1,10 +1,16 @@
 package br.pro.hashi.sdx.rest.server.tree.mock.endpoint;
 
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import br.pro.hashi.sdx.rest.server.RestResource;
 import br.pro.hashi.sdx.rest.server.annotation.Body;
+import br.pro.hashi.sdx.rest.server.annotation.Header;
 import br.pro.hashi.sdx.rest.server.annotation.Part;
+import br.pro.hashi.sdx.rest.server.annotation.Query;
 
 public class Signatures extends RestResource {
 	public boolean withReturn() {
@@ -14,9 +20,63 @@ public class Signatures extends RestResource {
 	public void withNothing() {
 	}
 
+	public CompletableFuture<String> withFuture() {
+		return CompletableFuture.completedFuture("future");
+	}
+
+	public CompletionStage<List<String>> withStage() {
+		return CompletableFuture.completedFuture(List.of("stage"));
+	}
+
+	public CompletableFuture<?> withWildcardFuture() {
+		return CompletableFuture.completedFuture("future");
+	}
+
 	public void withVarArgs(int... args) {
 	}
 
+	public void withLongVarArgs(long... args) {
+	}
+
+	public void withQuery(@Query("page") int page) {
+	}
+
+	public void withOptionalQuery(@Query(value = "name", required = false) String name) {
+	}
+
+	public void withDefaultQuery(@Query(value = "page", defaultValue = "1") int page) {
+	}
+
+	public void withOneItemAndQueryAndHeader(int i, @Query("q") double q, @Header(" X-Token ") String token) {
+	}
+
+	public void withOptionalPrimitiveQuery(@Query(value = "page", required = false) int page) {
+	}
+
+	public void withInvalidDefaultQuery(@Query(value = "page", defaultValue = "s") int page) {
+	}
+
+	public void withBlankHeader(@Header(" ") String header) {
+	}
+
+	public void withQueryAndHeader(@Query("q") @Header("h") String value) {
+	}
+
+	public void withPartAndQuery(@Part("name") @Query("q") String value) {
+	}
+
+	public void withVarQuery(@Query("q") int... q) {
+	}
+
+	public void withGenericHeader(@Header("h") List<String> h) {
+	}
+
+	public void withCharVarArgs(char... args) {
+	}
+
+	public void withStringVarArgs(String... args) {
+	}
+
 	public void withOneItem(int i) {
 	}
 
@@ -56,6 +116,9 @@ public class Signatures extends RestResource {
 	public void withTwoPartsAndTwoNames(@Part("name0") Object part0, @Part("name1") String part1) {
 	}
 
+	public void withStringAndStreamParts(@Part("name0") String part0, @Part("name1") InputStream part1) {
+	}
+
 	public void withOnePartAndVarBody(@Part("name") Object part, @Body String... body) {
 	}
 
@@ -101,6 +164,10 @@ public class Signatures extends RestResource {
 		return true;
 	}
 
+	public String withEverythingAndVarArgsAndBody(int i, @Body Object body, double... args) {
+		return "%d %s %s".formatted(i, body, Arrays.toString(args));
+	}
+
 	public void withOnePartAndBody(@Part("name") @Body Object both) {
 	}
 
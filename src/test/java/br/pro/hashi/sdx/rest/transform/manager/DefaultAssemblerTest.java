@@ -43,6 +43,18 @@ class DefaultAssemblerTest {
 		assertEqualsBody(stream);
 	}
 
+	@Test
+	void measuresByteArray() {
+		byte[] body = newByteArray();
+		assertEquals(body.length, a.length(body, byte[].class));
+	}
+
+	@Test
+	void doesNotMeasureInputStream() {
+		InputStream body = new ByteArrayInputStream(newByteArray());
+		assertEquals(-1, a.length(body, InputStream.class));
+	}
+
 	@Test
 	void writesInputStream() {
 		InputStream body = new ByteArrayInputStream(newByteArray());
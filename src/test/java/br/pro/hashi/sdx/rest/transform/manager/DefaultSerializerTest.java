@@ -12,10 +12,14 @@ import java.io.StringWriter;
 import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import br.pro.hashi.sdx.rest.Hint;
 import br.pro.hashi.sdx.rest.transform.Serializer;
@@ -68,6 +72,35 @@ class DefaultSerializerTest {
 		assertEquals("body", writer.toString());
 	}
 
+	@ParameterizedTest
+	@ValueSource(strings = { "body", "spéçìal", "\u20ac\ud83d\ude00", "\ud83d", "\ude00\ud83d" })
+	void measuresStringInUtf8(String body) {
+		assertLength(body, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void measuresStringInIso88591() {
+		assertLength("spéçìal", StandardCharsets.ISO_8859_1);
+	}
+
+	@Test
+	void measuresPrimitive() {
+		assertEquals(4, s.length(1234, int.class, StandardCharsets.UTF_8));
+	}
+
+	private void assertLength(String body, Charset charset) {
+		StringWriter writer = new StringWriter();
+		s.write(body, String.class, writer);
+		int expected = writer.toString().getBytes(charset).length;
+		assertEquals(expected, s.length(body, String.class, charset));
+	}
+
+	@Test
+	void doesNotMeasureReader() {
+		Reader body = new StringReader(newString());
+		assertEquals(-1, s.length(body, Reader.class, StandardCharsets.UTF_8));
+	}
+
 	@Test
 	void doesNotWriteUnsupportedType() {
 		Object body = new Object();
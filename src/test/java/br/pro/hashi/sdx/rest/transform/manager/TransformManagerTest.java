@@ -21,6 +21,7 @@ import java.io.Reader;
 import java.io.Writer;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.List;
 import java.util.function.Consumer;
 
 import org.junit.jupiter.api.AfterEach;
@@ -117,6 +118,70 @@ class TransformManagerTest {
 		assertEquals(m.getFallbackType(), manager.getFallbackType());
 	}
 
+	@Test
+	void initializesWithoutFreezing() {
+		assertFalse(m.isFrozen());
+	}
+
+	@Test
+	void freezes() {
+		m.freeze();
+		assertTrue(m.isFrozen());
+		assertSame(defaultAssembler, m.getAssembler("application/octet-stream"));
+		assertSame(defaultSerializer, m.getSerializer("text/plain"));
+		assertEquals("text/plain", m.getExtensionType("txt"));
+	}
+
+	@Test
+	void freezesTwice() {
+		m.freeze();
+		m.freeze();
+		assertTrue(m.isFrozen());
+	}
+
+	@Test
+	void getsUnfrozenCopy() {
+		m.freeze();
+		TransformManager manager = TransformManager.newInstance(m);
+		assertFalse(manager.isFrozen());
+		manager.putDefaultSerializer("application/xml;parameter");
+		assertSame(defaultSerializer, manager.getSerializer("application/xml"));
+	}
+
+	@Test
+	void doesNotPutWhenFrozen() {
+		m.freeze();
+		assertThrows(IllegalStateException.class, () -> {
+			m.putDefaultSerializer("application/xml;parameter");
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			m.removeAssembler("application/octet-stream;parameter");
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			m.putExtensionType("xml", "text/plain;parameter");
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			m.addBinary(ReadableByteChannel.class);
+		});
+		assertThrows(IllegalStateException.class, () -> {
+			m.setFallbackType("application/xml;parameter");
+		});
+	}
+
+	@Test
+	void classifiesWhenFrozen() {
+		m.addBinary(ReadableByteChannel.class);
+		m.freeze();
+		assertTrue(m.isBinary(byte[].class));
+		assertTrue(m.isBinary(ByteArrayInputStream.class));
+		assertTrue(m.isBinary(ReadableByteChannel.class));
+		assertTrue(m.isBinary(ReadableByteChannel.class));
+		assertFalse(m.isBinary(String.class));
+		assertFalse(m.isBinary(String.class));
+		assertTrue(m.isBinary(new Hint<Consumer<OutputStream>>() {}.getType()));
+		assertFalse(m.isBinary(new Hint<Consumer<WritableByteChannel>>() {}.getType()));
+	}
+
 	@Test
 	void getsAssembler() {
 		assertSame(defaultAssembler, m.getAssembler("application/octet-stream"));
@@ -734,6 +799,78 @@ class TransformManagerTest {
 		});
 	}
 
+	@Test
+	void getsByteArrayDefaultType() {
+		assertEquals("application/octet-stream", m.getDefaultType(byte[].class));
+	}
+
+	@Test
+	void getsInputStreamDefaultType() {
+		assertEquals("application/octet-stream", m.getDefaultType(ByteArrayInputStream.class));
+	}
+
+	@Test
+	void getsStreamConsumerDefaultType() {
+		assertEquals("application/octet-stream", m.getDefaultType(new Hint<Consumer<OutputStream>>() {}.getType()));
+	}
+
+	@Test
+	void getsBinaryFallbackDefaultType() {
+		m.addBinary(ReadableByteChannel.class);
+		assertNull(m.getDefaultType(ReadableByteChannel.class));
+		m.setBinaryFallbackType("image/png;parameter");
+		assertEquals("image/png", m.getDefaultType(ReadableByteChannel.class));
+	}
+
+	@Test
+	void doesNotGetAmbiguousBinaryDefaultType() {
+		m.addBinary(Object.class);
+		m.setBinaryFallbackType("image/png;parameter");
+		assertNull(m.getDefaultType(Object.class));
+	}
+
+	@Test
+	void doesNotGetGenericBinaryDefaultType() {
+		m.addBinary(new Hint<Consumer<WritableByteChannel>>() {}.getType());
+		m.setBinaryFallbackType("image/png;parameter");
+		assertNull(m.getDefaultType(new Hint<Consumer<WritableByteChannel>>() {}.getType()));
+	}
+
+	@Test
+	void getsSimpleDefaultType() {
+		assertEquals("text/plain", m.getDefaultType(int.class));
+		assertEquals("text/plain", m.getDefaultType(String.class));
+	}
+
+	@Test
+	void getsReaderDefaultType() {
+		assertEquals("text/plain", m.getDefaultType(Reader.class));
+	}
+
+	@Test
+	void getsWriterConsumerDefaultType() {
+		assertEquals("text/plain", m.getDefaultType(new Hint<Consumer<Writer>>() {}.getType()));
+	}
+
+	@Test
+	void getsFallbackDefaultType() {
+		assertNull(m.getDefaultType(Writer.class));
+		m.setFallbackType("application/json;parameter");
+		assertEquals("application/json", m.getDefaultType(Writer.class));
+	}
+
+	@Test
+	void doesNotGetAmbiguousDefaultType() {
+		m.setFallbackType("application/json;parameter");
+		assertNull(m.getDefaultType(Object.class));
+	}
+
+	@Test
+	void doesNotGetGenericDefaultType() {
+		m.setFallbackType("application/json;parameter");
+		assertNull(m.getDefaultType(new Hint<Consumer<Reader>>() {}.getType()));
+	}
+
 	@Test
 	void getsDeserializerType() {
 		String contentType = "application/xml";
@@ -756,4 +893,188 @@ class TransformManagerTest {
 			m.getDeserializerType(null, Object.class);
 		});
 	}
+
+	@Test
+	void getsAcceptType() {
+		m.putDefaultSerializer("application/json;parameter");
+		assertEquals("application/json", m.getAcceptType(Object.class, "application/json"));
+	}
+
+	@Test
+	void getsAcceptTypeIgnoringCase() {
+		m.putDefaultSerializer("application/json;parameter");
+		assertEquals("application/json", m.getAcceptType(Object.class, "Application/JSON"));
+	}
+
+	@Test
+	void getsAcceptTypeWithHighestWeight() {
+		m.putDefaultSerializer("application/json;parameter");
+		m.putDefaultSerializer("application/xml;parameter");
+		assertEquals("application/xml", m.getAcceptType(Object.class, "application/json;q=0.5, application/xml;q=0.8"));
+	}
+
+	@Test
+	void getsAcceptTypeWithHighestSpecificity() {
+		m.putDefaultSerializer("application/json;parameter");
+		m.putDefaultSerializer("application/xml;parameter");
+		assertEquals("application/xml", m.getAcceptType(Object.class, "application/*, application/xml"));
+	}
+
+	@Test
+	void getsAcceptTypeWithFirstOfSameWeight() {
+		m.putDefaultSerializer("application/json;parameter");
+		m.putDefaultSerializer("application/xml;parameter");
+		assertEquals("application/json", m.getAcceptType(Object.class, "application/json, application/xml"));
+	}
+
+	@Test
+	void getsAcceptTypeSkippingMissingTypes() {
+		m.putDefaultSerializer("application/json;parameter");
+		assertEquals("application/json", m.getAcceptType(Object.class, "text/html, application/json;q=0.9"));
+	}
+
+	@Test
+	void getsAcceptTypeFromRange() {
+		m.putDefaultSerializer("application/json;parameter");
+		m.putDefaultSerializer("application/xml;parameter");
+		assertEquals("application/json", m.getAcceptType(Object.class, "application/*"));
+	}
+
+	@Test
+	void getsDefaultAcceptTypeFromRange() {
+		m.putDefaultSerializer("text/html;parameter");
+		assertEquals("text/plain", m.getAcceptType(Object.class, "text/*"));
+	}
+
+	@Test
+	void getsAcceptTypeFromRangeWithoutExcluded() {
+		m.putDefaultSerializer("application/json;parameter");
+		m.putDefaultSerializer("application/xml;parameter");
+		assertEquals("application/xml", m.getAcceptType(Object.class, "application/*, application/json;q=0"));
+	}
+
+	@Test
+	void getsBinaryAcceptType() {
+		m.putDefaultAssembler("image/png;parameter");
+		m.putDefaultSerializer("application/json;parameter");
+		assertEquals("image/png", m.getAcceptType(byte[].class, "application/json, image/png;q=0.5"));
+	}
+
+	@Test
+	void doesNotGetAcceptTypeFromAnyRange() {
+		m.putDefaultSerializer("application/json;parameter");
+		assertNull(m.getAcceptType(Object.class, "text/html, */*;q=0.8, application/json;q=0.5"));
+	}
+
+	@Test
+	void doesNotGetMissingAcceptType() {
+		assertNull(m.getAcceptType(Object.class, "application/json"));
+	}
+
+	@Test
+	void doesNotGetExcludedAcceptType() {
+		m.putDefaultSerializer("application/json;parameter");
+		assertNull(m.getAcceptType(Object.class, "application/json;q=0"));
+	}
+
+	@Test
+	void doesNotGetAcceptTypeWithInvalidWeight() {
+		m.putDefaultSerializer("application/json;parameter");
+		assertNull(m.getAcceptType(Object.class, "application/json;q=2, application/xml;q=x"));
+	}
+
+	@Test
+	void doesNotGetAcceptTypeFromBlank() {
+		assertNull(m.getAcceptType(Object.class, " , "));
+	}
+
+	@Test
+	void getsAcceptTypeFromAnyRangeWithoutExcludedDefault() {
+		m.putSerializer("application/json;parameter", mock(Serializer.class));
+		m.putSerializer("application/xml;parameter", mock(Serializer.class));
+		m.setFallbackType("application/json;parameter");
+		assertEquals("application/xml", m.getAcceptType(List.class, "*/*, application/json;q=0"));
+	}
+
+	@Test
+	void doesNotGetAcceptTypeFromAnyRangeWithExcludedDefault() {
+		m.putSerializer("application/json;parameter", mock(Serializer.class));
+		m.setFallbackType("application/json;parameter");
+		m.putDefaultSerializer("text/plain;parameter");
+		assertNull(m.getAcceptType(List.class, "*/*, application/json;q=0, text/plain;q=0"));
+		assertFalse(m.acceptsDefault(List.class, "*/*, application/json;q=0, text/plain;q=0"));
+	}
+
+	@Test
+	void getsAcceptTypeSupportingType() {
+		m.putSerializer("application/json;parameter", mock(Serializer.class));
+		m.putDefaultSerializer("application/xml;parameter");
+		assertEquals("application/json", m.getAcceptType(List.class, "application/xml, application/json;q=0.5"));
+	}
+
+	@Test
+	void doesNotGetAcceptTypeNotSupportingType() {
+		m.putSerializer("application/json;parameter", mock(Serializer.class));
+		m.setFallbackType("application/json;parameter");
+		assertNull(m.getAcceptType(List.class, "text/plain"));
+		assertFalse(m.acceptsDefault(List.class, "text/plain"));
+	}
+
+	@Test
+	void doesNotGetAcceptTypeFromRangeNotSupportingType() {
+		m.putSerializer("application/json;parameter", mock(Serializer.class));
+		m.setFallbackType("application/json;parameter");
+		assertNull(m.getAcceptType(List.class, "text/*"));
+		assertFalse(m.acceptsDefault(List.class, "text/*"));
+	}
+
+	@Test
+	void doesNotGetBinaryAcceptTypeNotSupportingType() {
+		m.addBinary(List.class);
+		m.putAssembler("image/png;parameter", mock(Assembler.class));
+		assertEquals("image/png", m.getAcceptType(List.class, "application/octet-stream, image/png;q=0.5"));
+		assertNull(m.getAcceptType(List.class, "application/octet-stream"));
+	}
+
+	@Test
+	void acceptsDefaultFromAnyRange() {
+		m.setFallbackType("application/json;parameter");
+		assertTrue(m.acceptsDefault(List.class, "text/html, */*;q=0.8"));
+	}
+
+	@Test
+	void acceptsDefaultFromRange() {
+		assertTrue(m.acceptsDefault(String.class, "text/*"));
+	}
+
+	@Test
+	void acceptsDefaultFromType() {
+		assertTrue(m.acceptsDefault(byte[].class, "Application/Octet-Stream"));
+	}
+
+	@Test
+	void acceptsDefaultFromBlank() {
+		assertTrue(m.acceptsDefault(String.class, " , "));
+	}
+
+	@Test
+	void acceptsUnknownDefault() {
+		assertTrue(m.acceptsDefault(Object.class, "application/json"));
+	}
+
+	@Test
+	void doesNotAcceptDefaultWithoutMatch() {
+		m.putDefaultSerializer("application/json;parameter");
+		assertFalse(m.acceptsDefault(String.class, "application/json"));
+	}
+
+	@Test
+	void doesNotAcceptExcludedDefault() {
+		assertFalse(m.acceptsDefault(String.class, "*/*, text/plain;q=0"));
+	}
+
+	@Test
+	void doesNotAcceptUnknownDefaultWithOnlyExclusions() {
+		assertFalse(m.acceptsDefault(Object.class, "application/json;q=0"));
+	}
 }